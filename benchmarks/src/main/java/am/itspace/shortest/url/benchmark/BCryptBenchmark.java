@@ -0,0 +1,35 @@
+package am.itspace.shortest.url.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hash time per BCrypt strength, for picking {@code password-encoder.bcrypt-strength}: run it on
+ * production-class hardware and take the highest strength that stays within the login latency
+ * budget. {@code -p strength=12,13} narrows the sweep.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BCryptBenchmark {
+
+  @Param({"10", "11", "12", "13", "14"})
+  public int strength;
+
+  private BCryptPasswordEncoder encoder;
+
+  @Setup
+  public void setUp() {
+    encoder = new BCryptPasswordEncoder(strength);
+  }
+
+  @Benchmark
+  public String encode() {
+    return encoder.encode(Fixtures.PASSWORD);
+  }
+}
@@ -0,0 +1,50 @@
+package am.itspace.shortest.url.benchmark;
+
+import am.itspace.shortest.url.model.ShortUrl;
+import am.itspace.shortest.url.model.enums.UrlStatus;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+import java.util.Random;
+
+final class Fixtures {
+
+  static final String EMAIL = "bench@example.com";
+  static final String PASSWORD = "correct horse battery staple";
+
+  private Fixtures() {
+  }
+
+  /**
+   * A cached row as the redirect path sees it; {@code lifecycle} adds an activation window and a
+   * click limit so the codec writes its second format version.
+   */
+  static ShortUrl shortUrl(boolean lifecycle) {
+    Instant now = Instant.now().truncatedTo(ChronoUnit.MICROS);
+    ShortUrl.ShortUrlBuilder builder = ShortUrl.builder()
+        .id(48_213_377L)
+        .shortKey("aZ09xYq")
+        .originalUrl("https://example.com/articles/2024/06/benchmarking-the-redirect-path?utm_source=newsletter&utm_medium=email")
+        .isActive(true)
+        .clickCount(1_284L)
+        .userId(42L)
+        .updatedAt(now);
+    if (lifecycle) {
+      builder.status(UrlStatus.ACTIVE)
+          .activatesAt(now.minus(1, ChronoUnit.DAYS))
+          .expiresAt(now.plus(30, ChronoUnit.DAYS))
+          .maxClicks(100_000L);
+    }
+    return builder.build();
+  }
+
+  /**
+   * A random HS512-sized key in the base64 form {@code jwt.secret} expects.
+   */
+  static String jwtSecret() {
+    byte[] key = new byte[64];
+    new Random(7).nextBytes(key);
+    return Base64.getEncoder().encodeToString(key);
+  }
+}
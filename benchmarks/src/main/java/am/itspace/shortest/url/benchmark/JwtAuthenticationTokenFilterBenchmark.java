@@ -0,0 +1,103 @@
+package am.itspace.shortest.url.benchmark;
+
+import am.itspace.shortest.url.filter.JwtAuthenticationTokenFilter;
+import am.itspace.shortest.url.model.User;
+import am.itspace.shortest.url.model.enums.Role;
+import am.itspace.shortest.url.repository.TokenRepository;
+import am.itspace.shortest.url.security.CurrentUser;
+import am.itspace.shortest.url.security.TokenDenylist;
+import am.itspace.shortest.url.util.jwt.JwtTokenUtil;
+import am.itspace.shortest.url.util.jwt.JwtTokenVerifier;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One authenticated request through {@link JwtAuthenticationTokenFilter} with in-memory
+ * collaborators, so the numbers cover token verification, the security context and the
+ * authentication details without Redis or the database. The denylist never finds the jti revoked
+ * and the user lookup returns a prebuilt principal.
+ * <p>
+ * {@code token=warm} repeats one token, so after the first call the verifier answers from its
+ * cache. {@code token=cold} evicts it before every call, which costs what a token's first request
+ * on a node costs: the HMAC check and claim parsing.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtAuthenticationTokenFilterBenchmark {
+
+  private static final FilterChain NO_OP_CHAIN = (request, response) -> {
+  };
+
+  @Param({"warm", "cold"})
+  public String token;
+
+  private JwtAuthenticationTokenFilter filter;
+  private JwtTokenVerifier jwtTokenVerifier;
+  private String bearerToken;
+  private boolean cold;
+  private MockHttpServletRequest request;
+  private MockHttpServletResponse response;
+
+  @Setup
+  public void setUp() {
+    JwtTokenUtil jwtTokenUtil = new JwtTokenUtil(Fixtures.jwtSecret(), 3600L);
+    jwtTokenVerifier = new JwtTokenVerifier(jwtTokenUtil, 10_000, Duration.ofMinutes(5));
+
+    UserDetails principal = new CurrentUser(User.builder()
+        .id(42L)
+        .email(Fixtures.EMAIL)
+        .password("{noop}password")
+        .role(Role.USER)
+        .build());
+    UserDetailsService userDetailsService = username -> principal;
+
+    TokenRepository tokenRepository = (TokenRepository) Proxy.newProxyInstance(
+        TokenRepository.class.getClassLoader(), new Class<?>[]{TokenRepository.class},
+        (proxy, method, args) -> switch (method.getName()) {
+          case "findByAccessToken", "findByJti" -> Optional.empty();
+          case "existsByJtiAndRevokedTrue" -> false;
+          default -> throw new UnsupportedOperationException(method.getName());
+        });
+    TokenDenylist tokenDenylist = new TokenDenylist(null, tokenRepository, 1, Duration.ofSeconds(1)) {
+      @Override
+      public boolean isRevoked(String jti) {
+        return false;
+      }
+    };
+
+    filter = new JwtAuthenticationTokenFilter(jwtTokenVerifier, userDetailsService, tokenRepository, tokenDenylist);
+    request = new MockHttpServletRequest("GET", "/status/aZ09xYq");
+    bearerToken = jwtTokenUtil.generateToken(Fixtures.EMAIL);
+    request.addHeader("Authorization", "Bearer " + bearerToken);
+    response = new MockHttpServletResponse();
+    cold = token.equals("cold");
+  }
+
+  @Benchmark
+  public Authentication authenticate() throws Exception {
+    if (cold) {
+      jwtTokenVerifier.evict(bearerToken);
+    }
+    try {
+      filter.doFilter(request, response, NO_OP_CHAIN);
+      return SecurityContextHolder.getContext().getAuthentication();
+    } finally {
+      SecurityContextHolder.clearContext();
+    }
+  }
+}
@@ -0,0 +1,49 @@
+package am.itspace.shortest.url.benchmark;
+
+import am.itspace.shortest.url.util.jwt.JwtTokenUtil;
+import am.itspace.shortest.url.util.jwt.JwtTokenVerifier;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HS512 token issue and validation, plus the verifier's cached path that the filter takes for a
+ * token it has already seen.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtBenchmark {
+
+  private JwtTokenUtil jwtTokenUtil;
+  private JwtTokenVerifier jwtTokenVerifier;
+  private String token;
+
+  @Setup
+  public void setUp() {
+    jwtTokenUtil = new JwtTokenUtil(Fixtures.jwtSecret(), 3600L);
+    jwtTokenVerifier = new JwtTokenVerifier(jwtTokenUtil, 10_000, Duration.ofMinutes(5));
+    token = jwtTokenUtil.generateToken(Fixtures.EMAIL);
+    jwtTokenVerifier.verify(token);
+  }
+
+  @Benchmark
+  public String generateToken() {
+    return jwtTokenUtil.generateToken(Fixtures.EMAIL);
+  }
+
+  @Benchmark
+  public boolean validateToken() {
+    return jwtTokenUtil.validateToken(token, Fixtures.EMAIL);
+  }
+
+  @Benchmark
+  public Claims verifyCached() {
+    return jwtTokenVerifier.verify(token);
+  }
+}
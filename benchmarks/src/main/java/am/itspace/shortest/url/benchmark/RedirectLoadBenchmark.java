@@ -0,0 +1,119 @@
+package am.itspace.shortest.url.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Closed-loop load generator for {@code GET /{shortKey}}. Start the application once with
+ * {@code VIRTUAL_THREADS_ENABLED=true} and once with {@code false}, then run:
+ * <pre>
+ *   RedirectLoadBenchmark http://localhost:8080 2000 30 key1,key2,key3
+ * </pre>
+ * (base URL, concurrent clients, seconds, short keys). It prints throughput and latency
+ * percentiles; 404s count as errors, redirects are not followed.
+ */
+public class RedirectLoadBenchmark {
+
+  private static final Duration WARMUP = Duration.ofSeconds(5);
+
+  public static void main(String[] args) throws Exception {
+    String baseUrl = args[0];
+    int clients = Integer.parseInt(args[1]);
+    Duration duration = Duration.ofSeconds(Long.parseLong(args[2]));
+    String[] shortKeys = args[3].split(",");
+
+    HttpClient httpClient = HttpClient.newBuilder()
+        .followRedirects(HttpClient.Redirect.NEVER)
+        .connectTimeout(Duration.ofSeconds(5))
+        .executor(Executors.newVirtualThreadPerTaskExecutor())
+        .build();
+
+    run(httpClient, baseUrl, shortKeys, clients, WARMUP);
+    Result result = run(httpClient, baseUrl, shortKeys, clients, duration);
+    result.print(clients, duration);
+  }
+
+  private static Result run(HttpClient httpClient, String baseUrl, String[] shortKeys, int clients, Duration duration) throws Exception {
+    long deadline = System.nanoTime() + duration.toNanos();
+    List<Future<Result>> futures = new ArrayList<>(clients);
+
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (int i = 0; i < clients; i++) {
+        futures.add(executor.submit(() -> client(httpClient, baseUrl, shortKeys, deadline)));
+      }
+    }
+
+    Result total = new Result();
+    for (Future<Result> future : futures) {
+      total.merge(future.get());
+    }
+    return total;
+  }
+
+  private static Result client(HttpClient httpClient, String baseUrl, String[] shortKeys, long deadline) {
+    Result result = new Result();
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    while (System.nanoTime() < deadline) {
+      HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/" + shortKeys[random.nextInt(shortKeys.length)]))
+          .timeout(Duration.ofSeconds(10))
+          .GET()
+          .build();
+      long start = System.nanoTime();
+      try {
+        HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+        result.record(System.nanoTime() - start, response.statusCode() == 302);
+      } catch (Exception e) {
+        result.record(System.nanoTime() - start, false);
+      }
+    }
+    return result;
+  }
+
+  private static final class Result {
+
+    private long[] latencies = new long[1024];
+    private int count;
+    private long errors;
+
+    void record(long nanos, boolean ok) {
+      if (count == latencies.length) {
+        latencies = Arrays.copyOf(latencies, count * 2);
+      }
+      latencies[count++] = nanos;
+      if (!ok) errors++;
+    }
+
+    void merge(Result other) {
+      for (int i = 0; i < other.count; i++) {
+        record(other.latencies[i], true);
+      }
+      errors += other.errors;
+    }
+
+    void print(int clients, Duration duration) {
+      long[] sorted = Arrays.copyOf(latencies, count);
+      Arrays.sort(sorted);
+      System.out.printf("clients=%d requests=%d errors=%d throughput=%.0f req/s%n",
+          clients, count, errors, count / (double) duration.toSeconds());
+      System.out.printf("p50=%.2f ms  p90=%.2f ms  p99=%.2f ms  p99.9=%.2f ms  max=%.2f ms%n",
+          percentile(sorted, 0.50), percentile(sorted, 0.90), percentile(sorted, 0.99),
+          percentile(sorted, 0.999), percentile(sorted, 1.0));
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+      if (sorted.length == 0) return 0;
+      int index = (int) Math.min(sorted.length - 1, Math.ceil(quantile * sorted.length) - 1);
+      return sorted[Math.max(index, 0)] / 1_000_000.0;
+    }
+  }
+}
@@ -0,0 +1,53 @@
+package am.itspace.shortest.url.benchmark;
+
+import am.itspace.shortest.url.cache.ShortUrlBinaryRedisSerializer;
+import am.itspace.shortest.url.model.ShortUrl;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The Redis value serializer on a cached {@link ShortUrl}: the binary codec the cache writes
+ * against the JSON serializer it falls back to, which is also what older entries hold.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RedisSerializerBenchmark {
+
+  @Param({"binary", "json"})
+  public String codec;
+
+  @Param({"false", "true"})
+  public boolean lifecycle;
+
+  private RedisSerializer<Object> serializer;
+  private ShortUrl shortUrl;
+  private byte[] bytes;
+
+  @Setup
+  public void setUp() {
+    GenericJackson2JsonRedisSerializer json = new GenericJackson2JsonRedisSerializer();
+    // the binary codec takes every ShortUrl in the app; the JSON side needs java.time to encode one at all
+    json.configure(objectMapper -> objectMapper.registerModule(new JavaTimeModule()));
+    serializer = codec.equals("binary") ? new ShortUrlBinaryRedisSerializer(json) : json;
+    shortUrl = Fixtures.shortUrl(lifecycle);
+    bytes = serializer.serialize(shortUrl);
+  }
+
+  @Benchmark
+  public byte[] serialize() {
+    return serializer.serialize(shortUrl);
+  }
+
+  @Benchmark
+  public Object deserialize() {
+    return serializer.deserialize(bytes);
+  }
+}
@@ -0,0 +1,108 @@
+package am.itspace.shortest.url.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Compares two JSON result files written by {@link BenchmarkRunner} and exits with status 1 when a
+ * benchmark got slower, or allocates more per operation, by more than the threshold (10% unless a
+ * third argument says otherwise). Benchmarks are matched by name, mode and parameters; ones present
+ * in only one file are listed but never fail the comparison.
+ * <pre>
+ * java -cp target/benchmarks.jar am.itspace.shortest.url.benchmark.ResultComparison baseline.json current.json [threshold%]
+ * </pre>
+ */
+public final class ResultComparison {
+
+  private static final String ALLOCATION = "gc.alloc.rate.norm";
+  // allocation changes below this many bytes per operation are noise from the profiler itself
+  private static final double ALLOCATION_SLACK_BYTES = 16;
+
+  private ResultComparison() {
+  }
+
+  public static void main(String[] args) throws IOException {
+    if (args.length < 2) {
+      System.err.println("usage: ResultComparison <baseline.json> <current.json> [threshold%]");
+      System.exit(2);
+    }
+    double threshold = args.length > 2 ? Double.parseDouble(args[2]) / 100 : 0.10;
+
+    Map<String, JsonNode> baseline = read(new File(args[0]));
+    Map<String, JsonNode> current = read(new File(args[1]));
+
+    int regressions = 0;
+    for (Map.Entry<String, JsonNode> entry : current.entrySet()) {
+      JsonNode before = baseline.get(entry.getKey());
+      if (before == null) {
+        System.out.printf("NEW         %s%n", entry.getKey());
+        continue;
+      }
+      JsonNode after = entry.getValue();
+
+      double scoreBefore = before.path("primaryMetric").path("score").asDouble();
+      double scoreAfter = after.path("primaryMetric").path("score").asDouble();
+      // throughput regresses when it drops, every other mode reports time per operation
+      boolean higherIsBetter = "thrpt".equals(after.path("mode").asText());
+      double change = relativeChange(scoreBefore, scoreAfter);
+      boolean slower = (higherIsBetter ? -change : change) > threshold;
+
+      double allocBefore = allocation(before);
+      double allocAfter = allocation(after);
+      boolean allocates = !Double.isNaN(allocBefore) && !Double.isNaN(allocAfter)
+          && allocAfter - allocBefore > ALLOCATION_SLACK_BYTES
+          && relativeChange(allocBefore, allocAfter) > threshold;
+
+      if (slower || allocates) {
+        regressions++;
+      }
+      System.out.printf("%-11s %s  %s %.3f -> %.3f (%+.1f%%)%s%n",
+          slower || allocates ? "REGRESSION" : "ok",
+          entry.getKey(),
+          after.path("primaryMetric").path("scoreUnit").asText(),
+          scoreBefore, scoreAfter, change * 100,
+          Double.isNaN(allocAfter) ? "" : String.format(Locale.ROOT, ", %.1f -> %.1f B/op", allocBefore, allocAfter));
+    }
+    for (String key : baseline.keySet()) {
+      if (!current.containsKey(key)) {
+        System.out.printf("MISSING     %s%n", key);
+      }
+    }
+
+    if (regressions > 0) {
+      System.out.printf("%d benchmark(s) regressed by more than %.0f%%%n", regressions, threshold * 100);
+      System.exit(1);
+    }
+  }
+
+  private static Map<String, JsonNode> read(File file) throws IOException {
+    Map<String, JsonNode> results = new LinkedHashMap<>();
+    for (JsonNode result : new ObjectMapper().readTree(file)) {
+      StringBuilder key = new StringBuilder(result.path("benchmark").asText())
+          .append(" [").append(result.path("mode").asText()).append(']');
+      // params come back in declaration order, sort them so the key does not depend on it
+      new TreeMap<>(toMap(result.path("params"))).forEach((name, value) -> key.append(' ').append(name).append('=').append(value));
+      results.put(key.toString(), result);
+    }
+    return results;
+  }
+
+  private static Map<String, String> toMap(JsonNode params) {
+    Map<String, String> map = new HashMap<>();
+    params.properties().forEach(field -> map.put(field.getKey(), field.getValue().asText()));
+    return map;
+  }
+
+  private static double allocation(JsonNode result) {
+    JsonNode metric = result.path("secondaryMetrics").path(ALLOCATION);
+    return metric.isMissingNode() ? Double.NaN : metric.path("score").asDouble();
+  }
+
+  private static double relativeChange(double before, double after) {
+    return before == 0 ? (after == 0 ? 0 : Double.POSITIVE_INFINITY) : (after - before) / before;
+  }
+}
@@ -0,0 +1,49 @@
+package am.itspace.shortest.url.benchmark;
+
+import am.itspace.shortest.url.keygen.Base62KeyCodec;
+import am.itspace.shortest.url.util.ShortUrlUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Short key generation: the legacy random keys from {@link ShortUrlUtil#generateKey}, which need
+ * {@code SHORT_SECRET} in the environment of the benchmark JVM, and the base62 sequence encoding used
+ * by the default key mode.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ShortKeyBenchmark {
+
+  private Base62KeyCodec plainCodec;
+  private Base62KeyCodec keyedCodec;
+  private long nextId;
+
+  @Setup
+  public void setUp() {
+    // fails fast with a clear message when SHORT_SECRET is missing
+    ShortUrlUtil.generateKey.get();
+    plainCodec = new Base62KeyCodec(7, null);
+    keyedCodec = new Base62KeyCodec(7, "benchmark-secret");
+    nextId = 48_213_377L;
+  }
+
+  @Benchmark
+  public String randomKey() {
+    return ShortUrlUtil.generateKey.get();
+  }
+
+  @Benchmark
+  public String base62Encode() {
+    return plainCodec.encode(nextId++);
+  }
+
+  @Benchmark
+  public String base62EncodePermuted() {
+    return keyedCodec.encode(nextId++);
+  }
+}
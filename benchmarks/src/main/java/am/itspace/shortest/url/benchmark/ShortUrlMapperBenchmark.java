@@ -0,0 +1,38 @@
+package am.itspace.shortest.url.benchmark;
+
+import am.itspace.shortest.url.dto.response.ShortUrlResponse;
+import am.itspace.shortest.url.dto.response.ShortUrlStatusAndCountResponse;
+import am.itspace.shortest.url.mapper.ShortUrlMapper;
+import am.itspace.shortest.url.model.ShortUrl;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ShortUrlMapperBenchmark {
+
+  @Param({"false", "true"})
+  public boolean lifecycle;
+
+  private ShortUrl shortUrl;
+
+  @Setup
+  public void setUp() {
+    shortUrl = Fixtures.shortUrl(lifecycle);
+  }
+
+  @Benchmark
+  public ShortUrlResponse toShortUrlResponse() {
+    return ShortUrlMapper.toShortUrlResponse(shortUrl);
+  }
+
+  @Benchmark
+  public ShortUrlStatusAndCountResponse toStatusResponse() {
+    return ShortUrlMapper.toStatusResponse(shortUrl);
+  }
+}
@@ -0,0 +1,65 @@
+package am.itspace.shortest.url.benchmark;
+
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.apache.catalina.Context;
+import org.apache.catalina.connector.Connector;
+import org.apache.catalina.startup.Tomcat;
+import org.apache.coyote.AbstractProtocol;
+import org.apache.tomcat.util.threads.VirtualThreadExecutor;
+
+import java.io.File;
+import java.nio.file.Files;
+
+/**
+ * Embedded Tomcat that answers every GET with a 302 after blocking for a fixed time, standing in
+ * for the Redis or database round trip of a redirect that misses the near cache. Run it in each
+ * thread model and drive it with {@link RedirectLoadBenchmark}:
+ * <pre>
+ *   TomcatThreadModelBenchmark platform 8081 20
+ *   TomcatThreadModelBenchmark virtual 8081 20
+ * </pre>
+ * (thread model, port, blocking milliseconds). {@code platform} uses Tomcat's pool of 200
+ * threads, which is what the application gets with {@code VIRTUAL_THREADS_ENABLED=false};
+ * {@code virtual} installs the same virtual thread executor Spring Boot uses when it is true.
+ */
+public class TomcatThreadModelBenchmark {
+
+  public static void main(String[] args) throws Exception {
+    boolean virtual = args[0].equals("virtual");
+    int port = Integer.parseInt(args[1]);
+    long blockMillis = Long.parseLong(args[2]);
+
+    Tomcat tomcat = new Tomcat();
+    tomcat.setBaseDir(Files.createTempDirectory("tomcat").toString());
+    Connector connector = new Connector();
+    connector.setPort(port);
+    connector.setProperty("maxThreads", "200");
+    connector.setProperty("maxConnections", "10000");
+    connector.setProperty("acceptCount", "10000");
+    if (virtual) {
+      ((AbstractProtocol<?>) connector.getProtocolHandler()).setExecutor(new VirtualThreadExecutor("tomcat-handler-"));
+    }
+    tomcat.setConnector(connector);
+
+    Context context = tomcat.addContext("", new File(".").getAbsolutePath());
+    Tomcat.addServlet(context, "redirect", new HttpServlet() {
+      @Override
+      protected void doGet(HttpServletRequest request, HttpServletResponse response) throws java.io.IOException {
+        try {
+          Thread.sleep(blockMillis);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        response.sendRedirect("https://example.com" + request.getRequestURI());
+      }
+    });
+    context.addServletMappingDecoded("/*", "redirect");
+
+    tomcat.start();
+    System.out.printf("Listening on %d with %s threads, blocking %d ms per request%n",
+        port, virtual ? "virtual" : "200 platform", blockMillis);
+    tomcat.getServer().await();
+  }
+}
@@ -0,0 +1,18 @@
+package am.itspace.shortest.url.redirect;
+
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@EnableScheduling
+@SpringBootApplication
+public class RedirectApplication {
+
+  public static void main(String[] args) {
+    // the shortest-url jar on the classpath ships its own application.yml
+    new SpringApplicationBuilder(RedirectApplication.class)
+        .properties("spring.config.name=redirect")
+        .run(args);
+  }
+
+}
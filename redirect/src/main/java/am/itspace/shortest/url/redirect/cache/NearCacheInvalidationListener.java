@@ -0,0 +1,58 @@
+package am.itspace.shortest.url.redirect.cache;
+
+import am.itspace.shortest.url.cache.LocalCache;
+import am.itspace.shortest.url.cache.ShortUrlNearCache;
+import am.itspace.shortest.url.model.ShortUrl;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.ReactiveRedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializationContext.SerializationPair;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+
+import java.util.List;
+
+/**
+ * Drops near cache entries when the servlet app publishes an invalidation, so both apps see
+ * updates within the same window.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class NearCacheInvalidationListener {
+
+  private static final String INVALIDATE_ALL = "*";
+
+  private final LocalCache<String, ShortUrl> shortUrlLocalCache;
+  private final ReactiveRedisMessageListenerContainer reactiveRedisMessageListenerContainer;
+  private final RedisSerializer<Object> shortUrlValueSerializer;
+
+  private Disposable subscription;
+
+  @PostConstruct
+  public void subscribe() {
+    subscription = reactiveRedisMessageListenerContainer
+        .receive(List.of(ChannelTopic.of(ShortUrlNearCache.INVALIDATION_CHANNEL)),
+            SerializationPair.fromSerializer(RedisSerializer.string()),
+            SerializationPair.fromSerializer(shortUrlValueSerializer))
+        .doOnError(e -> log.warn("Near cache invalidation subscription failed", e))
+        .retry()
+        .subscribe(message -> {
+          Object shortKey = message.getMessage();
+          if (INVALIDATE_ALL.equals(shortKey)) {
+            shortUrlLocalCache.invalidateAll();
+          } else if (shortKey != null) {
+            shortUrlLocalCache.invalidate(shortKey.toString());
+          }
+        });
+  }
+
+  @PreDestroy
+  public void unsubscribe() {
+    if (subscription != null) subscription.dispose();
+  }
+}
@@ -0,0 +1,123 @@
+package am.itspace.shortest.url.redirect.click;
+
+import am.itspace.shortest.url.click.ClickCounter;
+import am.itspace.shortest.url.click.ClickEvent;
+import am.itspace.shortest.url.click.ClickEventBuffer;
+import am.itspace.shortest.url.util.RedisKeys;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.RedisStreamCommands.XAddOptions;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Pushes the in-memory click deltas into the same Redis counters, pending sets and active set the
+ * servlet app's ClickAggregator writes, and appends queued click events to the same stream, so the existing sync,
+ * cleanup and rollup jobs see clicks from both apps. Runs on the scheduler thread, never on the
+ * event loop.
+ */
+@Slf4j
+@Component
+public class ClickFlusher {
+
+  private static final Duration FLUSH_TIMEOUT = Duration.ofSeconds(10);
+
+  private final ClickCounter clickCounter;
+  private final ClickEventBuffer clickEventBuffer;
+  private final ReactiveRedisTemplate<String, Object> reactiveRedisTemplate;
+  private final ReactiveStringRedisTemplate reactiveStringRedisTemplate;
+  private final int batchSize;
+  private final int shardCount;
+  private final XAddOptions streamAddOptions;
+
+  public ClickFlusher(ClickCounter clickCounter,
+                      ClickEventBuffer clickEventBuffer,
+                      ReactiveRedisTemplate<String, Object> reactiveRedisTemplate,
+                      ReactiveStringRedisTemplate reactiveStringRedisTemplate,
+                      @Value("${click.flush-batch-size}") int batchSize,
+                      @Value("${scheduler.leases.shard-count}") int shardCount,
+                      @Value("${click.events.max-length}") long streamMaxLength) {
+    this.clickCounter = clickCounter;
+    this.clickEventBuffer = clickEventBuffer;
+    this.reactiveRedisTemplate = reactiveRedisTemplate;
+    this.reactiveStringRedisTemplate = reactiveStringRedisTemplate;
+    this.batchSize = batchSize;
+    this.shardCount = shardCount;
+    this.streamAddOptions = XAddOptions.maxlen(streamMaxLength).approximateTrimming(true);
+  }
+
+  @Scheduled(fixedDelayString = "${click.flush-interval}")
+  public void flush() {
+    flushEvents();
+
+    Map<String, Long> deltas = clickCounter.drain();
+    if (deltas.isEmpty()) return;
+
+    List<Map.Entry<String, Long>> batch = new ArrayList<>(batchSize);
+    for (Map.Entry<String, Long> entry : deltas.entrySet()) {
+      batch.add(entry);
+      if (batch.size() == batchSize) {
+        writeBatch(batch);
+        batch = new ArrayList<>(batchSize);
+      }
+    }
+    writeBatch(batch);
+  }
+
+  @PreDestroy
+  public void drainOnShutdown() {
+    flush();
+    if (clickCounter.size() > 0) {
+      log.warn("Shutting down with {} short keys whose clicks could not be flushed", clickCounter.size());
+    }
+  }
+
+  private void flushEvents() {
+    List<ClickEvent> events;
+    while (!(events = clickEventBuffer.drain(batchSize)).isEmpty()) {
+      List<ClickEvent> batch = events;
+      try {
+        Flux.fromIterable(batch)
+            .flatMap(event -> reactiveStringRedisTemplate.<String, String>opsForStream()
+                .add(RedisKeys.CLICK_EVENTS, event.toFields(), streamAddOptions))
+            .then()
+            .block(FLUSH_TIMEOUT);
+      } catch (RuntimeException e) {
+        log.warn("Failed to append {} click events, keeping them for the next flush", batch.size(), e);
+        clickEventBuffer.requeue(batch);
+        return;
+      }
+    }
+  }
+
+  private void writeBatch(List<Map.Entry<String, Long>> batch) {
+    if (batch.isEmpty()) return;
+
+    Object[] shortKeys = batch.stream().map(Map.Entry::getKey).toArray();
+    Map<Integer, List<String>> pendingByShard = batch.stream().map(Map.Entry::getKey)
+        .collect(Collectors.groupingBy(shortKey -> RedisKeys.shardOf(shortKey, shardCount)));
+    try {
+      Flux.fromIterable(batch)
+          .flatMap(entry -> reactiveRedisTemplate.opsForValue().increment(RedisKeys.CLICKS_PREFIX + entry.getKey(), entry.getValue()))
+          // after the increments, so a sync that pops a key always finds its counter
+          .thenMany(Flux.fromIterable(pendingByShard.entrySet())
+              .flatMap(pending -> reactiveStringRedisTemplate.opsForSet()
+                  .add(RedisKeys.pendingClicks(pending.getKey()), pending.getValue().toArray(String[]::new))))
+          .then(reactiveRedisTemplate.opsForSet().add(RedisKeys.ACTIVE_URLS, shortKeys))
+          .block(FLUSH_TIMEOUT);
+    } catch (RuntimeException e) {
+      log.warn("Failed to flush clicks for {} short keys, keeping them for the next flush", batch.size(), e);
+      batch.forEach(entry -> clickCounter.add(entry.getKey(), entry.getValue()));
+    }
+  }
+}
@@ -0,0 +1,78 @@
+package am.itspace.shortest.url.redirect.config;
+
+import am.itspace.shortest.url.cache.LocalCache;
+import am.itspace.shortest.url.click.ClickCounter;
+import am.itspace.shortest.url.click.ClickEventBuffer;
+import am.itspace.shortest.url.config.RedisConfig;
+import am.itspace.shortest.url.model.ShortUrl;
+import am.itspace.shortest.url.redirect.handler.RedirectHandler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.embedded.netty.NettyServerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.listener.ReactiveRedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.netty.resources.LoopResources;
+
+import java.time.Duration;
+
+import static org.springframework.web.reactive.function.server.RequestPredicates.GET;
+import static org.springframework.web.reactive.function.server.RouterFunctions.route;
+
+@Configuration
+public class RedirectConfig {
+
+  @Bean
+  public RedisSerializer<Object> shortUrlValueSerializer(@Value("${cache.redis.value-codec}") String valueCodec) {
+    return RedisConfig.valueSerializer(valueCodec);
+  }
+
+  @Bean
+  public ReactiveRedisTemplate<String, Object> reactiveRedisTemplate(ReactiveRedisConnectionFactory connectionFactory,
+                                                                     RedisSerializer<Object> shortUrlValueSerializer) {
+    RedisSerializationContext<String, Object> context = RedisSerializationContext
+        .<String, Object>newSerializationContext(new StringRedisSerializer())
+        .value(shortUrlValueSerializer)
+        .hashValue(shortUrlValueSerializer)
+        .build();
+    return new ReactiveRedisTemplate<>(connectionFactory, context);
+  }
+
+  @Bean
+  public ReactiveRedisMessageListenerContainer reactiveRedisMessageListenerContainer(ReactiveRedisConnectionFactory connectionFactory) {
+    return new ReactiveRedisMessageListenerContainer(connectionFactory);
+  }
+
+  @Bean
+  public LocalCache<String, ShortUrl> shortUrlLocalCache(@Value("${cache.local.maximum-size}") int maximumSize,
+                                                        @Value("${cache.local.ttl}") Duration ttl) {
+    return new LocalCache<>(maximumSize, ttl);
+  }
+
+  @Bean
+  public ClickCounter clickCounter() {
+    return new ClickCounter();
+  }
+
+  @Bean
+  public ClickEventBuffer clickEventBuffer(@Value("${click.events.buffer-capacity}") int capacity) {
+    return new ClickEventBuffer(capacity);
+  }
+
+  @Bean
+  public NettyServerCustomizer eventLoopCustomizer(@Value("${redirect.event-loop-threads}") int eventLoopThreads) {
+    LoopResources loopResources = LoopResources.create("redirect-loop", eventLoopThreads, true);
+    return httpServer -> httpServer.runOn(loopResources);
+  }
+
+  @Bean
+  public RouterFunction<ServerResponse> redirectRoutes(RedirectHandler redirectHandler) {
+    return route(GET("/{shortKey}"), redirectHandler::redirect);
+  }
+}
@@ -0,0 +1,33 @@
+package am.itspace.shortest.url.redirect.handler;
+
+import am.itspace.shortest.url.redirect.service.RedirectService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+
+@Component
+@RequiredArgsConstructor
+public class RedirectHandler {
+
+  private final RedirectService redirectService;
+
+  public Mono<ServerResponse> redirect(ServerRequest request) {
+    String shortKey = request.pathVariable("shortKey");
+
+    return redirectService.getOriginalUrl(shortKey)
+        .flatMap(originalUrl -> {
+          redirectService.recordClick(shortKey,
+              request.headers().firstHeader(HttpHeaders.REFERER),
+              request.headers().firstHeader(HttpHeaders.USER_AGENT),
+              request.remoteAddress().map(address -> address.getAddress().getHostAddress()).orElse(null));
+          return ServerResponse.status(HttpStatus.FOUND).location(URI.create(originalUrl)).build();
+        })
+        .switchIfEmpty(Mono.defer(() -> ServerResponse.notFound().build()));
+  }
+}
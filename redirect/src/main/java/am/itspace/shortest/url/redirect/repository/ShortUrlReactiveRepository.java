@@ -0,0 +1,50 @@
+package am.itspace.shortest.url.redirect.repository;
+
+import am.itspace.shortest.url.model.ShortUrl;
+import am.itspace.shortest.url.model.enums.UrlStatus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Read-only R2DBC access to the table owned by the servlet app.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ShortUrlReactiveRepository {
+
+  private static final String FIND_BY_SHORT_KEY = """
+      SELECT id, short_key, original_url, is_active, click_count, user_id, status, activates_at, expires_at, max_clicks
+      FROM short_url_tbl
+      WHERE short_key = :shortKey
+      LIMIT 1
+      """;
+
+  private final DatabaseClient databaseClient;
+
+  public Mono<ShortUrl> findByShortKey(String shortKey) {
+    return databaseClient.sql(FIND_BY_SHORT_KEY)
+        .bind("shortKey", shortKey)
+        .map((row, metadata) -> {
+          String status = row.get("status", String.class);
+          OffsetDateTime activatesAt = row.get("activates_at", OffsetDateTime.class);
+          OffsetDateTime expiresAt = row.get("expires_at", OffsetDateTime.class);
+          return ShortUrl.builder()
+              .id(row.get("id", Long.class))
+              .shortKey(row.get("short_key", String.class))
+              .originalUrl(row.get("original_url", String.class))
+              .isActive(row.get("is_active", Boolean.class))
+              .clickCount(row.get("click_count", Long.class))
+              .userId(row.get("user_id", Long.class))
+              .status(status == null ? null : UrlStatus.valueOf(status))
+              .activatesAt(activatesAt == null ? null : activatesAt.toInstant())
+              .expiresAt(expiresAt == null ? null : expiresAt.toInstant())
+              .maxClicks(row.get("max_clicks", Long.class))
+              .build();
+        })
+        .one();
+  }
+}
@@ -0,0 +1,59 @@
+package am.itspace.shortest.url.redirect.service;
+
+import am.itspace.shortest.url.cache.LocalCache;
+import am.itspace.shortest.url.click.ClickCounter;
+import am.itspace.shortest.url.click.ClickEvent;
+import am.itspace.shortest.url.click.ClickEventBuffer;
+import am.itspace.shortest.url.model.ShortUrl;
+import am.itspace.shortest.url.redirect.repository.ShortUrlReactiveRepository;
+import am.itspace.shortest.url.util.RedisKeys;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Same lookup order and cache layout as the servlet app's ShortUrlServiceImpl.getOriginalUrl:
+ * near cache, then the Redis by-key entry, then the database, writing both Redis entries back with
+ * the same TTL on a database hit. Links whose cached state says they are not active do not redirect.
+ */
+@Service
+@RequiredArgsConstructor
+public class RedirectService {
+
+  private static final Duration CACHE_TTL = RedisKeys.CACHE_TTL;
+
+  private final LocalCache<String, ShortUrl> shortUrlLocalCache;
+  private final ReactiveRedisTemplate<String, Object> reactiveRedisTemplate;
+  private final ShortUrlReactiveRepository shortUrlReactiveRepository;
+  private final ClickCounter clickCounter;
+  private final ClickEventBuffer clickEventBuffer;
+
+  public Mono<String> getOriginalUrl(String shortKey) {
+    ShortUrl local = shortUrlLocalCache.get(shortKey);
+    if (local != null) {
+      return local.isRedirectable(Instant.now()) ? Mono.just(local.getOriginalUrl()) : Mono.empty();
+    }
+
+    return reactiveRedisTemplate.opsForValue().get(RedisKeys.BY_KEY_PREFIX + shortKey)
+        .ofType(ShortUrl.class)
+        .switchIfEmpty(Mono.defer(() -> shortUrlReactiveRepository.findByShortKey(shortKey).flatMap(this::cacheBoth)))
+        .doOnNext(shortUrl -> shortUrlLocalCache.put(shortKey, shortUrl))
+        .filter(shortUrl -> shortUrl.isRedirectable(Instant.now()))
+        .map(ShortUrl::getOriginalUrl);
+  }
+
+  public void recordClick(String shortKey, String referrer, String userAgent, String remoteAddress) {
+    clickCounter.record(shortKey);
+    clickEventBuffer.offer(ClickEvent.of(shortKey, System.currentTimeMillis(), referrer, userAgent, remoteAddress));
+  }
+
+  private Mono<ShortUrl> cacheBoth(ShortUrl shortUrl) {
+    return reactiveRedisTemplate.opsForValue().set(RedisKeys.BY_KEY_PREFIX + shortUrl.getShortKey(), shortUrl, CACHE_TTL)
+        .and(reactiveRedisTemplate.opsForValue().set(RedisKeys.byOriginal(shortUrl.getOriginalUrl()), shortUrl, CACHE_TTL))
+        .thenReturn(shortUrl);
+  }
+}
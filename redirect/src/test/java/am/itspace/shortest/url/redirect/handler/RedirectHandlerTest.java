@@ -0,0 +1,138 @@
+package am.itspace.shortest.url.redirect.handler;
+
+import am.itspace.shortest.url.cache.LocalCache;
+import am.itspace.shortest.url.click.ClickCounter;
+import am.itspace.shortest.url.click.ClickEventBuffer;
+import am.itspace.shortest.url.model.ShortUrl;
+import am.itspace.shortest.url.model.enums.UrlStatus;
+import am.itspace.shortest.url.redirect.config.RedirectConfig;
+import am.itspace.shortest.url.redirect.repository.ShortUrlReactiveRepository;
+import am.itspace.shortest.url.redirect.service.RedirectService;
+import am.itspace.shortest.url.util.RedisKeys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ReactiveValueOperations;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RedirectHandlerTest {
+
+  @Mock
+  private ReactiveRedisTemplate<String, Object> reactiveRedisTemplate;
+
+  @Mock
+  private ReactiveValueOperations<String, Object> valueOperations;
+
+  @Mock
+  private ShortUrlReactiveRepository shortUrlReactiveRepository;
+
+  private final LocalCache<String, ShortUrl> shortUrlLocalCache = new LocalCache<>(100, Duration.ofMinutes(5));
+  private final ClickCounter clickCounter = new ClickCounter();
+  private final ClickEventBuffer clickEventBuffer = new ClickEventBuffer(100);
+
+  private WebTestClient webTestClient;
+
+  @BeforeEach
+  void setUp() {
+    lenient().when(reactiveRedisTemplate.opsForValue()).thenReturn(valueOperations);
+    RedirectService redirectService = new RedirectService(shortUrlLocalCache, reactiveRedisTemplate, shortUrlReactiveRepository,
+        clickCounter, clickEventBuffer);
+    webTestClient = WebTestClient
+        .bindToRouterFunction(new RedirectConfig().redirectRoutes(new RedirectHandler(redirectService)))
+        .build();
+  }
+
+  @Test
+  void redirect_whenKeyIsInRedis_redirectsAndRecordsTheClick() {
+    when(valueOperations.get(RedisKeys.BY_KEY_PREFIX + "aZ09xYq")).thenReturn(Mono.just(active("aZ09xYq")));
+
+    webTestClient.get().uri("/aZ09xYq").header(HttpHeaders.REFERER, "https://news.example.org/post")
+        .exchange()
+        .expectStatus().isFound()
+        .expectHeader().location("https://example.com/landing");
+
+    assertEquals(Map.of("aZ09xYq", 1L), clickCounter.drain());
+    assertEquals("news.example.org", clickEventBuffer.drain(10).get(0).referrerHost());
+    assertNotNull(shortUrlLocalCache.get("aZ09xYq"));
+  }
+
+  @Test
+  void redirect_whenOnlyTheDatabaseHasTheKey_redirectsAndCachesBothEntries() {
+    ShortUrl stored = active("dbOnly1");
+    when(valueOperations.get(anyString())).thenReturn(Mono.empty());
+    when(shortUrlReactiveRepository.findByShortKey("dbOnly1")).thenReturn(Mono.just(stored));
+    when(valueOperations.set(anyString(), any(), any(Duration.class))).thenReturn(Mono.just(true));
+
+    webTestClient.get().uri("/dbOnly1")
+        .exchange()
+        .expectStatus().isFound()
+        .expectHeader().location("https://example.com/landing");
+
+    verify(valueOperations).set(RedisKeys.BY_KEY_PREFIX + "dbOnly1", stored, RedisKeys.CACHE_TTL);
+    verify(valueOperations).set(RedisKeys.byOriginal("https://example.com/landing"), stored, RedisKeys.CACHE_TTL);
+  }
+
+  @Test
+  void redirect_whenKeyIsUnknown_returnsNotFoundWithoutRecordingAClick() {
+    when(valueOperations.get(anyString())).thenReturn(Mono.empty());
+    when(shortUrlReactiveRepository.findByShortKey("missing")).thenReturn(Mono.empty());
+
+    webTestClient.get().uri("/missing")
+        .exchange()
+        .expectStatus().isNotFound();
+
+    assertEquals(0, clickCounter.size());
+    assertEquals(0, clickEventBuffer.size());
+  }
+
+  @Test
+  void redirect_whenLinkHasExpired_returnsNotFoundAndAnswersLaterRequestsLocally() {
+    ShortUrl expired = active("expired");
+    expired.setExpiresAt(Instant.now().minusSeconds(1));
+    when(valueOperations.get(RedisKeys.BY_KEY_PREFIX + "expired")).thenReturn(Mono.just(expired));
+
+    webTestClient.get().uri("/expired").exchange().expectStatus().isNotFound();
+    webTestClient.get().uri("/expired").exchange().expectStatus().isNotFound();
+
+    verify(valueOperations, times(1)).get(anyString());
+    assertEquals(0, clickCounter.size());
+  }
+
+  @Test
+  void redirect_whenLinkIsScheduled_returnsNotFound() {
+    ShortUrl scheduled = active("later01");
+    scheduled.setStatus(UrlStatus.SCHEDULED);
+    scheduled.setActivatesAt(Instant.now().plus(Duration.ofHours(1)));
+    shortUrlLocalCache.put("later01", scheduled);
+
+    webTestClient.get().uri("/later01").exchange().expectStatus().isNotFound();
+
+    verifyNoInteractions(valueOperations, shortUrlReactiveRepository);
+  }
+
+  private static ShortUrl active(String shortKey) {
+    return ShortUrl.builder()
+        .id(1L)
+        .shortKey(shortKey)
+        .originalUrl("https://example.com/landing")
+        .isActive(true)
+        .status(UrlStatus.ACTIVE)
+        .clickCount(0L)
+        .build();
+  }
+}
@@ -0,0 +1,90 @@
+package am.itspace.shortest.url.cache;
+
+import am.itspace.shortest.url.click.HeavyHitters;
+import am.itspace.shortest.url.click.HotKeyTracker;
+import am.itspace.shortest.url.model.ShortUrl;
+import am.itspace.shortest.url.repository.ShortUrlRepository;
+import am.itspace.shortest.url.util.RedisKeys;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps this node's hottest keys resident: pins them in the near cache for longer than the regular
+ * TTL and pushes the expiry of both Redis entries back to {@link RedisKeys#CACHE_TTL} before it
+ * runs out, so a hot key never falls through to the database on expiry.
+ */
+@Slf4j
+@Component
+public class HotKeyPrewarmer {
+
+  private final HotKeyTracker hotKeyTracker;
+  private final ShortUrlNearCache shortUrlNearCache;
+  private final RedisTemplate<String, Object> redisTemplate;
+  private final ShortUrlRepository shortUrlRepository;
+  private final int prewarmCount;
+  private final Duration pinTtl;
+
+  public HotKeyPrewarmer(HotKeyTracker hotKeyTracker,
+                         ShortUrlNearCache shortUrlNearCache,
+                         RedisTemplate<String, Object> redisTemplate,
+                         ShortUrlRepository shortUrlRepository,
+                         @Value("${click.hot-keys.prewarm-count}") int prewarmCount,
+                         @Value("${click.hot-keys.pin-ttl}") Duration pinTtl) {
+    this.hotKeyTracker = hotKeyTracker;
+    this.shortUrlNearCache = shortUrlNearCache;
+    this.redisTemplate = redisTemplate;
+    this.shortUrlRepository = shortUrlRepository;
+    this.prewarmCount = prewarmCount;
+    this.pinTtl = pinTtl;
+  }
+
+  @Scheduled(fixedDelayString = "${click.hot-keys.prewarm-interval}")
+  public void prewarm() {
+    List<HeavyHitters.HotKey> hotKeys = hotKeyTracker.top(prewarmCount);
+    if (hotKeys.isEmpty()) return;
+
+    List<String> byKeyEntries = hotKeys.stream().map(hotKey -> RedisKeys.BY_KEY_PREFIX + hotKey.shortKey()).toList();
+    List<Object> cached = redisTemplate.opsForValue().multiGet(byKeyEntries);
+
+    List<ShortUrl> inRedis = new ArrayList<>();
+    List<String> missing = new ArrayList<>();
+    for (int i = 0; i < hotKeys.size(); i++) {
+      Object value = cached == null ? null : cached.get(i);
+      if (value instanceof ShortUrl shortUrl) {
+        inRedis.add(shortUrl);
+      } else {
+        missing.add(hotKeys.get(i).shortKey());
+      }
+    }
+    List<ShortUrl> fromDatabase = missing.isEmpty() ? List.of() : shortUrlRepository.findAllByShortKeyIn(missing);
+
+    redisTemplate.executePipelined(new SessionCallback<Object>() {
+      @Override
+      @SuppressWarnings("unchecked")
+      public Object execute(RedisOperations operations) {
+        for (ShortUrl shortUrl : inRedis) {
+          operations.expire(RedisKeys.BY_KEY_PREFIX + shortUrl.getShortKey(), RedisKeys.CACHE_TTL);
+          operations.expire(RedisKeys.byOriginal(shortUrl.getOriginalUrl()), RedisKeys.CACHE_TTL);
+        }
+        for (ShortUrl shortUrl : fromDatabase) {
+          operations.opsForValue().set(RedisKeys.BY_KEY_PREFIX + shortUrl.getShortKey(), shortUrl, RedisKeys.CACHE_TTL);
+          operations.opsForValue().set(RedisKeys.byOriginal(shortUrl.getOriginalUrl()), shortUrl, RedisKeys.CACHE_TTL);
+        }
+        return null;
+      }
+    });
+
+    inRedis.forEach(shortUrl -> shortUrlNearCache.pin(shortUrl, pinTtl));
+    fromDatabase.forEach(shortUrl -> shortUrlNearCache.pin(shortUrl, pinTtl));
+    log.debug("Prewarmed {} hot keys ({} reloaded from the database)", inRedis.size() + fromDatabase.size(), fromDatabase.size());
+  }
+}
@@ -0,0 +1,179 @@
+package am.itspace.shortest.url.cache;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded in-process cache with per-entry TTL and LRU eviction.
+ * <p>
+ * Entries are spread over independently locked segments so concurrent readers of different keys
+ * do not contend on a single lock. Nothing inside a segment lock performs I/O, and the locks are
+ * {@link ReentrantLock}s rather than monitors so a waiting virtual thread does not pin its carrier.
+ */
+public class LocalCache<K, V> {
+
+  private static final int MAX_SEGMENTS = 16;
+
+  private final Segment<K, V>[] segments;
+  private final long defaultTtlNanos;
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  @SuppressWarnings("unchecked")
+  public LocalCache(int maximumSize, Duration ttl) {
+    if (maximumSize <= 0) throw new IllegalArgumentException("maximumSize must be positive");
+    if (ttl.isNegative() || ttl.isZero()) throw new IllegalArgumentException("ttl must be positive");
+
+    int segmentCount = Math.min(MAX_SEGMENTS, Integer.highestOneBit(maximumSize));
+    int segmentCapacity = (maximumSize + segmentCount - 1) / segmentCount;
+
+    this.segments = new Segment[segmentCount];
+    for (int i = 0; i < segmentCount; i++) {
+      segments[i] = new Segment<>(segmentCapacity, evictions);
+    }
+    this.defaultTtlNanos = ttl.toNanos();
+  }
+
+  public V get(K key) {
+    V value = segmentFor(key).get(key, System.nanoTime());
+    if (value == null) {
+      misses.increment();
+    } else {
+      hits.increment();
+    }
+    return value;
+  }
+
+  public void put(K key, V value) {
+    putWithTtlNanos(key, value, defaultTtlNanos);
+  }
+
+  /**
+   * Caches the entry for {@code ttl} instead of the default TTL, whether shorter or longer.
+   */
+  public void put(K key, V value, Duration ttl) {
+    putWithTtlNanos(key, value, ttl.toNanos());
+  }
+
+  public void invalidate(K key) {
+    segmentFor(key).remove(key);
+  }
+
+  public void invalidateAll() {
+    for (Segment<K, V> segment : segments) {
+      segment.clear();
+    }
+  }
+
+  public long size() {
+    long size = 0;
+    for (Segment<K, V> segment : segments) {
+      size += segment.size();
+    }
+    return size;
+  }
+
+  public long hitCount() {
+    return hits.sum();
+  }
+
+  public long missCount() {
+    return misses.sum();
+  }
+
+  public long evictionCount() {
+    return evictions.sum();
+  }
+
+  private void putWithTtlNanos(K key, V value, long ttlNanos) {
+    if (value == null || ttlNanos <= 0) {
+      invalidate(key);
+      return;
+    }
+    segmentFor(key).put(key, value, System.nanoTime() + ttlNanos);
+  }
+
+  private Segment<K, V> segmentFor(K key) {
+    int h = key.hashCode();
+    h ^= (h >>> 16);
+    return segments[h & (segments.length - 1)];
+  }
+
+  private record Entry<V>(V value, long expiresAtNanos) {
+  }
+
+  private static final class Segment<K, V> {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<K, Entry<V>> map;
+
+    Segment(int capacity, LongAdder evictions) {
+      this.map = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+          if (size() > capacity) {
+            evictions.increment();
+            return true;
+          }
+          return false;
+        }
+      };
+    }
+
+    V get(K key, long now) {
+      lock.lock();
+      try {
+        Entry<V> entry = map.get(key);
+        if (entry == null) return null;
+        if (entry.expiresAtNanos() - now <= 0) {
+          map.remove(key);
+          return null;
+        }
+        return entry.value();
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    void put(K key, V value, long expiresAtNanos) {
+      lock.lock();
+      try {
+        map.put(key, new Entry<>(value, expiresAtNanos));
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    void remove(K key) {
+      lock.lock();
+      try {
+        map.remove(key);
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    void clear() {
+      lock.lock();
+      try {
+        map.clear();
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    int size() {
+      lock.lock();
+      try {
+        return map.size();
+      } finally {
+        lock.unlock();
+      }
+    }
+  }
+}
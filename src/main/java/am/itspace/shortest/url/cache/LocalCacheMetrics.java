@@ -0,0 +1,37 @@
+package am.itspace.shortest.url.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Publishes a {@link LocalCache}'s counters under the same meter names Micrometer uses for other
+ * caches ({@code cache.gets}, {@code cache.size}, {@code cache.evictions}), tagged with the cache name.
+ */
+public final class LocalCacheMetrics {
+
+  private LocalCacheMetrics() {
+  }
+
+  public static <K, V> LocalCache<K, V> monitor(MeterRegistry registry, LocalCache<K, V> cache, String name) {
+    FunctionCounter.builder("cache.gets", cache, LocalCache::hitCount)
+        .tag("cache", name)
+        .tag("result", "hit")
+        .description("The number of times cache lookup methods have returned a cached value.")
+        .register(registry);
+    FunctionCounter.builder("cache.gets", cache, LocalCache::missCount)
+        .tag("cache", name)
+        .tag("result", "miss")
+        .description("The number of times cache lookup methods have not returned a value.")
+        .register(registry);
+    FunctionCounter.builder("cache.evictions", cache, LocalCache::evictionCount)
+        .tag("cache", name)
+        .description("The number of entries evicted because the cache was full.")
+        .register(registry);
+    Gauge.builder("cache.size", cache, LocalCache::size)
+        .tag("cache", name)
+        .description("The number of entries in the cache.")
+        .register(registry);
+    return cache;
+  }
+}
@@ -0,0 +1,243 @@
+package am.itspace.shortest.url.cache;
+
+import am.itspace.shortest.url.model.ShortUrl;
+import am.itspace.shortest.url.model.enums.UrlStatus;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Compact value codec for {@link ShortUrl}: a magic byte, a format version, a presence bitmask and
+ * then the fields in fixed order with zigzag varint numbers and length-prefixed UTF-8 strings.
+ * Version 2 adds a second bitmask and the lifecycle fields, timestamps as epoch microseconds. Rows
+ * without any lifecycle field are still written as version 1, which nodes on the older codec read.
+ * <p>
+ * Anything that is not a {@link ShortUrl}, and any stored payload that does not start with the
+ * magic byte (for example entries written by the JSON codec), goes through the fallback serializer.
+ */
+public class ShortUrlBinaryRedisSerializer implements RedisSerializer<Object> {
+
+  static final byte MAGIC = 0x00;
+  static final byte VERSION_1 = 1;
+  static final byte VERSION_2 = 2;
+
+  private static final int HAS_ID = 1;
+  private static final int HAS_SHORT_KEY = 1 << 1;
+  private static final int HAS_ORIGINAL_URL = 1 << 2;
+  private static final int HAS_IS_ACTIVE = 1 << 3;
+  private static final int IS_ACTIVE = 1 << 4;
+  private static final int HAS_CLICK_COUNT = 1 << 5;
+  private static final int HAS_USER_ID = 1 << 6;
+
+  private static final int HAS_STATUS = 1;
+  private static final int HAS_ACTIVATES_AT = 1 << 1;
+  private static final int HAS_EXPIRES_AT = 1 << 2;
+  private static final int HAS_MAX_CLICKS = 1 << 3;
+
+  private final RedisSerializer<Object> fallback;
+
+  public ShortUrlBinaryRedisSerializer(RedisSerializer<Object> fallback) {
+    this.fallback = fallback;
+  }
+
+  @Override
+  public byte[] serialize(Object value) throws SerializationException {
+    if (value instanceof ShortUrl shortUrl) {
+      return encode(shortUrl);
+    }
+    return fallback.serialize(value);
+  }
+
+  @Override
+  public Object deserialize(byte[] bytes) throws SerializationException {
+    if (bytes == null || bytes.length == 0) {
+      return null;
+    }
+    if (bytes[0] == MAGIC) {
+      return decode(bytes);
+    }
+    return fallback.deserialize(bytes);
+  }
+
+  public static byte[] encode(ShortUrl shortUrl) {
+    byte[] shortKey = utf8(shortUrl.getShortKey());
+    byte[] originalUrl = utf8(shortUrl.getOriginalUrl());
+
+    int flags = 0;
+    if (shortUrl.getId() != null) flags |= HAS_ID;
+    if (shortKey != null) flags |= HAS_SHORT_KEY;
+    if (originalUrl != null) flags |= HAS_ORIGINAL_URL;
+    if (shortUrl.getIsActive() != null) {
+      flags |= HAS_IS_ACTIVE;
+      if (shortUrl.getIsActive()) flags |= IS_ACTIVE;
+    }
+    if (shortUrl.getClickCount() != null) flags |= HAS_CLICK_COUNT;
+    if (shortUrl.getUserId() != null) flags |= HAS_USER_ID;
+
+    Long activatesAt = micros(shortUrl.getActivatesAt());
+    Long expiresAt = micros(shortUrl.getExpiresAt());
+    int lifecycleFlags = 0;
+    if (shortUrl.getStatus() != null) lifecycleFlags |= HAS_STATUS;
+    if (activatesAt != null) lifecycleFlags |= HAS_ACTIVATES_AT;
+    if (expiresAt != null) lifecycleFlags |= HAS_EXPIRES_AT;
+    if (shortUrl.getMaxClicks() != null) lifecycleFlags |= HAS_MAX_CLICKS;
+
+    int size = lifecycleFlags == 0 ? 3 : 4;
+    if (shortUrl.getId() != null) size += varLongSize(shortUrl.getId());
+    if (shortKey != null) size += varLongSize(shortKey.length) + shortKey.length;
+    if (originalUrl != null) size += varLongSize(originalUrl.length) + originalUrl.length;
+    if (shortUrl.getClickCount() != null) size += varLongSize(shortUrl.getClickCount());
+    if (shortUrl.getUserId() != null) size += varLongSize(shortUrl.getUserId());
+    if (shortUrl.getStatus() != null) size += varLongSize(shortUrl.getStatus().code());
+    if (activatesAt != null) size += varLongSize(activatesAt);
+    if (expiresAt != null) size += varLongSize(expiresAt);
+    if (shortUrl.getMaxClicks() != null) size += varLongSize(shortUrl.getMaxClicks());
+
+    Writer writer = new Writer(size);
+    writer.writeByte(MAGIC);
+    writer.writeByte(lifecycleFlags == 0 ? VERSION_1 : VERSION_2);
+    writer.writeByte(flags);
+    if (lifecycleFlags != 0) writer.writeByte(lifecycleFlags);
+    if (shortUrl.getId() != null) writer.writeVarLong(shortUrl.getId());
+    if (shortKey != null) writer.writeBytes(shortKey);
+    if (originalUrl != null) writer.writeBytes(originalUrl);
+    if (shortUrl.getClickCount() != null) writer.writeVarLong(shortUrl.getClickCount());
+    if (shortUrl.getUserId() != null) writer.writeVarLong(shortUrl.getUserId());
+    if (shortUrl.getStatus() != null) writer.writeVarLong(shortUrl.getStatus().code());
+    if (activatesAt != null) writer.writeVarLong(activatesAt);
+    if (expiresAt != null) writer.writeVarLong(expiresAt);
+    if (shortUrl.getMaxClicks() != null) writer.writeVarLong(shortUrl.getMaxClicks());
+    return writer.buffer;
+  }
+
+  public static ShortUrl decode(byte[] bytes) {
+    Reader reader = new Reader(bytes);
+    if (reader.readByte() != MAGIC) {
+      throw new SerializationException("Not a binary ShortUrl payload");
+    }
+    int version = reader.readByte();
+    if (version != VERSION_1 && version != VERSION_2) {
+      throw new SerializationException("Unsupported ShortUrl payload version " + version);
+    }
+    int flags = reader.readByte();
+    int lifecycleFlags = version == VERSION_2 ? reader.readByte() : 0;
+
+    ShortUrl shortUrl = new ShortUrl();
+    if ((flags & HAS_ID) != 0) shortUrl.setId(reader.readVarLong());
+    if ((flags & HAS_SHORT_KEY) != 0) shortUrl.setShortKey(reader.readString());
+    if ((flags & HAS_ORIGINAL_URL) != 0) shortUrl.setOriginalUrl(reader.readString());
+    if ((flags & HAS_IS_ACTIVE) != 0) shortUrl.setIsActive((flags & IS_ACTIVE) != 0);
+    if ((flags & HAS_CLICK_COUNT) != 0) shortUrl.setClickCount(reader.readVarLong());
+    if ((flags & HAS_USER_ID) != 0) shortUrl.setUserId(reader.readVarLong());
+    if ((lifecycleFlags & HAS_STATUS) != 0) shortUrl.setStatus(status(reader.readVarLong()));
+    if ((lifecycleFlags & HAS_ACTIVATES_AT) != 0) shortUrl.setActivatesAt(instant(reader.readVarLong()));
+    if ((lifecycleFlags & HAS_EXPIRES_AT) != 0) shortUrl.setExpiresAt(instant(reader.readVarLong()));
+    if ((lifecycleFlags & HAS_MAX_CLICKS) != 0) shortUrl.setMaxClicks(reader.readVarLong());
+    return shortUrl;
+  }
+
+  private static Long micros(Instant instant) {
+    return instant == null ? null : ChronoUnit.MICROS.between(Instant.EPOCH, instant);
+  }
+
+  private static Instant instant(long micros) {
+    return Instant.EPOCH.plus(micros, ChronoUnit.MICROS);
+  }
+
+  private static UrlStatus status(long code) {
+    try {
+      return UrlStatus.fromCode((int) code);
+    } catch (IllegalArgumentException e) {
+      throw new SerializationException("Unknown status in ShortUrl payload", e);
+    }
+  }
+
+  private static byte[] utf8(String value) {
+    return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+  }
+
+  private static long zigzag(long value) {
+    return (value << 1) ^ (value >> 63);
+  }
+
+  private static int varLongSize(long value) {
+    long v = zigzag(value);
+    int size = 1;
+    while ((v & ~0x7FL) != 0) {
+      v >>>= 7;
+      size++;
+    }
+    return size;
+  }
+
+  private static final class Writer {
+
+    private final byte[] buffer;
+    private int position;
+
+    Writer(int size) {
+      this.buffer = new byte[size];
+    }
+
+    void writeByte(int value) {
+      buffer[position++] = (byte) value;
+    }
+
+    void writeVarLong(long value) {
+      long v = zigzag(value);
+      while ((v & ~0x7FL) != 0) {
+        buffer[position++] = (byte) ((v & 0x7F) | 0x80);
+        v >>>= 7;
+      }
+      buffer[position++] = (byte) v;
+    }
+
+    void writeBytes(byte[] bytes) {
+      writeVarLong(bytes.length);
+      System.arraycopy(bytes, 0, buffer, position, bytes.length);
+      position += bytes.length;
+    }
+  }
+
+  private static final class Reader {
+
+    private final byte[] buffer;
+    private int position;
+
+    Reader(byte[] buffer) {
+      this.buffer = buffer;
+    }
+
+    int readByte() {
+      if (position >= buffer.length) {
+        throw new SerializationException("Truncated ShortUrl payload");
+      }
+      return buffer[position++] & 0xFF;
+    }
+
+    long readVarLong() {
+      long raw = 0;
+      for (int shift = 0; shift < 64; shift += 7) {
+        int b = readByte();
+        raw |= (long) (b & 0x7F) << shift;
+        if ((b & 0x80) == 0) {
+          return (raw >>> 1) ^ -(raw & 1);
+        }
+      }
+      throw new SerializationException("Malformed varint in ShortUrl payload");
+    }
+
+    String readString() {
+      long length = readVarLong();
+      if (length < 0 || length > buffer.length - position) {
+        throw new SerializationException("Invalid string length in ShortUrl payload");
+      }
+      String value = new String(buffer, position, (int) length, StandardCharsets.UTF_8);
+      position += (int) length;
+      return value;
+    }
+  }
+}
@@ -0,0 +1,195 @@
+package am.itspace.shortest.url.cache;
+
+import am.itspace.shortest.url.model.ShortUrl;
+import am.itspace.shortest.url.repository.ShortUrlJdbcRepository;
+import am.itspace.shortest.url.util.RedisKeys;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Brings the Redis short URL entries back in line with the table, paying only for rows that changed.
+ * <p>
+ * The first run walks the whole table by id. After that each run reads only rows whose
+ * {@code updated_at} is past the checkpoint, in (updated_at, id) keyset order. Rows newer than
+ * {@code settle} are left for the next run, so a transaction that commits a little after stamping
+ * its row is still picked up. Every page is compared against both cache entries with one MGET, and
+ * only entries that exist but disagree with the row are rewritten. Absent entries stay absent, so
+ * the cache does not fill up with cold URLs. The checkpoint is saved in Redis after every page.
+ */
+@Slf4j
+@Component
+public class ShortUrlCacheReconciler {
+
+  static final String CHECKPOINT_KEY = "reconcile:short_url:checkpoint";
+
+  private final ShortUrlJdbcRepository shortUrlJdbcRepository;
+  private final RedisTemplate<String, Object> redisTemplate;
+  private final StringRedisTemplate stringRedisTemplate;
+  private final ShortUrlNearCache shortUrlNearCache;
+  private final int pageSize;
+  private final int maxPages;
+  private final Duration settle;
+
+  public ShortUrlCacheReconciler(ShortUrlJdbcRepository shortUrlJdbcRepository,
+                                 RedisTemplate<String, Object> redisTemplate,
+                                 StringRedisTemplate stringRedisTemplate,
+                                 ShortUrlNearCache shortUrlNearCache,
+                                 @Value("${scheduler.reconcile.page-size}") int pageSize,
+                                 @Value("${scheduler.reconcile.max-pages}") int maxPages,
+                                 @Value("${scheduler.reconcile.settle}") Duration settle) {
+    this.shortUrlJdbcRepository = shortUrlJdbcRepository;
+    this.redisTemplate = redisTemplate;
+    this.stringRedisTemplate = stringRedisTemplate;
+    this.shortUrlNearCache = shortUrlNearCache;
+    this.pageSize = pageSize;
+    this.maxPages = maxPages;
+    this.settle = settle;
+  }
+
+  /**
+   * Reconciles up to {@code max-pages} pages and returns the number of rows whose entries were
+   * repaired. Work left over continues from the checkpoint on the next call.
+   */
+  public long reconcile() {
+    Instant before = Instant.now().minus(settle).truncatedTo(ChronoUnit.MICROS);
+    Checkpoint checkpoint = loadCheckpoint(before);
+
+    long scanned = 0;
+    long repaired = 0;
+    for (int pages = 0; pages < maxPages; pages++) {
+      List<ShortUrl> page = checkpoint.fullPass()
+          ? shortUrlJdbcRepository.findPageAfterId(checkpoint.lastId(), pageSize)
+          : shortUrlJdbcRepository.findChangedAfter(checkpoint.position(), checkpoint.lastId(), before, pageSize);
+
+      if (page.isEmpty()) {
+        if (!checkpoint.fullPass()) break;
+        // full pass done; everything stamped since it started is covered incrementally from here
+        checkpoint = new Checkpoint(false, checkpoint.position(), 0);
+        saveCheckpoint(checkpoint);
+        continue;
+      }
+
+      repaired += repairDivergent(page);
+      scanned += page.size();
+
+      ShortUrl last = page.getLast();
+      checkpoint = checkpoint.fullPass()
+          ? new Checkpoint(true, checkpoint.position(), last.getId())
+          : new Checkpoint(false, last.getUpdatedAt(), last.getId());
+      saveCheckpoint(checkpoint);
+    }
+
+    if (scanned > 0) {
+      log.info("Reconciled {} short URL rows against the cache, repaired {}.", scanned, repaired);
+    }
+    return repaired;
+  }
+
+  private int repairDivergent(List<ShortUrl> rows) {
+    List<String> keys = new ArrayList<>(rows.size() * 2);
+    for (ShortUrl row : rows) {
+      keys.add(RedisKeys.BY_KEY_PREFIX + row.getShortKey());
+      keys.add(RedisKeys.byOriginal(row.getOriginalUrl()));
+    }
+    List<Object> cached = redisTemplate.opsForValue().multiGet(keys);
+    if (cached == null) return 0;
+
+    List<ShortUrl> divergent = new ArrayList<>();
+    List<String> orphanedByOriginal = new ArrayList<>();
+    for (int i = 0; i < rows.size(); i++) {
+      ShortUrl row = rows.get(i);
+      Object byKey = cached.get(2 * i);
+      Object byOriginal = cached.get(2 * i + 1);
+      if (diverges(row, byKey) || diverges(row, byOriginal)) {
+        divergent.add(row);
+        if (byKey instanceof ShortUrl stale && stale.getOriginalUrl() != null
+            && !stale.getOriginalUrl().equals(row.getOriginalUrl())) {
+          orphanedByOriginal.add(RedisKeys.byOriginal(stale.getOriginalUrl()));
+        }
+      }
+    }
+    if (divergent.isEmpty()) return 0;
+
+    redisTemplate.executePipelined(new SessionCallback<Object>() {
+      @Override
+      @SuppressWarnings("unchecked")
+      public Object execute(RedisOperations operations) {
+        for (ShortUrl row : divergent) {
+          operations.opsForValue().set(RedisKeys.BY_KEY_PREFIX + row.getShortKey(), row, RedisKeys.CACHE_TTL);
+          operations.opsForValue().set(RedisKeys.byOriginal(row.getOriginalUrl()), row, RedisKeys.CACHE_TTL);
+        }
+        if (!orphanedByOriginal.isEmpty()) {
+          operations.unlink(orphanedByOriginal);
+        }
+        return null;
+      }
+    });
+    divergent.forEach(row -> shortUrlNearCache.invalidate(row.getShortKey()));
+    return divergent.size();
+  }
+
+  /**
+   * An entry diverges when it exists and disagrees with the row on anything a redirect or a
+   * by-original lookup reads. Click counts are excluded; they move on every sync.
+   */
+  static boolean diverges(ShortUrl row, Object cached) {
+    if (cached == null) return false;
+    if (!(cached instanceof ShortUrl entry)) return true;
+    return !Objects.equals(row.getId(), entry.getId())
+        || !Objects.equals(row.getShortKey(), entry.getShortKey())
+        || !Objects.equals(row.getOriginalUrl(), entry.getOriginalUrl())
+        || !Objects.equals(row.getIsActive(), entry.getIsActive())
+        || !Objects.equals(row.getUserId(), entry.getUserId())
+        || row.getStatus() != entry.getStatus()
+        || !Objects.equals(row.getActivatesAt(), entry.getActivatesAt())
+        || !Objects.equals(row.getExpiresAt(), entry.getExpiresAt())
+        || !Objects.equals(row.getMaxClicks(), entry.getMaxClicks());
+  }
+
+  private Checkpoint loadCheckpoint(Instant fullPassStart) {
+    String value = stringRedisTemplate.opsForValue().get(CHECKPOINT_KEY);
+    Checkpoint checkpoint = value == null ? null : Checkpoint.parse(value);
+    return checkpoint != null ? checkpoint : new Checkpoint(true, fullPassStart, 0);
+  }
+
+  private void saveCheckpoint(Checkpoint checkpoint) {
+    stringRedisTemplate.opsForValue().set(CHECKPOINT_KEY, checkpoint.format());
+  }
+
+  /**
+   * Progress of the reconciler. During the full pass {@code position} is when the pass started and
+   * {@code lastId} the last id visited; afterwards it is the (updated_at, id) keyset position.
+   */
+  record Checkpoint(boolean fullPass, Instant position, long lastId) {
+
+    String format() {
+      long micros = ChronoUnit.MICROS.between(Instant.EPOCH, position);
+      return (fullPass ? "full" : "incremental") + ":" + micros + ":" + lastId;
+    }
+
+    static Checkpoint parse(String value) {
+      String[] parts = value.split(":");
+      if (parts.length != 3 || !(parts[0].equals("full") || parts[0].equals("incremental"))) {
+        return null;
+      }
+      try {
+        Instant position = Instant.EPOCH.plus(Long.parseLong(parts[1]), ChronoUnit.MICROS);
+        return new Checkpoint(parts[0].equals("full"), position, Long.parseLong(parts[2]));
+      } catch (NumberFormatException e) {
+        return null;
+      }
+    }
+  }
+}
@@ -0,0 +1,75 @@
+package am.itspace.shortest.url.cache;
+
+import am.itspace.shortest.url.model.ShortUrl;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * In-process L1 in front of the Redis by-key entries. Changes are broadcast over Redis pub/sub so
+ * every node drops its stale copy.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ShortUrlNearCache implements MessageListener {
+
+  public static final String INVALIDATION_CHANNEL = "short_url:invalidate";
+  private static final String INVALIDATE_ALL = "*";
+
+  private final LocalCache<String, ShortUrl> shortUrlLocalCache;
+  private final RedisTemplate<String, Object> redisTemplate;
+
+  public ShortUrl get(String shortKey) {
+    return shortUrlLocalCache.get(shortKey);
+  }
+
+  public void put(ShortUrl shortUrl) {
+    if (shortUrl.getShortKey() == null) return;
+    shortUrlLocalCache.put(shortUrl.getShortKey(), shortUrl);
+  }
+
+  /**
+   * Caches the entry with its own TTL, typically longer than the default one for hot keys.
+   * Invalidation still drops it immediately.
+   */
+  public void pin(ShortUrl shortUrl, Duration ttl) {
+    if (shortUrl.getShortKey() == null) return;
+    shortUrlLocalCache.put(shortUrl.getShortKey(), shortUrl, ttl);
+  }
+
+  public void invalidate(String shortKey) {
+    shortUrlLocalCache.invalidate(shortKey);
+    publish(shortKey);
+  }
+
+  public void invalidateAll() {
+    shortUrlLocalCache.invalidateAll();
+    publish(INVALIDATE_ALL);
+  }
+
+  @Override
+  public void onMessage(Message message, byte[] pattern) {
+    Object shortKey = redisTemplate.getValueSerializer().deserialize(message.getBody());
+    if (shortKey == null) return;
+
+    if (INVALIDATE_ALL.equals(shortKey)) {
+      shortUrlLocalCache.invalidateAll();
+    } else {
+      shortUrlLocalCache.invalidate(shortKey.toString());
+    }
+  }
+
+  private void publish(String payload) {
+    try {
+      redisTemplate.convertAndSend(INVALIDATION_CHANNEL, payload);
+    } catch (RuntimeException e) {
+      log.warn("Failed to publish near cache invalidation for {}", payload, e);
+    }
+  }
+}
@@ -0,0 +1,42 @@
+package am.itspace.shortest.url.cache.filter;
+
+final class BloomHash {
+
+  private static final long FNV_OFFSET = 0xCBF29CE484222325L;
+  private static final long FNV_PRIME = 0x100000001B3L;
+  private static final long SECOND_SEED = 0x9E3779B97F4A7C15L;
+
+  private BloomHash() {
+  }
+
+  static long first(String key) {
+    long hash = FNV_OFFSET;
+    for (int i = 0; i < key.length(); i++) {
+      hash ^= key.charAt(i);
+      hash *= FNV_PRIME;
+    }
+    return mix(hash);
+  }
+
+  static long second(long first) {
+    return mix(first ^ SECOND_SEED) | 1L;
+  }
+
+  static long index(long first, long second, int i, long bitCount) {
+    return Math.floorMod(first + i * second, bitCount);
+  }
+
+  static long optimalBitCount(long expectedInsertions, double falsePositiveRate) {
+    return (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+  }
+
+  static int optimalHashCount(long expectedInsertions, long bitCount) {
+    return Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * Math.log(2)));
+  }
+
+  private static long mix(long z) {
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
+  }
+}
@@ -0,0 +1,92 @@
+package am.itspace.shortest.url.cache.filter;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Per-node Bloom filter. Keys created on other nodes arrive over Redis pub/sub; since pub/sub is
+ * fire-and-forget, the filter is also rebuilt from the table periodically to recover any missed
+ * additions. It is only consulted after a Redis miss, where new keys already are, so a missed
+ * message costs a database query rather than a false 404.
+ */
+@Slf4j
+public class LocalShortKeyFilter implements ShortKeyFilter, MessageListener {
+
+  public static final String ADDED_CHANNEL = "short_url:keys:added";
+
+  private final RedisTemplate<String, Object> redisTemplate;
+  private final long initialCapacity;
+  private final double falsePositiveRate;
+
+  private volatile ScalableBloomFilter current;
+  private volatile ScalableBloomFilter loading;
+  private volatile boolean ready;
+
+  public LocalShortKeyFilter(RedisTemplate<String, Object> redisTemplate, long initialCapacity, double falsePositiveRate) {
+    this.redisTemplate = redisTemplate;
+    this.initialCapacity = initialCapacity;
+    this.falsePositiveRate = falsePositiveRate;
+    this.current = new ScalableBloomFilter(initialCapacity, falsePositiveRate);
+  }
+
+  @Override
+  public boolean mightContain(String shortKey) {
+    return !ready || current.mightContain(shortKey);
+  }
+
+  @Override
+  public void add(String shortKey) {
+    addLocally(shortKey);
+    try {
+      redisTemplate.convertAndSend(ADDED_CHANNEL, shortKey);
+    } catch (RuntimeException e) {
+      log.warn("Failed to publish new short key {} to other nodes", shortKey, e);
+    }
+  }
+
+  @Override
+  public boolean needsLoad() {
+    return true;
+  }
+
+  @Override
+  public void load(Supplier<Stream<String>> shortKeys) {
+    ScalableBloomFilter next = new ScalableBloomFilter(initialCapacity, falsePositiveRate);
+    loading = next;
+    try (Stream<String> keys = shortKeys.get()) {
+      keys.forEach(next::add);
+      current = next;
+      ready = true;
+      log.info("Loaded short key filter with ~{} keys in {} bits", next.approximateCount(), next.bitSize());
+    } finally {
+      loading = null;
+    }
+  }
+
+  @Override
+  public void onMessage(Message message, byte[] pattern) {
+    Object shortKey = redisTemplate.getValueSerializer().deserialize(message.getBody());
+    if (shortKey != null) {
+      addLocally(shortKey.toString());
+    }
+  }
+
+  private void addLocally(String shortKey) {
+    ScalableBloomFilter added = current;
+    added.add(shortKey);
+    ScalableBloomFilter next = loading;
+    if (next != null) {
+      next.add(shortKey);
+    }
+    // a load may have swapped in its filter after we read current and cleared loading since
+    ScalableBloomFilter swapped = current;
+    if (swapped != added) {
+      swapped.add(shortKey);
+    }
+  }
+}
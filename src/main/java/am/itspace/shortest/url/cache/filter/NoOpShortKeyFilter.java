@@ -0,0 +1,25 @@
+package am.itspace.shortest.url.cache.filter;
+
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+public class NoOpShortKeyFilter implements ShortKeyFilter {
+
+  @Override
+  public boolean mightContain(String shortKey) {
+    return true;
+  }
+
+  @Override
+  public void add(String shortKey) {
+  }
+
+  @Override
+  public boolean needsLoad() {
+    return false;
+  }
+
+  @Override
+  public void load(Supplier<Stream<String>> shortKeys) {
+  }
+}
@@ -0,0 +1,158 @@
+package am.itspace.shortest.url.cache.filter;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Fixed-size Bloom filter kept in a Redis bitmap and shared by all nodes. A lookup is one
+ * pipelined round of GETBITs, which is still far cheaper than the two cache reads and the
+ * Postgres query a missing key used to cost.
+ * <p>
+ * Readiness is a sentinel bit just past the filter bits, set once a load has finished. It lives in
+ * the bitmap itself and is read in the same pipeline as every lookup, so an evicted bitmap, or one
+ * recreated by {@link #add} with only the newest keys, reads as not ready and lookups fall through
+ * to the database until the next load.
+ */
+@Slf4j
+public class RedisShortKeyFilter implements ShortKeyFilter {
+
+  private static final String BITMAP_KEY = "short_url:bloom";
+  private static final String LOADING_LOCK_KEY = "short_url:bloom:loading";
+  private static final Duration LOADING_LOCK_TTL = Duration.ofMinutes(30);
+  private static final long READY_RECHECK_NANOS = Duration.ofSeconds(10).toNanos();
+  private static final long MAX_BITS = 1L << 32;
+  private static final int LOAD_BATCH_SIZE = 1000;
+
+  private final RedisTemplate<String, Object> redisTemplate;
+  private final byte[] bitmapKey = BITMAP_KEY.getBytes(StandardCharsets.UTF_8);
+  private final long bitCount;
+  private final long readyBit;
+  private final int hashCount;
+
+  private volatile boolean ready;
+  private volatile long readyCheckedAt = System.nanoTime() - READY_RECHECK_NANOS;
+
+  public RedisShortKeyFilter(RedisTemplate<String, Object> redisTemplate, long expectedInsertions, double falsePositiveRate) {
+    this.redisTemplate = redisTemplate;
+    this.bitCount = BloomHash.optimalBitCount(expectedInsertions, falsePositiveRate);
+    if (bitCount >= MAX_BITS) {
+      throw new IllegalArgumentException("Redis bitmaps are limited to 2^32 bits, " + (bitCount + 1) + " requested");
+    }
+    this.readyBit = bitCount;
+    this.hashCount = BloomHash.optimalHashCount(expectedInsertions, bitCount);
+  }
+
+  @Override
+  public boolean mightContain(String shortKey) {
+    if (!isReady()) {
+      return true;
+    }
+    long[] offsets = offsets(shortKey);
+    List<Object> bits = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+      connection.stringCommands().getBit(bitmapKey, readyBit);
+      for (long offset : offsets) {
+        connection.stringCommands().getBit(bitmapKey, offset);
+      }
+      return null;
+    });
+    if (!Boolean.TRUE.equals(bits.get(0))) {
+      log.warn("Shared short key filter is gone from Redis, answering from the database until it is reloaded");
+      ready = false;
+      readyCheckedAt = System.nanoTime();
+      return true;
+    }
+    for (int i = 1; i < bits.size(); i++) {
+      if (!Boolean.TRUE.equals(bits.get(i))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public void add(String shortKey) {
+    long[] offsets = offsets(shortKey);
+    redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+      setBits(connection, offsets);
+      return null;
+    });
+  }
+
+  @Override
+  public boolean needsLoad() {
+    return !isReady();
+  }
+
+  @Override
+  public void load(Supplier<Stream<String>> shortKeys) {
+    Boolean locked = redisTemplate.opsForValue().setIfAbsent(LOADING_LOCK_KEY, "1", LOADING_LOCK_TTL);
+    if (!Boolean.TRUE.equals(locked)) {
+      log.info("Another node is loading the shared short key filter");
+      return;
+    }
+    try (Stream<String> keys = shortKeys.get()) {
+      List<long[]> batch = new ArrayList<>(LOAD_BATCH_SIZE);
+      keys.forEach(shortKey -> {
+        batch.add(offsets(shortKey));
+        if (batch.size() == LOAD_BATCH_SIZE) {
+          flush(batch);
+        }
+      });
+      flush(batch);
+      redisTemplate.execute((RedisCallback<Boolean>) connection -> connection.stringCommands().setBit(bitmapKey, readyBit, true));
+      ready = true;
+      log.info("Loaded shared short key filter ({} bits, {} hashes)", bitCount, hashCount);
+    } finally {
+      redisTemplate.delete(LOADING_LOCK_KEY);
+    }
+  }
+
+  private boolean isReady() {
+    if (ready) {
+      return true;
+    }
+    long now = System.nanoTime();
+    if (now - readyCheckedAt >= READY_RECHECK_NANOS) {
+      readyCheckedAt = now;
+      ready = Boolean.TRUE.equals(redisTemplate.execute((RedisCallback<Boolean>) connection ->
+          connection.stringCommands().getBit(bitmapKey, readyBit)));
+    }
+    return ready;
+  }
+
+  private void flush(List<long[]> batch) {
+    if (batch.isEmpty()) return;
+    redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+      for (long[] offsets : batch) {
+        setBits(connection, offsets);
+      }
+      return null;
+    });
+    batch.clear();
+  }
+
+  private void setBits(RedisConnection connection, long[] offsets) {
+    for (long offset : offsets) {
+      connection.stringCommands().setBit(bitmapKey, offset, true);
+    }
+  }
+
+  private long[] offsets(String shortKey) {
+    long first = BloomHash.first(shortKey);
+    long second = BloomHash.second(first);
+    long[] offsets = new long[hashCount];
+    for (int i = 0; i < hashCount; i++) {
+      offsets[i] = BloomHash.index(first, second, i, bitCount);
+    }
+    return offsets;
+  }
+}
@@ -0,0 +1,132 @@
+package am.itspace.shortest.url.cache.filter;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bloom filter that grows by appending stages. Each new stage doubles the capacity of the
+ * previous one and halves its false-positive rate, so the compound rate stays below the
+ * configured one however many keys are added.
+ */
+public class ScalableBloomFilter {
+
+  private static final int GROWTH_FACTOR = 2;
+  private static final double TIGHTENING_RATIO = 0.5;
+
+  private final CopyOnWriteArrayList<Stage> stages = new CopyOnWriteArrayList<>();
+  private final ReentrantLock growLock = new ReentrantLock();
+
+  public ScalableBloomFilter(long initialCapacity, double falsePositiveRate) {
+    if (initialCapacity <= 0) throw new IllegalArgumentException("initialCapacity must be positive");
+    if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+      throw new IllegalArgumentException("falsePositiveRate must be in (0, 1)");
+    }
+    stages.add(new Stage(initialCapacity, falsePositiveRate * TIGHTENING_RATIO));
+  }
+
+  public boolean mightContain(String key) {
+    long first = BloomHash.first(key);
+    long second = BloomHash.second(first);
+    for (Stage stage : stages) {
+      if (stage.mightContain(first, second)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  public void add(String key) {
+    long first = BloomHash.first(key);
+    long second = BloomHash.second(first);
+    for (Stage stage : stages) {
+      if (stage.mightContain(first, second)) {
+        return;
+      }
+    }
+    Stage stage = stages.get(stages.size() - 1);
+    if (stage.isFull()) {
+      stage = grow(stage);
+    }
+    stage.put(first, second);
+  }
+
+  public long approximateCount() {
+    long count = 0;
+    for (Stage stage : stages) {
+      count += stage.count.get();
+    }
+    return count;
+  }
+
+  public long bitSize() {
+    long bits = 0;
+    for (Stage stage : stages) {
+      bits += stage.bitCount;
+    }
+    return bits;
+  }
+
+  private Stage grow(Stage full) {
+    growLock.lock();
+    try {
+      Stage last = stages.get(stages.size() - 1);
+      if (last != full) {
+        return last;
+      }
+      Stage next = new Stage(full.capacity * GROWTH_FACTOR, full.falsePositiveRate * TIGHTENING_RATIO);
+      stages.add(next);
+      return next;
+    } finally {
+      growLock.unlock();
+    }
+  }
+
+  private static final class Stage {
+
+    private final long capacity;
+    private final double falsePositiveRate;
+    private final long bitCount;
+    private final int hashCount;
+    private final AtomicLongArray words;
+    private final AtomicLong count = new AtomicLong();
+
+    Stage(long capacity, double falsePositiveRate) {
+      this.capacity = capacity;
+      this.falsePositiveRate = falsePositiveRate;
+      long bits = BloomHash.optimalBitCount(capacity, falsePositiveRate);
+      long wordCount = (bits + 63) / 64;
+      if (wordCount > Integer.MAX_VALUE) {
+        throw new IllegalArgumentException("Bloom filter stage too large: " + bits + " bits");
+      }
+      this.words = new AtomicLongArray((int) wordCount);
+      this.bitCount = wordCount * 64;
+      this.hashCount = BloomHash.optimalHashCount(capacity, bitCount);
+    }
+
+    boolean isFull() {
+      return count.get() >= capacity;
+    }
+
+    boolean mightContain(long first, long second) {
+      for (int i = 0; i < hashCount; i++) {
+        long index = BloomHash.index(first, second, i, bitCount);
+        if ((words.get((int) (index >>> 6)) & (1L << index)) == 0) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    void put(long first, long second) {
+      for (int i = 0; i < hashCount; i++) {
+        long index = BloomHash.index(first, second, i, bitCount);
+        long mask = 1L << index;
+        int word = (int) (index >>> 6);
+        words.getAndAccumulate(word, mask, (current, bit) -> current | bit);
+      }
+      count.incrementAndGet();
+    }
+  }
+}
@@ -0,0 +1,23 @@
+package am.itspace.shortest.url.cache.filter;
+
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Membership guard for short keys. {@link #mightContain} may return false positives but never a
+ * false negative once the filter is loaded; before that it answers {@code true} for every key.
+ */
+public interface ShortKeyFilter {
+
+  boolean mightContain(String shortKey);
+
+  void add(String shortKey);
+
+  boolean needsLoad();
+
+  /**
+   * Rebuilds the filter from every stored key. The stream is opened only once the filter is ready
+   * to take keys added concurrently, so a key committed after the query's snapshot is not missed.
+   */
+  void load(Supplier<Stream<String>> shortKeys);
+}
@@ -0,0 +1,27 @@
+package am.itspace.shortest.url.cache.filter;
+
+import am.itspace.shortest.url.repository.ShortUrlRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ShortKeyFilterLoader {
+
+  private final ShortKeyFilter shortKeyFilter;
+  private final ShortUrlRepository shortUrlRepository;
+
+  @Transactional(readOnly = true)
+  @Scheduled(fixedDelayString = "${bloom.rebuild-interval}")
+  public void load() {
+    if (!shortKeyFilter.needsLoad()) return;
+
+    long start = System.nanoTime();
+    shortKeyFilter.load(shortUrlRepository::streamAllShortKeys);
+    log.info("Short key filter load took {} ms", (System.nanoTime() - start) / 1_000_000);
+  }
+}
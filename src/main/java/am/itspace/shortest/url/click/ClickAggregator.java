@@ -0,0 +1,148 @@
+package am.itspace.shortest.url.click;
+
+import am.itspace.shortest.url.util.RedisKeys;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.RedisStreamCommands.XAddOptions;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StreamOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Write-behind click counting: redirects only bump an in-memory counter and queue a
+ * {@link ClickEvent}. On a fixed delay, and once more on shutdown, the accumulated deltas are pushed
+ * to Redis in pipelined batches and the queued events are appended to the click stream.
+ */
+@Slf4j
+@Component
+public class ClickAggregator {
+
+  private final ClickCounter clickCounter = new ClickCounter();
+  private final ClickEventBuffer clickEventBuffer;
+  private final HotKeyTracker hotKeyTracker;
+  private final RedisTemplate<String, Object> redisTemplate;
+  private final StringRedisTemplate stringRedisTemplate;
+  private final int batchSize;
+  private final int shardCount;
+  private final XAddOptions streamAddOptions;
+
+  public ClickAggregator(RedisTemplate<String, Object> redisTemplate,
+                         StringRedisTemplate stringRedisTemplate,
+                         HotKeyTracker hotKeyTracker,
+                         @Value("${click.flush-batch-size}") int batchSize,
+                         @Value("${scheduler.leases.shard-count}") int shardCount,
+                         @Value("${click.events.buffer-capacity}") int eventBufferCapacity,
+                         @Value("${click.events.max-length}") long streamMaxLength) {
+    this.redisTemplate = redisTemplate;
+    this.stringRedisTemplate = stringRedisTemplate;
+    this.hotKeyTracker = hotKeyTracker;
+    this.batchSize = batchSize;
+    this.shardCount = shardCount;
+    this.clickEventBuffer = new ClickEventBuffer(eventBufferCapacity);
+    this.streamAddOptions = XAddOptions.maxlen(streamMaxLength).approximateTrimming(true);
+  }
+
+  public void record(String shortKey, String referrer, String userAgent, String remoteAddress) {
+    clickCounter.record(shortKey);
+    clickEventBuffer.offer(ClickEvent.of(shortKey, System.currentTimeMillis(), referrer, userAgent, remoteAddress));
+  }
+
+  @Scheduled(fixedDelayString = "${click.flush-interval}")
+  public void flush() {
+    flushEvents();
+
+    Map<String, Long> deltas = clickCounter.drain();
+    if (deltas.isEmpty()) return;
+    hotKeyTracker.record(deltas);
+
+    List<Map.Entry<String, Long>> batch = new ArrayList<>(batchSize);
+    for (Map.Entry<String, Long> entry : deltas.entrySet()) {
+      batch.add(entry);
+      if (batch.size() == batchSize) {
+        writeBatch(batch);
+        batch.clear();
+      }
+    }
+    writeBatch(batch);
+  }
+
+  @PreDestroy
+  public void drainOnShutdown() {
+    flush();
+    if (clickCounter.size() > 0) {
+      log.warn("Shutting down with {} short keys whose clicks could not be flushed", clickCounter.size());
+    }
+    if (clickEventBuffer.size() > 0 || clickEventBuffer.droppedCount() > 0) {
+      log.warn("Shutting down with {} click events not appended and {} dropped on a full buffer",
+          clickEventBuffer.size(), clickEventBuffer.droppedCount());
+    }
+  }
+
+  private void flushEvents() {
+    List<ClickEvent> events;
+    while (!(events = clickEventBuffer.drain(batchSize)).isEmpty()) {
+      List<ClickEvent> batch = events;
+      try {
+        stringRedisTemplate.executePipelined(new SessionCallback<Object>() {
+          @Override
+          @SuppressWarnings("unchecked")
+          public Object execute(RedisOperations operations) {
+            StreamOperations<String, String, String> streamOperations = operations.opsForStream();
+            for (ClickEvent event : batch) {
+              streamOperations.add(RedisKeys.CLICK_EVENTS, event.toFields(), streamAddOptions);
+            }
+            return null;
+          }
+        });
+      } catch (RuntimeException e) {
+        log.warn("Failed to append {} click events, keeping them for the next flush", batch.size(), e);
+        clickEventBuffer.requeue(batch);
+        return;
+      }
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private void writeBatch(List<Map.Entry<String, Long>> batch) {
+    if (batch.isEmpty()) return;
+
+    RedisSerializer<Object> valueSerializer = (RedisSerializer<Object>) redisTemplate.getValueSerializer();
+    byte[] activeUrlsKey = RedisKeys.ACTIVE_URLS.getBytes(StandardCharsets.UTF_8);
+    byte[][] members = new byte[batch.size()][];
+    Map<Integer, List<byte[]>> pendingByShard = new HashMap<>();
+
+    try {
+      redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+        for (int i = 0; i < batch.size(); i++) {
+          Map.Entry<String, Long> entry = batch.get(i);
+          byte[] shortKey = entry.getKey().getBytes(StandardCharsets.UTF_8);
+          byte[] clickKey = (RedisKeys.CLICKS_PREFIX + entry.getKey()).getBytes(StandardCharsets.UTF_8);
+          connection.stringCommands().incrBy(clickKey, entry.getValue());
+          members[i] = valueSerializer.serialize(entry.getKey());
+          pendingByShard.computeIfAbsent(RedisKeys.shardOf(entry.getKey(), shardCount), shard -> new ArrayList<>()).add(shortKey);
+        }
+        // after the increments, so a sync that pops a key always finds its counter
+        pendingByShard.forEach((shard, shortKeys) ->
+            connection.setCommands().sAdd(RedisKeys.pendingClicks(shard).getBytes(StandardCharsets.UTF_8), shortKeys.toArray(byte[][]::new)));
+        connection.setCommands().sAdd(activeUrlsKey, members);
+        return null;
+      });
+    } catch (RuntimeException e) {
+      log.warn("Failed to flush clicks for {} short keys, keeping them for the next flush", batch.size(), e);
+      batch.forEach(entry -> clickCounter.add(entry.getKey(), entry.getValue()));
+    }
+  }
+}
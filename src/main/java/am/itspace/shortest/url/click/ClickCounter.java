@@ -0,0 +1,68 @@
+package am.itspace.shortest.url.click;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-key click counters that cost one striped {@link LongAdder} increment per click.
+ * <p>
+ * {@link #drain()} collects and resets every counter. Counters that stayed at zero for a whole
+ * drain cycle are retired and dropped so the map only holds recently clicked keys. A click that
+ * lands on a counter after it was retired notices the flag and moves itself to a live counter, so
+ * no click is lost to the removal.
+ */
+public class ClickCounter {
+
+  private final ConcurrentHashMap<String, Counter> counters = new ConcurrentHashMap<>();
+
+  public void record(String shortKey) {
+    add(shortKey, 1);
+  }
+
+  public void add(String shortKey, long delta) {
+    Counter counter = counters.computeIfAbsent(shortKey, key -> new Counter());
+    counter.adder.add(delta);
+    if (counter.retired) {
+      long orphaned = counter.adder.sumThenReset();
+      if (orphaned != 0) {
+        add(shortKey, orphaned);
+      }
+    }
+  }
+
+  public Map<String, Long> drain() {
+    Map<String, Long> deltas = new HashMap<>();
+    Iterator<Map.Entry<String, Counter>> iterator = counters.entrySet().iterator();
+    while (iterator.hasNext()) {
+      Map.Entry<String, Counter> entry = iterator.next();
+      Counter counter = entry.getValue();
+      long delta = counter.adder.sumThenReset();
+
+      if (delta == 0 && counter.idle) {
+        counters.remove(entry.getKey(), counter);
+        counter.retired = true;
+        delta = counter.adder.sumThenReset();
+      }
+      counter.idle = delta == 0;
+
+      if (delta != 0) {
+        deltas.merge(entry.getKey(), delta, Long::sum);
+      }
+    }
+    return deltas;
+  }
+
+  public int size() {
+    return counters.size();
+  }
+
+  private static final class Counter {
+
+    private final LongAdder adder = new LongAdder();
+    private volatile boolean idle;
+    private volatile boolean retired;
+  }
+}
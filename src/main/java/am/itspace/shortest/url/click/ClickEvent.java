@@ -0,0 +1,61 @@
+package am.itspace.shortest.url.click;
+
+import am.itspace.shortest.url.util.UrlHashUtil;
+
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * One redirect as it is appended to the click stream. Only the referrer host, a hash of the user
+ * agent and a hash of client address plus user agent (the visitor) are kept, which keeps entries
+ * small and avoids storing full referrer URLs or client addresses.
+ */
+public record ClickEvent(String shortKey, long timestamp, String referrerHost, String userAgentHash, String visitorHash) {
+
+  static final String SHORT_KEY = "k";
+  static final String TIMESTAMP = "t";
+  static final String REFERRER_HOST = "r";
+  static final String USER_AGENT_HASH = "u";
+  static final String VISITOR_HASH = "v";
+
+  public static ClickEvent of(String shortKey, long timestamp, String referrer, String userAgent, String remoteAddress) {
+    return new ClickEvent(shortKey, timestamp, hostOf(referrer),
+        userAgent == null ? null : UrlHashUtil.hashKey(userAgent),
+        remoteAddress == null ? null : UrlHashUtil.hashKey(remoteAddress + "\n" + (userAgent == null ? "" : userAgent)));
+  }
+
+  public Map<String, String> toFields() {
+    Map<String, String> fields = new HashMap<>(8);
+    fields.put(SHORT_KEY, shortKey);
+    fields.put(TIMESTAMP, Long.toString(timestamp));
+    if (referrerHost != null) fields.put(REFERRER_HOST, referrerHost);
+    if (userAgentHash != null) fields.put(USER_AGENT_HASH, userAgentHash);
+    if (visitorHash != null) fields.put(VISITOR_HASH, visitorHash);
+    return fields;
+  }
+
+  public static ClickEvent fromFields(Map<?, ?> fields) {
+    Object shortKey = fields.get(SHORT_KEY);
+    Object timestamp = fields.get(TIMESTAMP);
+    if (shortKey == null || timestamp == null) {
+      throw new IllegalArgumentException("Click event is missing its short key or timestamp");
+    }
+    Object referrerHost = fields.get(REFERRER_HOST);
+    Object userAgentHash = fields.get(USER_AGENT_HASH);
+    Object visitorHash = fields.get(VISITOR_HASH);
+    return new ClickEvent(shortKey.toString(), Long.parseLong(timestamp.toString()),
+        referrerHost == null ? null : referrerHost.toString(),
+        userAgentHash == null ? null : userAgentHash.toString(),
+        visitorHash == null ? null : visitorHash.toString());
+  }
+
+  private static String hostOf(String referrer) {
+    if (referrer == null || referrer.isBlank()) return null;
+    try {
+      return URI.create(referrer.strip()).getHost();
+    } catch (IllegalArgumentException e) {
+      return null;
+    }
+  }
+}
@@ -0,0 +1,45 @@
+package am.itspace.shortest.url.click;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded hand-off between redirects and the stream writer. {@link #offer(ClickEvent)} never
+ * blocks: when the writer falls behind the event is dropped and counted, and the click itself is
+ * still counted by {@link ClickCounter}.
+ */
+public class ClickEventBuffer {
+
+  private final ArrayBlockingQueue<ClickEvent> queue;
+  private final LongAdder dropped = new LongAdder();
+
+  public ClickEventBuffer(int capacity) {
+    this.queue = new ArrayBlockingQueue<>(capacity);
+  }
+
+  public void offer(ClickEvent event) {
+    if (!queue.offer(event)) {
+      dropped.increment();
+    }
+  }
+
+  public List<ClickEvent> drain(int maxEvents) {
+    List<ClickEvent> events = new ArrayList<>(Math.min(maxEvents, queue.size()));
+    queue.drainTo(events, maxEvents);
+    return events;
+  }
+
+  public void requeue(List<ClickEvent> events) {
+    events.forEach(this::offer);
+  }
+
+  public int size() {
+    return queue.size();
+  }
+
+  public long droppedCount() {
+    return dropped.sum();
+  }
+}
@@ -0,0 +1,175 @@
+package am.itspace.shortest.url.click;
+
+import am.itspace.shortest.url.model.ClickRollupId;
+import am.itspace.shortest.url.model.enums.RollupGranularity;
+import am.itspace.shortest.url.repository.ClickRollupJdbcRepository;
+import am.itspace.shortest.url.repository.ClickRollupRepository;
+import am.itspace.shortest.url.scheduler.SchedulerCoordinator;
+import am.itspace.shortest.url.util.RedisKeys;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.PendingMessage;
+import org.springframework.data.redis.connection.stream.PendingMessages;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StreamOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reads the click stream as a member of the {@value #GROUP} consumer group and folds each batch
+ * into minute, hour and day buckets with one upsert, and its visitors into the per-day unique
+ * visitor sketches, before acknowledging it.
+ * <p>
+ * Delivery is at least once: a node that dies between the upsert and the acknowledgement leaves its
+ * entries pending, and any consumer claims entries that stayed pending longer than
+ * {@code click.rollup.claim-idle}, so such a batch may be counted twice but is never lost.
+ */
+@Slf4j
+@Component
+public class ClickRollupConsumer {
+
+  public static final String GROUP = "click-rollup";
+
+  private final StringRedisTemplate stringRedisTemplate;
+  private final ClickRollupJdbcRepository clickRollupJdbcRepository;
+  private final ClickRollupRepository clickRollupRepository;
+  private final UniqueVisitorStore uniqueVisitorStore;
+  private final SchedulerCoordinator schedulerCoordinator;
+  private final Consumer consumer;
+  private final int batchSize;
+  private final Duration claimIdle;
+  private final Duration minuteRetention;
+  private final Duration hourRetention;
+  private volatile boolean groupCreated;
+
+  public ClickRollupConsumer(StringRedisTemplate stringRedisTemplate,
+                             ClickRollupJdbcRepository clickRollupJdbcRepository,
+                             ClickRollupRepository clickRollupRepository,
+                             UniqueVisitorStore uniqueVisitorStore,
+                             SchedulerCoordinator schedulerCoordinator,
+                             @Value("${click.rollup.consumer-name}") String consumerName,
+                             @Value("${click.rollup.batch-size}") int batchSize,
+                             @Value("${click.rollup.claim-idle}") Duration claimIdle,
+                             @Value("${click.rollup.minute-retention}") Duration minuteRetention,
+                             @Value("${click.rollup.hour-retention}") Duration hourRetention) {
+    this.stringRedisTemplate = stringRedisTemplate;
+    this.clickRollupJdbcRepository = clickRollupJdbcRepository;
+    this.clickRollupRepository = clickRollupRepository;
+    this.uniqueVisitorStore = uniqueVisitorStore;
+    this.schedulerCoordinator = schedulerCoordinator;
+    this.consumer = Consumer.from(GROUP, consumerName);
+    this.batchSize = batchSize;
+    this.claimIdle = claimIdle;
+    this.minuteRetention = minuteRetention;
+    this.hourRetention = hourRetention;
+  }
+
+  @Scheduled(fixedDelayString = "${click.rollup.poll-interval}")
+  public void poll() {
+    StreamOperations<String, Object, Object> streamOperations = stringRedisTemplate.opsForStream();
+    ensureGroup();
+
+    claimStale(streamOperations);
+
+    List<MapRecord<String, Object, Object>> records;
+    do {
+      records = streamOperations.read(consumer, StreamReadOptions.empty().count(batchSize),
+          StreamOffset.create(RedisKeys.CLICK_EVENTS, ReadOffset.lastConsumed()));
+      if (records == null || records.isEmpty()) return;
+      process(streamOperations, records);
+    } while (records.size() == batchSize);
+  }
+
+  @Scheduled(fixedDelayString = "${click.rollup.purge-interval}")
+  public void purgeExpired() {
+    if (!schedulerCoordinator.isLeader()) return;
+
+    Instant now = Instant.now();
+    int minutes = clickRollupRepository.deleteOlderThan(RollupGranularity.MINUTE, now.minus(minuteRetention));
+    int hours = clickRollupRepository.deleteOlderThan(RollupGranularity.HOUR, now.minus(hourRetention));
+    if (minutes + hours > 0) {
+      log.info("Purged {} minute and {} hour click rollups past retention", minutes, hours);
+    }
+  }
+
+  private void claimStale(StreamOperations<String, Object, Object> streamOperations) {
+    PendingMessages pending = streamOperations.pending(RedisKeys.CLICK_EVENTS, GROUP, Range.unbounded(), batchSize);
+    if (pending == null || pending.isEmpty()) return;
+
+    RecordId[] stale = pending.stream()
+        .filter(message -> message.getElapsedTimeSinceLastDelivery().compareTo(claimIdle) >= 0)
+        .map(PendingMessage::getId)
+        .toArray(RecordId[]::new);
+    if (stale.length == 0) return;
+
+    List<MapRecord<String, Object, Object>> claimed =
+        streamOperations.claim(RedisKeys.CLICK_EVENTS, GROUP, consumer.getName(), claimIdle, stale);
+    if (claimed != null && !claimed.isEmpty()) {
+      log.info("Claimed {} click events left pending by another consumer", claimed.size());
+      process(streamOperations, claimed);
+    }
+  }
+
+  private void process(StreamOperations<String, Object, Object> streamOperations,
+                       List<MapRecord<String, Object, Object>> records) {
+    Map<ClickRollupId, Long> counts = new HashMap<>();
+    Map<String, Set<String>> visitorsBySketch = new HashMap<>();
+    RecordId[] ids = new RecordId[records.size()];
+    for (int i = 0; i < records.size(); i++) {
+      MapRecord<String, Object, Object> record = records.get(i);
+      ids[i] = record.getId();
+      try {
+        ClickEvent event = ClickEvent.fromFields(record.getValue());
+        Instant clickedAt = Instant.ofEpochMilli(event.timestamp());
+        for (RollupGranularity granularity : RollupGranularity.values()) {
+          counts.merge(new ClickRollupId(event.shortKey(), granularity, granularity.bucketStart(clickedAt)), 1L, Long::sum);
+        }
+        if (event.visitorHash() != null) {
+          LocalDate day = LocalDate.ofInstant(clickedAt, ZoneOffset.UTC);
+          visitorsBySketch.computeIfAbsent(RedisKeys.uniqueVisitors(event.shortKey(), day), key -> new HashSet<>())
+              .add(event.visitorHash());
+        }
+      } catch (IllegalArgumentException e) {
+        log.warn("Skipping malformed click event {}", record.getId(), e);
+      }
+    }
+
+    clickRollupJdbcRepository.addClicks(counts);
+    uniqueVisitorStore.add(visitorsBySketch);
+    streamOperations.acknowledge(RedisKeys.CLICK_EVENTS, GROUP, ids);
+  }
+
+  private void ensureGroup() {
+    if (groupCreated) return;
+    byte[] streamKey = RedisKeys.CLICK_EVENTS.getBytes(StandardCharsets.UTF_8);
+    try {
+      stringRedisTemplate.execute((RedisCallback<String>) connection ->
+          connection.streamCommands().xGroupCreate(streamKey, GROUP, ReadOffset.from("0"), true));
+    } catch (DataAccessException e) {
+      if (!String.valueOf(e.getMostSpecificCause().getMessage()).contains("BUSYGROUP")) {
+        throw e;
+      }
+    }
+    groupCreated = true;
+  }
+}
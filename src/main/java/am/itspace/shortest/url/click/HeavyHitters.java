@@ -0,0 +1,131 @@
+package am.itspace.shortest.url.click;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Top-N heavy hitters in bounded memory: a count-min sketch ({@code depth} rows of {@code width}
+ * counters, conservative update) estimates every key's count, and a min-heap keeps the
+ * {@code capacity} keys with the highest estimates. A new key enters the heap only when its
+ * estimate beats the current minimum. {@link #decay()} halves everything so the ranking follows
+ * recent traffic rather than all-time totals.
+ */
+public class HeavyHitters {
+
+  public record HotKey(String shortKey, long estimatedClicks) {
+  }
+
+  private static final class Candidate {
+
+    private final String key;
+    private long count;
+
+    private Candidate(String key, long count) {
+      this.key = key;
+      this.count = count;
+    }
+  }
+
+  private final int capacity;
+  private final int depth;
+  private final int mask;
+  private final long[][] counters;
+  private final Map<String, Candidate> candidates = new HashMap<>();
+  private final PriorityQueue<Candidate> heap = new PriorityQueue<>(Comparator.comparingLong(candidate -> candidate.count));
+
+  public HeavyHitters(int capacity, int width, int depth) {
+    if (capacity < 1 || width < 1 || depth < 1) {
+      throw new IllegalArgumentException("capacity, width and depth must be positive");
+    }
+    this.capacity = capacity;
+    this.depth = depth;
+    int roundedWidth = Integer.highestOneBit(width - 1) << 1;
+    this.mask = Math.max(1, roundedWidth) - 1;
+    this.counters = new long[depth][mask + 1];
+  }
+
+  public synchronized void add(String key, long delta) {
+    if (delta <= 0) return;
+
+    int h1 = spread(key.hashCode());
+    int h2 = spread(h1 ^ 0x5bd1e995) | 1;
+
+    long estimate = Long.MAX_VALUE;
+    for (int row = 0; row < depth; row++) {
+      estimate = Math.min(estimate, counters[row][(h1 + row * h2) & mask]);
+    }
+    long updated = estimate + delta;
+    for (int row = 0; row < depth; row++) {
+      int index = (h1 + row * h2) & mask;
+      if (counters[row][index] < updated) {
+        counters[row][index] = updated;
+      }
+    }
+
+    Candidate candidate = candidates.get(key);
+    if (candidate != null) {
+      heap.remove(candidate);
+      candidate.count = updated;
+      heap.add(candidate);
+    } else if (heap.size() < capacity) {
+      admit(key, updated);
+    } else if (updated > heap.peek().count) {
+      candidates.remove(heap.poll().key);
+      admit(key, updated);
+    }
+  }
+
+  public synchronized void addAll(Map<String, Long> deltas) {
+    deltas.forEach(this::add);
+  }
+
+  public synchronized List<HotKey> top(int limit) {
+    List<Candidate> sorted = new ArrayList<>(heap);
+    sorted.sort(Comparator.comparingLong((Candidate candidate) -> candidate.count).reversed());
+    List<HotKey> hotKeys = new ArrayList<>(Math.min(limit, sorted.size()));
+    for (int i = 0; i < sorted.size() && i < limit; i++) {
+      hotKeys.add(new HotKey(sorted.get(i).key, sorted.get(i).count));
+    }
+    return hotKeys;
+  }
+
+  /**
+   * Halves every counter and heap estimate, and drops heap entries that reach zero.
+   */
+  public synchronized void decay() {
+    for (long[] row : counters) {
+      for (int i = 0; i < row.length; i++) {
+        row[i] >>>= 1;
+      }
+    }
+    List<Candidate> survivors = new ArrayList<>(heap.size());
+    for (Candidate candidate : heap) {
+      candidate.count >>>= 1;
+      if (candidate.count > 0) {
+        survivors.add(candidate);
+      } else {
+        candidates.remove(candidate.key);
+      }
+    }
+    heap.clear();
+    heap.addAll(survivors);
+  }
+
+  private void admit(String key, long count) {
+    Candidate candidate = new Candidate(key, count);
+    candidates.put(key, candidate);
+    heap.add(candidate);
+  }
+
+  private static int spread(int hash) {
+    hash ^= hash >>> 16;
+    hash *= 0x85ebca6b;
+    hash ^= hash >>> 13;
+    hash *= 0xc2b2ae35;
+    return hash ^ (hash >>> 16);
+  }
+}
@@ -0,0 +1,37 @@
+package am.itspace.shortest.url.click;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This node's hot short keys. Fed with the per-key deltas {@link ClickAggregator} drains on every
+ * flush, so the redirect thread pays nothing beyond its existing counter increment.
+ */
+@Component
+public class HotKeyTracker {
+
+  private final HeavyHitters heavyHitters;
+
+  public HotKeyTracker(@Value("${click.hot-keys.top-n}") int topN,
+                       @Value("${click.hot-keys.sketch-width}") int sketchWidth,
+                       @Value("${click.hot-keys.sketch-depth}") int sketchDepth) {
+    this.heavyHitters = new HeavyHitters(topN, sketchWidth, sketchDepth);
+  }
+
+  public void record(Map<String, Long> deltas) {
+    heavyHitters.addAll(deltas);
+  }
+
+  public List<HeavyHitters.HotKey> top(int limit) {
+    return heavyHitters.top(limit);
+  }
+
+  @Scheduled(fixedDelayString = "${click.hot-keys.decay-interval}")
+  public void decay() {
+    heavyHitters.decay();
+  }
+}
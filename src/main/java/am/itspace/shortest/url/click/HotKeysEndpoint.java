@@ -0,0 +1,24 @@
+package am.itspace.shortest.url.click;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * {@code /actuator/hotkeys}: this node's current top short keys with their decayed click estimates.
+ */
+@Component
+@Endpoint(id = "hotkeys")
+@RequiredArgsConstructor
+public class HotKeysEndpoint {
+
+  private final HotKeyTracker hotKeyTracker;
+
+  @ReadOperation
+  public List<HeavyHitters.HotKey> hotKeys() {
+    return hotKeyTracker.top(Integer.MAX_VALUE);
+  }
+}
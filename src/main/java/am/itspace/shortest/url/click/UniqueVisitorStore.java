@@ -0,0 +1,74 @@
+package am.itspace.shortest.url.click;
+
+import am.itspace.shortest.url.util.RedisKeys;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Per-link, per-UTC-day HyperLogLog sketches of visitor hashes. Each sketch is at most 12 KB
+ * however many visitors it sees (much less while sparse), only the sketch is stored, and a range of
+ * days is estimated by merging the day sketches inside PFCOUNT. PFADD is idempotent, so replaying a
+ * batch of click events does not inflate the estimate.
+ */
+@Component
+public class UniqueVisitorStore {
+
+  private final StringRedisTemplate stringRedisTemplate;
+  private final Duration retention;
+
+  public UniqueVisitorStore(StringRedisTemplate stringRedisTemplate,
+                            @Value("${click.unique-visitors.retention}") Duration retention) {
+    this.stringRedisTemplate = stringRedisTemplate;
+    this.retention = retention;
+  }
+
+  /**
+   * Adds visitor hashes keyed by their {@link RedisKeys#uniqueVisitors(String, LocalDate)} sketch,
+   * in one pipeline, and pushes each touched sketch's expiry out to the retention period.
+   */
+  public void add(Map<String, ? extends Collection<String>> visitorsBySketch) {
+    if (visitorsBySketch.isEmpty()) return;
+
+    Duration ttl = retention.plusDays(1);
+    stringRedisTemplate.executePipelined(new SessionCallback<Object>() {
+      @Override
+      @SuppressWarnings("unchecked")
+      public Object execute(RedisOperations operations) {
+        RedisOperations<String, String> redisOperations = operations;
+        visitorsBySketch.forEach((sketchKey, visitors) -> {
+          redisOperations.opsForHyperLogLog().add(sketchKey, visitors.toArray(String[]::new));
+          redisOperations.expire(sketchKey, ttl);
+        });
+        return null;
+      }
+    });
+  }
+
+  /**
+   * Estimates distinct visitors over the last {@code days} UTC days including today, capped at the
+   * retention period.
+   */
+  public long estimate(String shortKey, int days) {
+    int window = effectiveDays(days);
+    LocalDate today = LocalDate.now(ZoneOffset.UTC);
+    String[] sketchKeys = new String[window];
+    for (int i = 0; i < window; i++) {
+      sketchKeys[i] = RedisKeys.uniqueVisitors(shortKey, today.minusDays(i));
+    }
+    Long estimate = stringRedisTemplate.opsForHyperLogLog().size(sketchKeys);
+    return estimate == null ? 0 : estimate;
+  }
+
+  public int effectiveDays(int days) {
+    return (int) Math.max(1, Math.min(days, retention.toDays()));
+  }
+}
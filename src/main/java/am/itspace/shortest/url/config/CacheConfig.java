@@ -0,0 +1,44 @@
+package am.itspace.shortest.url.config;
+
+import am.itspace.shortest.url.cache.LocalCache;
+import am.itspace.shortest.url.cache.filter.LocalShortKeyFilter;
+import am.itspace.shortest.url.cache.filter.NoOpShortKeyFilter;
+import am.itspace.shortest.url.cache.filter.RedisShortKeyFilter;
+import am.itspace.shortest.url.cache.filter.ShortKeyFilter;
+import am.itspace.shortest.url.model.ShortUrl;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.time.Duration;
+
+@Configuration
+public class CacheConfig {
+
+  @Bean
+  public LocalCache<String, ShortUrl> shortUrlLocalCache(@Value("${cache.local.maximum-size}") int maximumSize,
+                                                        @Value("${cache.local.ttl}") Duration ttl) {
+    return new LocalCache<>(maximumSize, ttl);
+  }
+
+  @Bean
+  public ShortKeyFilter shortKeyFilter(@Value("${bloom.mode}") String mode,
+                                       @Value("${bloom.expected-insertions}") long expectedInsertions,
+                                       @Value("${bloom.false-positive-rate}") double falsePositiveRate,
+                                       RedisTemplate<String, Object> redisTemplate,
+                                       RedisMessageListenerContainer redisMessageListenerContainer) {
+    return switch (mode.toLowerCase()) {
+      case "local" -> {
+        LocalShortKeyFilter filter = new LocalShortKeyFilter(redisTemplate, expectedInsertions, falsePositiveRate);
+        redisMessageListenerContainer.addMessageListener(filter, new ChannelTopic(LocalShortKeyFilter.ADDED_CHANNEL));
+        yield filter;
+      }
+      case "redis" -> new RedisShortKeyFilter(redisTemplate, expectedInsertions, falsePositiveRate);
+      case "none" -> new NoOpShortKeyFilter();
+      default -> throw new IllegalArgumentException("Unknown bloom.mode: " + mode);
+    };
+  }
+}
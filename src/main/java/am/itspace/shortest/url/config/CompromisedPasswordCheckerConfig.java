@@ -1,16 +1,43 @@
 package am.itspace.shortest.url.config;
 
+import am.itspace.shortest.url.security.LocalCompromisedPasswordChecker;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.password.CompromisedPasswordChecker;
 import org.springframework.security.web.authentication.password.HaveIBeenPwnedRestApiPasswordChecker;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+@Slf4j
 @Configuration
 public class CompromisedPasswordCheckerConfig {
 
   @Bean
-  public CompromisedPasswordChecker compromisedPasswordChecker() {
-    return new HaveIBeenPwnedRestApiPasswordChecker();
+  public CompromisedPasswordChecker compromisedPasswordChecker(@Value("${password-check.mode}") String mode,
+                                                               @Value("${password-check.index-path}") String indexPath) {
+    return switch (mode.toLowerCase()) {
+      case "local" -> localChecker(indexPath);
+      case "remote" -> new HaveIBeenPwnedRestApiPasswordChecker();
+      case "fallback" -> {
+        if (!indexPath.isBlank() && Files.isReadable(Path.of(indexPath))) {
+          yield localChecker(indexPath);
+        }
+        log.warn("Compromised password index '{}' is not readable, checking passwords against the remote API", indexPath);
+        yield new HaveIBeenPwnedRestApiPasswordChecker();
+      }
+      default -> throw new IllegalArgumentException("Unknown password-check.mode: " + mode);
+    };
   }
-}
 
+  private static LocalCompromisedPasswordChecker localChecker(String indexPath) {
+    if (indexPath.isBlank()) {
+      throw new IllegalArgumentException("password-check.index-path is required in local mode");
+    }
+    LocalCompromisedPasswordChecker checker = new LocalCompromisedPasswordChecker(Path.of(indexPath));
+    log.info("Loaded {} compromised password hashes from {}", checker.size(), indexPath);
+    return checker;
+  }
+}
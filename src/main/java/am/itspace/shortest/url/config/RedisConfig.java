@@ -1,10 +1,18 @@
 package am.itspace.shortest.url.config;
 
+import am.itspace.shortest.url.cache.ShortUrlBinaryRedisSerializer;
+import am.itspace.shortest.url.cache.ShortUrlNearCache;
+import am.itspace.shortest.url.security.TokenDenylist;
+import am.itspace.shortest.url.security.UserDetailsServiceImpl;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 
@@ -12,19 +20,42 @@ import org.springframework.transaction.annotation.EnableTransactionManagement;
 @EnableTransactionManagement
 public class RedisConfig {
 
+  private static final String BINARY_CODEC = "binary";
+
   @Bean
-  public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory connectionFactory) {
+  public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory connectionFactory,
+                                                     @Value("${cache.redis.value-codec}") String valueCodec) {
     RedisTemplate<String, Object> template = new RedisTemplate<>();
     template.setConnectionFactory(connectionFactory);
 
     template.setKeySerializer(new StringRedisSerializer());
     template.setHashKeySerializer(new StringRedisSerializer());
 
-    GenericJackson2JsonRedisSerializer jsonSerializer = new GenericJackson2JsonRedisSerializer();
-    template.setValueSerializer(jsonSerializer);
-    template.setHashValueSerializer(jsonSerializer);
+    RedisSerializer<Object> valueSerializer = valueSerializer(valueCodec);
+    template.setValueSerializer(valueSerializer);
+    template.setHashValueSerializer(valueSerializer);
 
     template.afterPropertiesSet();
     return template;
   }
+
+  @Bean
+  public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                     ShortUrlNearCache shortUrlNearCache,
+                                                                     TokenDenylist tokenDenylist,
+                                                                     UserDetailsServiceImpl userDetailsService) {
+    RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+    container.setConnectionFactory(connectionFactory);
+    container.addMessageListener(shortUrlNearCache, new ChannelTopic(ShortUrlNearCache.INVALIDATION_CHANNEL));
+    container.addMessageListener(tokenDenylist, new ChannelTopic(TokenDenylist.REVOCATION_CHANNEL));
+    container.addMessageListener(userDetailsService, new ChannelTopic(UserDetailsServiceImpl.INVALIDATION_CHANNEL));
+    return container;
+  }
+
+  public static RedisSerializer<Object> valueSerializer(String valueCodec) {
+    GenericJackson2JsonRedisSerializer jsonSerializer = new GenericJackson2JsonRedisSerializer();
+    return BINARY_CODEC.equalsIgnoreCase(valueCodec)
+        ? new ShortUrlBinaryRedisSerializer(jsonSerializer)
+        : jsonSerializer;
+  }
 }
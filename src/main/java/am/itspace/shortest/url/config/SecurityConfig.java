@@ -1,8 +1,13 @@
 package am.itspace.shortest.url.config;
 
 import am.itspace.shortest.url.filter.JwtAuthenticationTokenFilter;
+import am.itspace.shortest.url.model.enums.Role;
+import am.itspace.shortest.url.security.BoundedPasswordEncoder;
 import am.itspace.shortest.url.security.JwtAuthenticationEntryPoint;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.boot.actuate.health.HealthEndpoint;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationProvider;
@@ -14,11 +19,15 @@ import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.security.web.authentication.logout.LogoutHandler;
 
+import java.time.Duration;
+import java.util.Map;
+
 @Configuration
 @RequiredArgsConstructor
 public class SecurityConfig {
@@ -42,11 +51,17 @@ public class SecurityConfig {
         )
         .authorizeHttpRequests(auth -> auth
             .requestMatchers("/shorten").permitAll()
+            .requestMatchers("/shorten/bulk").permitAll()
+            .requestMatchers("/shorten/import").permitAll()
             .requestMatchers("/{shortKey}").permitAll()
             .requestMatchers("/status/{shortKey}").permitAll()
+            .requestMatchers("/status/{shortKey}/timeseries").permitAll()
             .requestMatchers("/user/register").permitAll()
             .requestMatchers("/user/login").permitAll()
             .requestMatchers("/user/refresh-token").permitAll()
+            // load balancers probe health without a token; every other endpoint exposes internals
+            .requestMatchers(EndpointRequest.to(HealthEndpoint.class)).permitAll()
+            .requestMatchers(EndpointRequest.toAnyEndpoint()).hasAuthority(Role.ADMIN.name())
         )
         .addFilterBefore(jwtAuthenticationTokenFilter, UsernamePasswordAuthenticationFilter.class)
         .rememberMe(remember -> remember.key("nfownfownf")
@@ -63,16 +78,23 @@ public class SecurityConfig {
 
 
   @Bean
-  public AuthenticationProvider authenticationProvider() {
+  public AuthenticationProvider authenticationProvider(PasswordEncoder passwordEncoder) {
     DaoAuthenticationProvider authenticationProvider = new DaoAuthenticationProvider();
     authenticationProvider.setUserDetailsService(userDetailsService);
-    authenticationProvider.setPasswordEncoder(passwordEncoder());
+    authenticationProvider.setPasswordEncoder(passwordEncoder);
     return authenticationProvider;
   }
 
   @Bean
-  public PasswordEncoder passwordEncoder() {
-    return new BCryptPasswordEncoder();
+  public PasswordEncoder passwordEncoder(@Value("${password-encoder.bcrypt-strength}") int bcryptStrength,
+                                         @Value("${password-encoder.pool-size}") int poolSize,
+                                         @Value("${password-encoder.queue-capacity}") int queueCapacity,
+                                         @Value("${password-encoder.timeout}") Duration timeout) {
+    BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(bcryptStrength);
+    DelegatingPasswordEncoder delegating = new DelegatingPasswordEncoder("bcrypt", Map.of("bcrypt", bcrypt));
+    // hashes stored before ids were prefixed are plain bcrypt; they match and are flagged for upgrade
+    delegating.setDefaultPasswordEncoderForMatches(bcrypt);
+    return new BoundedPasswordEncoder(delegating, poolSize, queueCapacity, timeout);
   }
 
 }
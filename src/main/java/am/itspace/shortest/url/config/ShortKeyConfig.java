@@ -0,0 +1,52 @@
+package am.itspace.shortest.url.config;
+
+import am.itspace.shortest.url.keygen.Base62KeyCodec;
+import am.itspace.shortest.url.keygen.IdAllocator;
+import am.itspace.shortest.url.keygen.KeySequenceGuard;
+import am.itspace.shortest.url.keygen.LeasedIdAllocator;
+import am.itspace.shortest.url.keygen.RandomShortKeyGenerator;
+import am.itspace.shortest.url.keygen.RedisIdRangeLeaser;
+import am.itspace.shortest.url.keygen.SequenceShortKeyGenerator;
+import am.itspace.shortest.url.keygen.ShortKeyGenerator;
+import am.itspace.shortest.url.repository.ShortUrlJdbcRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+@Configuration
+public class ShortKeyConfig {
+
+  private static final String SEQUENCE_MODE = "sequence";
+
+  @Bean
+  public Base62KeyCodec base62KeyCodec(@Value("${short-key.min-length}") int minLength,
+                                       @Value("${short-key.secret}") String secret) {
+    return new Base62KeyCodec(minLength, secret);
+  }
+
+  @Bean
+  public LeasedIdAllocator idAllocator(RedisTemplate<String, Object> redisTemplate,
+                                       @Value("${short-key.lease.block-size}") int blockSize,
+                                       @Value("${short-key.lease.refill-threshold}") int refillThreshold) {
+    return new LeasedIdAllocator(new RedisIdRangeLeaser(redisTemplate), blockSize, refillThreshold);
+  }
+
+  // the guard reads short_url_tbl, so ddl-auto must have created it first
+  @Bean
+  @DependsOn("entityManagerFactory")
+  public ShortKeyGenerator shortKeyGenerator(@Value("${short-key.mode}") String mode,
+                                             IdAllocator idAllocator,
+                                             Base62KeyCodec base62KeyCodec,
+                                             StringRedisTemplate stringRedisTemplate,
+                                             ShortUrlJdbcRepository shortUrlJdbcRepository) {
+    if (SEQUENCE_MODE.equalsIgnoreCase(mode)) {
+      // refuses to start rather than mint keys from a sequence that fell behind the table
+      new KeySequenceGuard(stringRedisTemplate, shortUrlJdbcRepository, base62KeyCodec).ensureAhead();
+      return new SequenceShortKeyGenerator(idAllocator, base62KeyCodec);
+    }
+    return new RandomShortKeyGenerator();
+  }
+}
@@ -1,29 +1,49 @@
 package am.itspace.shortest.url.controller;
 
+import am.itspace.shortest.url.dto.request.BulkShortUrlRequest;
 import am.itspace.shortest.url.dto.request.ShortUrlRequest;
+import am.itspace.shortest.url.dto.response.ClickTimeseriesResponse;
 import am.itspace.shortest.url.dto.response.ShortUrlResponse;
 import am.itspace.shortest.url.dto.response.ShortUrlStatusAndCountResponse;
+import am.itspace.shortest.url.model.enums.ImportFormat;
+import am.itspace.shortest.url.model.enums.RollupGranularity;
 import am.itspace.shortest.url.security.CurrentUser;
+import am.itspace.shortest.url.service.ClickStatsService;
+import am.itspace.shortest.url.service.ShortUrlImportService;
 import am.itspace.shortest.url.service.ShortUrlService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 
+import static org.springframework.http.MediaType.APPLICATION_NDJSON_VALUE;
+
 @RestController
 @RequiredArgsConstructor
 public class ShortUrlController {
 
   private static final Logger log = LoggerFactory.getLogger(ShortUrlController.class);
   private final ShortUrlService shortUrlService;
+  private final ShortUrlImportService shortUrlImportService;
+  private final ClickStatsService clickStatsService;
 
   @PostMapping("/shorten")
   public ResponseEntity<ShortUrlResponse> createShortUrl(@RequestBody @Valid ShortUrlRequest originalUrl, @AuthenticationPrincipal CurrentUser currentUser) {
@@ -31,14 +51,35 @@ public class ShortUrlController {
     return ResponseEntity.status(HttpStatus.CREATED).body(response);
   }
 
+  @PostMapping("/shorten/bulk")
+  public ResponseEntity<List<ShortUrlResponse>> createShortUrls(@RequestBody @Valid BulkShortUrlRequest request, @AuthenticationPrincipal CurrentUser currentUser) {
+    List<ShortUrlResponse> response = shortUrlService.createShortUrls(request, currentUser);
+    return ResponseEntity.status(HttpStatus.CREATED).body(response);
+  }
+
+  @PostMapping(value = "/shorten/import", consumes = {APPLICATION_NDJSON_VALUE, "text/csv"}, produces = APPLICATION_NDJSON_VALUE)
+  public void importUrls(HttpServletRequest request, HttpServletResponse response, @AuthenticationPrincipal CurrentUser currentUser) throws IOException {
+    ImportFormat format = MediaType.parseMediaType(request.getContentType()).isCompatibleWith(MediaType.APPLICATION_NDJSON)
+        ? ImportFormat.NDJSON
+        : ImportFormat.CSV;
+
+    response.setContentType(APPLICATION_NDJSON_VALUE);
+    response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+    Reader input = new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8);
+    shortUrlImportService.importUrls(input, format, currentUser, response.getWriter());
+  }
+
   @GetMapping("/{shortKey}")
-  public ResponseEntity<Void> redirect(@PathVariable String shortKey) {
+  public ResponseEntity<Void> redirect(@PathVariable String shortKey,
+                                       @RequestHeader(value = HttpHeaders.REFERER, required = false) String referrer,
+                                       @RequestHeader(value = HttpHeaders.USER_AGENT, required = false) String userAgent,
+                                       HttpServletRequest request) {
     String originalUrl = shortUrlService.getOriginalUrl(shortKey);
 
     if (originalUrl != null) {
       log.info("Redirecting to {}", originalUrl);
 
-      shortUrlService.updateClickCount(shortKey);
+      shortUrlService.updateClickCount(shortKey, referrer, userAgent, request.getRemoteAddr());
       HttpHeaders headers = new HttpHeaders();
       headers.setLocation(URI.create(originalUrl));
       return new ResponseEntity<>(headers, HttpStatus.FOUND);
@@ -48,10 +89,22 @@ public class ShortUrlController {
   }
 
   @GetMapping("/status/{shortKey}")
-  public ResponseEntity<ShortUrlStatusAndCountResponse> getStatusAndClickCount(@PathVariable String shortKey, @AuthenticationPrincipal CurrentUser currentUser) {
-    Optional<ShortUrlStatusAndCountResponse> statusAndCountResponse = shortUrlService.getStatusAndClickCount(shortKey);
+  public ResponseEntity<ShortUrlStatusAndCountResponse> getStatusAndClickCount(@PathVariable String shortKey,
+                                                                               @RequestParam(defaultValue = "30") int uniqueVisitorDays,
+                                                                               @AuthenticationPrincipal CurrentUser currentUser) {
+    Optional<ShortUrlStatusAndCountResponse> statusAndCountResponse = shortUrlService.getStatusAndClickCount(shortKey, uniqueVisitorDays);
     return statusAndCountResponse.map(ResponseEntity::ok)
         .orElseGet(() -> ResponseEntity.notFound().build());
   }
 
+  @GetMapping("/status/{shortKey}/timeseries")
+  public ResponseEntity<ClickTimeseriesResponse> getClickTimeseries(@PathVariable String shortKey,
+                                                                    @RequestParam(defaultValue = "HOUR") RollupGranularity granularity,
+                                                                    @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+                                                                    @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to) {
+    return clickStatsService.getTimeseries(shortKey, granularity, from, to)
+        .map(ResponseEntity::ok)
+        .orElseGet(() -> ResponseEntity.notFound().build());
+  }
+
 }
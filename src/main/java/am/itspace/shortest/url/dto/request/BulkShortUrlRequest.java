@@ -0,0 +1,22 @@
+package am.itspace.shortest.url.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.*;
+
+import java.util.List;
+
+@Setter
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkShortUrlRequest {
+
+  public static final int MAX_URLS = 10_000;
+
+  @NotEmpty(message = "At least one URL is required")
+  @Size(max = MAX_URLS, message = "At most " + MAX_URLS + " URLs can be shortened per request")
+  private List<@Valid ShortUrlRequest> urls;
+}
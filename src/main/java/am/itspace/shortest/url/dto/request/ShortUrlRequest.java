@@ -1,11 +1,17 @@
 package am.itspace.shortest.url.dto.request;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.Future;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.Size;
 import lombok.*;
 import org.hibernate.validator.constraints.URL;
 
+import java.time.Instant;
+
 @Setter
 @Getter
 @Builder
@@ -22,4 +28,19 @@ public class ShortUrlRequest {
   )
 
   private String originalUrl;
+
+  @Future(message = "Activation time must be in the future")
+  private Instant activatesAt;
+
+  @Future(message = "Expiry time must be in the future")
+  private Instant expiresAt;
+
+  @Positive(message = "Max clicks must be positive")
+  private Long maxClicks;
+
+  @JsonIgnore
+  @AssertTrue(message = "Expiry time must be after the activation time")
+  public boolean isExpiryAfterActivation() {
+    return activatesAt == null || expiresAt == null || expiresAt.isAfter(activatesAt);
+  }
 }
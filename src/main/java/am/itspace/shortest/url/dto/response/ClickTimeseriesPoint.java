@@ -0,0 +1,15 @@
+package am.itspace.shortest.url.dto.response;
+
+import lombok.*;
+
+import java.time.Instant;
+
+@Setter
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClickTimeseriesPoint {
+  private Instant bucketStart;
+  private Long clicks;
+}
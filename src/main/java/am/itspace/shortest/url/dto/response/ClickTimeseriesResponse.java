@@ -0,0 +1,20 @@
+package am.itspace.shortest.url.dto.response;
+
+import am.itspace.shortest.url.model.enums.RollupGranularity;
+import lombok.*;
+
+import java.time.Instant;
+import java.util.List;
+
+@Setter
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClickTimeseriesResponse {
+  private String shortKey;
+  private RollupGranularity granularity;
+  private Instant from;
+  private Instant to;
+  private List<ClickTimeseriesPoint> points;
+}
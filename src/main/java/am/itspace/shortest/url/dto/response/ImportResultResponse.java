@@ -0,0 +1,17 @@
+package am.itspace.shortest.url.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.*;
+
+@Setter
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ImportResultResponse {
+  private long line;
+  private String originalUrl;
+  private String shortKey;
+  private String error;
+}
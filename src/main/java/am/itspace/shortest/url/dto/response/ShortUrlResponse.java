@@ -1,8 +1,11 @@
 package am.itspace.shortest.url.dto.response;
 
 import am.itspace.shortest.url.model.User;
+import am.itspace.shortest.url.model.enums.UrlStatus;
 import lombok.*;
 
+import java.time.Instant;
+
 @Setter
 @Getter
 @Builder
@@ -13,7 +16,11 @@ public class ShortUrlResponse {
   private Long id;
   private String shortKey;
   private String originalUrl;
-  private Integer clickCount;
+  private Long clickCount;
   private Boolean isActive;
+  private UrlStatus status;
+  private Instant activatesAt;
+  private Instant expiresAt;
+  private Long maxClicks;
   private User user;
 }
@@ -1,7 +1,10 @@
 package am.itspace.shortest.url.dto.response;
 
+import am.itspace.shortest.url.model.enums.UrlStatus;
 import lombok.*;
 
+import java.time.Instant;
+
 @Setter
 @Getter
 @Builder
@@ -10,5 +13,11 @@ import lombok.*;
 public class ShortUrlStatusAndCountResponse {
   private String shortKey;
   private Boolean isActive;
-  private Integer clickCount;
+  private UrlStatus status;
+  private Instant activatesAt;
+  private Instant expiresAt;
+  private Long maxClicks;
+  private Long clickCount;
+  private Long uniqueVisitors;
+  private Integer uniqueVisitorDays;
 }
@@ -1,6 +1,7 @@
 package am.itspace.shortest.url.exception;
 
 import am.itspace.shortest.url.dto.error.ErrorResponse;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ProblemDetail;
 import org.springframework.http.ResponseEntity;
@@ -33,6 +34,13 @@ public class GlobalExceptionHandler {
     return ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, exception.getMessage());
   }
 
+  @ExceptionHandler(PasswordHashingUnavailableException.class)
+  public ResponseEntity<ProblemDetail> handlePasswordHashingUnavailableException(PasswordHashingUnavailableException exception) {
+    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+        .header(HttpHeaders.RETRY_AFTER, "1")
+        .body(ProblemDetail.forStatusAndDetail(HttpStatus.SERVICE_UNAVAILABLE, exception.getMessage()));
+  }
+
   @ExceptionHandler({
       UserNotFoundException.class,
       UserAlreadyExistsException.class,
@@ -0,0 +1,8 @@
+package am.itspace.shortest.url.exception;
+
+public class PasswordHashingUnavailableException extends RuntimeException {
+
+  public PasswordHashingUnavailableException(String message) {
+    super(message);
+  }
+}
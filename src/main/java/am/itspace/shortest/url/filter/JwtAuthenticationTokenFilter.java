@@ -1,7 +1,10 @@
 package am.itspace.shortest.url.filter;
 
 import am.itspace.shortest.url.repository.TokenRepository;
+import am.itspace.shortest.url.security.TokenDenylist;
 import am.itspace.shortest.url.util.jwt.JwtTokenUtil;
+import am.itspace.shortest.url.util.jwt.JwtTokenVerifier;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -21,33 +24,29 @@ import java.io.IOException;
 @RequiredArgsConstructor
 public class JwtAuthenticationTokenFilter extends OncePerRequestFilter {
 
-  private final JwtTokenUtil jwtTokenUtil;
+  private final JwtTokenVerifier jwtTokenVerifier;
   private final UserDetailsService userDetailsService;
   private final TokenRepository tokenRepository;
+  private final TokenDenylist tokenDenylist;
 
   @Override
   protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
     String requestHeader = request.getHeader("Authorization");
 
-    String username = null;
     String authToken = null;
+    Claims claims = null;
     if (requestHeader != null && requestHeader.startsWith("Bearer ")) {
       authToken = requestHeader.substring(7);
-      try {
-        username = jwtTokenUtil.getUsernameFromToken(authToken);
-      } catch (Exception e) {
-        e.printStackTrace();
-      }
+      claims = jwtTokenVerifier.verify(authToken);
     }
-    if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-
-      UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
+    if (claims != null && claims.getSubject() != null && SecurityContextHolder.getContext().getAuthentication() == null) {
 
-      boolean isTokenValid = this.tokenRepository.findByAccessToken(authToken)
-          .map(token -> !token.isExpired() && !token.isRevoked())
-          .orElse(false);
+      boolean isTokenValid = claims.getId() != null
+          ? isAccessTokenValid(claims)
+          : isLegacyTokenValid(authToken);
 
-      if (jwtTokenUtil.validateToken(authToken, userDetails.getUsername()) && isTokenValid) {
+      if (isTokenValid) {
+        UserDetails userDetails = this.userDetailsService.loadUserByUsername(claims.getSubject());
         UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
         authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
         SecurityContextHolder.getContext().setAuthentication(authentication);
@@ -56,4 +55,22 @@ public class JwtAuthenticationTokenFilter extends OncePerRequestFilter {
     filterChain.doFilter(request, response);
   }
 
+  private boolean isAccessTokenValid(Claims claims) {
+    String tokenUse = JwtTokenUtil.getTokenUse(claims);
+    if (tokenUse == null) {
+      // issued before token_use was added; token_tbl.jti only ever holds access token ids
+      return this.tokenRepository.findByJti(claims.getId())
+          .map(token -> !token.isRevoked())
+          .orElse(false);
+    }
+    return JwtTokenUtil.ACCESS_TOKEN.equals(tokenUse) && !tokenDenylist.isRevoked(claims.getId());
+  }
+
+  // tokens issued before jti was added can only be checked against the token table
+  private boolean isLegacyTokenValid(String authToken) {
+    return this.tokenRepository.findByAccessToken(authToken)
+        .map(token -> !token.isExpired() && !token.isRevoked())
+        .orElse(false);
+  }
+
 }
@@ -0,0 +1,164 @@
+package am.itspace.shortest.url.keygen;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Bijective mapping between non-negative ids and base62 keys.
+ * <p>
+ * Ids are laid out in length tiers: the first 62^minLength ids become keys of exactly
+ * {@code minLength} characters, the next 62^(minLength + 1) ids become keys one character longer,
+ * and so on up to {@value #MAX_LENGTH} characters. Inside a tier the offset is optionally run
+ * through a keyed Feistel permutation (cycle-walked back into the tier) so consecutive ids do not
+ * produce consecutive keys. Without a secret the permutation is the identity.
+ */
+public class Base62KeyCodec {
+
+  public static final int MAX_LENGTH = 10;
+
+  private static final char[] ALPHABET = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz".toCharArray();
+  private static final int BASE = ALPHABET.length;
+  private static final int ROUNDS = 4;
+
+  private final int minLength;
+  private final long[] tierStart = new long[MAX_LENGTH + 1];
+  private final long[] tierSize = new long[MAX_LENGTH + 1];
+  private final int[] tierHalfBits = new int[MAX_LENGTH + 1];
+  private final long[] roundKeys;
+  private final long maxId;
+
+  public Base62KeyCodec(int minLength, String secret) {
+    if (minLength < 1 || minLength > MAX_LENGTH) {
+      throw new IllegalArgumentException("minLength must be between 1 and " + MAX_LENGTH);
+    }
+    this.minLength = minLength;
+
+    long start = 0;
+    for (int length = minLength; length <= MAX_LENGTH; length++) {
+      long size = pow62(length);
+      tierStart[length] = start;
+      tierSize[length] = size;
+      int bits = 64 - Long.numberOfLeadingZeros(size - 1);
+      tierHalfBits[length] = (bits + 1) / 2;
+      start += size;
+    }
+    this.maxId = start - 1;
+    this.roundKeys = secret == null || secret.isBlank() ? null : deriveRoundKeys(secret);
+  }
+
+  public int minLength() {
+    return minLength;
+  }
+
+  public String encode(long id) {
+    if (id < 0 || id > maxId) {
+      throw new IllegalArgumentException("Id " + id + " is outside the encodable range [0, " + maxId + "]");
+    }
+    int length = minLength;
+    while (id - tierStart[length] >= tierSize[length]) {
+      length++;
+    }
+    long value = permute(id - tierStart[length], length);
+
+    char[] key = new char[length];
+    for (int i = length - 1; i >= 0; i--) {
+      key[i] = ALPHABET[(int) (value % BASE)];
+      value /= BASE;
+    }
+    return new String(key);
+  }
+
+  public long decode(String key) {
+    int length = key.length();
+    if (length < minLength || length > MAX_LENGTH) {
+      throw new IllegalArgumentException("Key length " + length + " is outside [" + minLength + ", " + MAX_LENGTH + "]");
+    }
+    long value = 0;
+    for (int i = 0; i < length; i++) {
+      value = value * BASE + digit(key.charAt(i));
+    }
+    return tierStart[length] + unpermute(value, length);
+  }
+
+  private long permute(long offset, int length) {
+    if (roundKeys == null) return offset;
+    long value = offset;
+    do {
+      value = feistel(value, length);
+    } while (value >= tierSize[length]);
+    return value;
+  }
+
+  private long unpermute(long value, int length) {
+    if (roundKeys == null) return value;
+    long offset = value;
+    do {
+      offset = inverseFeistel(offset, length);
+    } while (offset >= tierSize[length]);
+    return offset;
+  }
+
+  private long feistel(long value, int length) {
+    int halfBits = tierHalfBits[length];
+    long mask = (1L << halfBits) - 1;
+    long left = value >>> halfBits;
+    long right = value & mask;
+    for (int round = 0; round < ROUNDS; round++) {
+      long next = left ^ (roundFunction(right, round, length) & mask);
+      left = right;
+      right = next;
+    }
+    return (left << halfBits) | right;
+  }
+
+  private long inverseFeistel(long value, int length) {
+    int halfBits = tierHalfBits[length];
+    long mask = (1L << halfBits) - 1;
+    long left = value >>> halfBits;
+    long right = value & mask;
+    for (int round = ROUNDS - 1; round >= 0; round--) {
+      long previous = right ^ (roundFunction(left, round, length) & mask);
+      right = left;
+      left = previous;
+    }
+    return (left << halfBits) | right;
+  }
+
+  private long roundFunction(long half, int round, int length) {
+    long z = half ^ roundKeys[round] ^ ((long) length << 56);
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
+  }
+
+  private static long[] deriveRoundKeys(String secret) {
+    try {
+      byte[] digest = MessageDigest.getInstance("SHA-256").digest(secret.getBytes(StandardCharsets.UTF_8));
+      ByteBuffer buffer = ByteBuffer.wrap(digest);
+      long[] keys = new long[ROUNDS];
+      for (int i = 0; i < ROUNDS; i++) {
+        keys[i] = buffer.getLong();
+      }
+      return keys;
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
+  }
+
+  private static long pow62(int exponent) {
+    long result = 1;
+    for (int i = 0; i < exponent; i++) {
+      result *= BASE;
+    }
+    return result;
+  }
+
+  private static int digit(char c) {
+    if (c >= '0' && c <= '9') return c - '0';
+    if (c >= 'A' && c <= 'Z') return c - 'A' + 10;
+    if (c >= 'a' && c <= 'z') return c - 'a' + 36;
+    throw new IllegalArgumentException("Invalid base62 character '" + c + "'");
+  }
+}
@@ -0,0 +1,6 @@
+package am.itspace.shortest.url.keygen;
+
+public interface IdAllocator {
+
+  long nextId();
+}
@@ -0,0 +1,9 @@
+package am.itspace.shortest.url.keygen;
+
+public interface IdRangeLeaser {
+
+  /**
+   * Atomically reserves {@code size} consecutive ids for the caller and returns the first of them.
+   */
+  long lease(int size);
+}
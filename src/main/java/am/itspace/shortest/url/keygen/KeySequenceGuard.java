@@ -0,0 +1,85 @@
+package am.itspace.shortest.url.keygen;
+
+import am.itspace.shortest.url.repository.ShortUrlJdbcRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.List;
+
+/**
+ * Keeps the Redis key sequence ahead of every sequence key already stored, so a flushed or
+ * restarted Redis without persistence does not hand out ids again. Checked once at startup: the
+ * newest rows are compared with the counter, and only if the counter is missing or behind them is
+ * the whole table scanned and the counter raised past the highest stored id.
+ * <p>
+ * The unique index on short_key is what finally rules out duplicates; this only keeps inserts from
+ * running into it. Blocks other nodes leased before a flush can still overlap, and those inserts
+ * fail and retry with the next key rather than reuse one. Without the index nothing would stop
+ * such a duplicate, so startup is refused when it is missing.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class KeySequenceGuard {
+
+  private static final int RECENT_ROWS = 1_000;
+
+  private static final RedisScript<Long> RAISE_TO = new DefaultRedisScript<>("""
+      local current = tonumber(redis.call('GET', KEYS[1]) or '0')
+      local floor = tonumber(ARGV[1])
+      if current < floor then
+        redis.call('SET', KEYS[1], ARGV[1])
+        return floor
+      end
+      return current
+      """, Long.class);
+
+  private final StringRedisTemplate stringRedisTemplate;
+  private final ShortUrlJdbcRepository shortUrlJdbcRepository;
+  private final Base62KeyCodec keyCodec;
+
+  public void ensureAhead() {
+    if (!shortUrlJdbcRepository.hasUniqueShortKeyIndex()) {
+      throw new IllegalStateException("Sequence short keys need the unique index ux_short_url_short_key; "
+          + "run the db/migration scripts or set short-key.mode to random");
+    }
+
+    String value = stringRedisTemplate.opsForValue().get(RedisIdRangeLeaser.KEY_SEQUENCE);
+    long sequence = value == null ? 0 : Long.parseLong(value);
+
+    int minLength = keyCodec.minLength();
+    long recent = highestId(shortUrlJdbcRepository.findRecentShortKeys(minLength, RECENT_ROWS));
+    if (value != null && recent <= sequence) {
+      return;
+    }
+
+    long[] highest = {recent};
+    shortUrlJdbcRepository.forEachShortKey(minLength, shortKey -> highest[0] = Math.max(highest[0], decode(shortKey)));
+    if (highest[0] <= sequence) {
+      return;
+    }
+
+    Long raised = stringRedisTemplate.execute(RAISE_TO, List.of(RedisIdRangeLeaser.KEY_SEQUENCE), String.valueOf(highest[0]));
+    log.warn("Key sequence {} was at {} but stored keys reach id {}, raised it to {}",
+        RedisIdRangeLeaser.KEY_SEQUENCE, value, highest[0], raised);
+  }
+
+  private long highestId(List<String> shortKeys) {
+    long highest = 0;
+    for (String shortKey : shortKeys) {
+      highest = Math.max(highest, decode(shortKey));
+    }
+    return highest;
+  }
+
+  // keys that do not decode were not minted from the sequence
+  private long decode(String shortKey) {
+    try {
+      return keyCodec.decode(shortKey);
+    } catch (IllegalArgumentException e) {
+      return 0;
+    }
+  }
+}
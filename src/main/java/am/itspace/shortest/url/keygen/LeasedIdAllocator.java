@@ -0,0 +1,135 @@
+package am.itspace.shortest.url.keygen;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hands out ids from a block leased in advance, so minting an id is a single atomic increment.
+ * <p>
+ * When the current block drops to {@code refillThreshold} remaining ids, a background thread
+ * leases the next block into a standby slot. The caller only leases synchronously if the standby
+ * block is still missing when the current one runs out, for example on the very first call or
+ * after the refill failed. Ids left in a block at shutdown are never handed out, which leaves
+ * gaps in the sequence but never duplicates.
+ */
+@Slf4j
+public class LeasedIdAllocator implements IdAllocator, AutoCloseable {
+
+  private final IdRangeLeaser leaser;
+  private final int blockSize;
+  private final long refillThreshold;
+
+  private final ReentrantLock swapLock = new ReentrantLock();
+  private final AtomicBoolean refillInFlight = new AtomicBoolean();
+  private final ExecutorService refillExecutor = Executors.newSingleThreadExecutor(runnable -> {
+    Thread thread = new Thread(runnable, "id-block-refill");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  private volatile Block current;
+  private volatile Block standby;
+
+  public LeasedIdAllocator(IdRangeLeaser leaser, int blockSize, int refillThreshold) {
+    if (blockSize <= 0) throw new IllegalArgumentException("blockSize must be positive");
+    if (refillThreshold < 0 || refillThreshold >= blockSize) {
+      throw new IllegalArgumentException("refillThreshold must be in [0, blockSize)");
+    }
+    this.leaser = leaser;
+    this.blockSize = blockSize;
+    this.refillThreshold = refillThreshold;
+  }
+
+  @Override
+  public long nextId() {
+    while (true) {
+      Block block = current;
+      if (block != null) {
+        long id = block.next.getAndIncrement();
+        if (id < block.end) {
+          if (block.end - id == refillThreshold) {
+            scheduleRefill();
+          }
+          return id;
+        }
+      }
+      advance(block);
+    }
+  }
+
+  @Override
+  public void close() {
+    refillExecutor.shutdownNow();
+  }
+
+  private void advance(Block exhausted) {
+    swapLock.lock();
+    try {
+      if (current != exhausted) {
+        return;
+      }
+      Block next = standby;
+      if (next != null) {
+        standby = null;
+        current = next;
+      } else {
+        current = lease();
+      }
+    } finally {
+      swapLock.unlock();
+    }
+    scheduleRefill();
+  }
+
+  private void scheduleRefill() {
+    if (standby != null || !refillInFlight.compareAndSet(false, true)) {
+      return;
+    }
+    try {
+      refillExecutor.execute(this::refill);
+    } catch (RuntimeException e) {
+      refillInFlight.set(false);
+      log.warn("Could not schedule id block refill", e);
+    }
+  }
+
+  private void refill() {
+    try {
+      Block block = lease();
+      swapLock.lock();
+      try {
+        if (standby == null) {
+          standby = block;
+        }
+      } finally {
+        swapLock.unlock();
+      }
+    } catch (RuntimeException e) {
+      log.warn("Failed to lease the next id block, will retry when the current block runs out", e);
+    } finally {
+      refillInFlight.set(false);
+    }
+  }
+
+  private Block lease() {
+    long start = leaser.lease(blockSize);
+    log.debug("Leased id block [{}, {})", start, start + blockSize);
+    return new Block(start, start + blockSize);
+  }
+
+  private static final class Block {
+
+    private final AtomicLong next;
+    private final long end;
+
+    Block(long start, long end) {
+      this.next = new AtomicLong(start);
+      this.end = end;
+    }
+  }
+}
@@ -0,0 +1,11 @@
+package am.itspace.shortest.url.keygen;
+
+import am.itspace.shortest.url.util.ShortUrlUtil;
+
+public class RandomShortKeyGenerator implements ShortKeyGenerator {
+
+  @Override
+  public String nextKey() {
+    return ShortUrlUtil.generateKey.get();
+  }
+}
@@ -0,0 +1,21 @@
+package am.itspace.shortest.url.keygen;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.redis.core.RedisTemplate;
+
+@RequiredArgsConstructor
+public class RedisIdRangeLeaser implements IdRangeLeaser {
+
+  public static final String KEY_SEQUENCE = "short_url:key_seq";
+
+  private final RedisTemplate<String, Object> redisTemplate;
+
+  @Override
+  public long lease(int size) {
+    Long end = redisTemplate.opsForValue().increment(KEY_SEQUENCE, size);
+    if (end == null) {
+      throw new IllegalStateException("Redis returned no value for " + KEY_SEQUENCE);
+    }
+    return end - size + 1;
+  }
+}
@@ -0,0 +1,20 @@
+package am.itspace.shortest.url.keygen;
+
+import lombok.RequiredArgsConstructor;
+
+@RequiredArgsConstructor
+public class SequenceShortKeyGenerator implements ShortKeyGenerator {
+
+  private final IdAllocator idAllocator;
+  private final Base62KeyCodec keyCodec;
+
+  @Override
+  public String nextKey() {
+    return keyCodec.encode(idAllocator.nextId());
+  }
+
+  @Override
+  public boolean isCollisionFree() {
+    return true;
+  }
+}
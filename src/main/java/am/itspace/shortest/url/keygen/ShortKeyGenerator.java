@@ -0,0 +1,14 @@
+package am.itspace.shortest.url.keygen;
+
+public interface ShortKeyGenerator {
+
+  String nextKey();
+
+  /**
+   * Whether generated keys never repeat while the id sequence does not, so callers can skip the
+   * uniqueness probe and leave the unique index on short_key as the backstop.
+   */
+  default boolean isCollisionFree() {
+    return false;
+  }
+}
@@ -0,0 +1,8 @@
+package am.itspace.shortest.url.lifecycle;
+
+/**
+ * Time-driven state changes the lifecycle engine schedules on its timing wheel.
+ */
+public enum LifecycleTransition {
+  ACTIVATE, EXPIRE
+}
@@ -0,0 +1,219 @@
+package am.itspace.shortest.url.lifecycle;
+
+import am.itspace.shortest.url.cache.ShortUrlNearCache;
+import am.itspace.shortest.url.model.ShortUrl;
+import am.itspace.shortest.url.repository.ShortUrlJdbcRepository;
+import am.itspace.shortest.url.repository.ShortUrlJdbcRepository.Deadline;
+import am.itspace.shortest.url.scheduler.SchedulerCoordinator;
+import am.itspace.shortest.url.util.RedisKeys;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * Persists link state changes when they come due. Activations and expiries within the next
+ * {@code horizon} are loaded from the expires_at and activates_at indexes onto an in-memory timing
+ * wheel; each tick applies the due ones in batched UPDATEs and rewrites the cache entries of the
+ * rows that changed. Max-click exhaustion is applied by the click count sync instead.
+ * <p>
+ * Redirects never wait for this: cached entries carry the timestamps and limits and are checked
+ * with {@link ShortUrl#isRedirectable}. Every node loads and turns its own wheel so a new leader can
+ * take over at once, but only the scheduler leader applies what comes due. Each load re-reads from
+ * where the previous one started, so links created on other nodes and transitions lost in a leader
+ * change are picked up again while still pending.
+ */
+@Slf4j
+@Component
+public class LinkLifecycleEngine {
+
+  private static final int SLOT_BITS = 6;
+  private static final int LEVELS = 4;
+
+  private final ShortUrlJdbcRepository shortUrlJdbcRepository;
+  private final RedisTemplate<String, Object> redisTemplate;
+  private final ShortUrlNearCache shortUrlNearCache;
+  private final SchedulerCoordinator schedulerCoordinator;
+  private final Duration horizon;
+  private final int pageSize;
+  private final Duration retryDelay;
+  private final TimingWheel<Timer> wheel;
+  private final Set<Timer> scheduled = new HashSet<>();
+
+  private Instant lastLoadStart = Instant.EPOCH;
+
+  public LinkLifecycleEngine(ShortUrlJdbcRepository shortUrlJdbcRepository,
+                             RedisTemplate<String, Object> redisTemplate,
+                             ShortUrlNearCache shortUrlNearCache,
+                             SchedulerCoordinator schedulerCoordinator,
+                             @Value("${lifecycle.tick}") Duration tick,
+                             @Value("${lifecycle.horizon}") Duration horizon,
+                             @Value("${lifecycle.page-size}") int pageSize,
+                             @Value("${lifecycle.retry-delay}") Duration retryDelay) {
+    this.shortUrlJdbcRepository = shortUrlJdbcRepository;
+    this.redisTemplate = redisTemplate;
+    this.shortUrlNearCache = shortUrlNearCache;
+    this.schedulerCoordinator = schedulerCoordinator;
+    this.horizon = horizon;
+    this.pageSize = pageSize;
+    this.retryDelay = retryDelay;
+    this.wheel = new TimingWheel<>(tick.toMillis(), SLOT_BITS, LEVELS, System.currentTimeMillis());
+  }
+
+  /**
+   * Schedules the transitions of a newly created link that fall inside the horizon; later ones are
+   * picked up by {@link #loadUpcoming}.
+   */
+  public void track(ShortUrl shortUrl) {
+    Instant until = Instant.now().plus(horizon);
+    if (shortUrl.getActivatesAt() != null && shortUrl.getActivatesAt().isBefore(until)) {
+      schedule(new Timer(shortUrl.getShortKey(), LifecycleTransition.ACTIVATE), dueMillis(shortUrl.getActivatesAt()));
+    }
+    if (shortUrl.getExpiresAt() != null && shortUrl.getExpiresAt().isBefore(until)) {
+      schedule(new Timer(shortUrl.getShortKey(), LifecycleTransition.EXPIRE), dueMillis(shortUrl.getExpiresAt()));
+    }
+  }
+
+  /**
+   * Loads the pending transitions due before {@code now + horizon}, starting where the previous
+   * load started. The first run starts from the epoch, so transitions missed while no node was
+   * running fire on the next tick.
+   */
+  @Scheduled(fixedDelayString = "${lifecycle.load-interval}")
+  public void loadUpcoming() {
+    Instant start = Instant.now();
+    Instant from;
+    synchronized (this) {
+      from = lastLoadStart;
+    }
+    Instant until = start.plus(horizon);
+
+    int loaded = load(LifecycleTransition.EXPIRE, from, until) + load(LifecycleTransition.ACTIVATE, from, until);
+    synchronized (this) {
+      lastLoadStart = start;
+    }
+    if (loaded > 0) {
+      log.info("Scheduled {} link lifecycle transitions due before {}.", loaded, until);
+    }
+  }
+
+  @Scheduled(fixedRateString = "${lifecycle.tick}")
+  public void tick() {
+    List<Timer> due;
+    synchronized (this) {
+      due = wheel.advance(System.currentTimeMillis());
+      due.forEach(scheduled::remove);
+    }
+    if (due.isEmpty() || !schedulerCoordinator.isLeader()) return;
+
+    Map<LifecycleTransition, List<String>> byTransition = new EnumMap<>(LifecycleTransition.class);
+    for (Timer timer : due) {
+      byTransition.computeIfAbsent(timer.transition(), t -> new ArrayList<>()).add(timer.shortKey());
+    }
+    byTransition.forEach((transition, shortKeys) -> {
+      for (int from = 0; from < shortKeys.size(); from += pageSize) {
+        apply(transition, shortKeys.subList(from, Math.min(from + pageSize, shortKeys.size())));
+      }
+    });
+  }
+
+  /**
+   * Refreshes the cache for links the click count sync just marked EXHAUSTED.
+   */
+  public void onExhausted(List<ShortUrl> exhausted) {
+    if (exhausted.isEmpty()) return;
+    refresh(exhausted);
+    log.info("Marked {} links exhausted after reaching their click limit.", exhausted.size());
+  }
+
+  private int load(LifecycleTransition transition, Instant from, Instant until) {
+    int loaded = 0;
+    Instant after = from;
+    long afterId = 0;
+    List<Deadline> page;
+    do {
+      page = transition == LifecycleTransition.EXPIRE
+          ? shortUrlJdbcRepository.findExpiring(after, afterId, until, pageSize)
+          : shortUrlJdbcRepository.findActivating(after, afterId, until, pageSize);
+      for (Deadline deadline : page) {
+        if (schedule(new Timer(deadline.shortKey(), transition), dueMillis(deadline.at()))) {
+          loaded++;
+        }
+      }
+      if (!page.isEmpty()) {
+        Deadline last = page.getLast();
+        after = last.at();
+        afterId = last.id();
+      }
+    } while (page.size() == pageSize);
+    return loaded;
+  }
+
+  private void apply(LifecycleTransition transition, List<String> shortKeys) {
+    List<ShortUrl> changed;
+    try {
+      changed = transition == LifecycleTransition.EXPIRE
+          ? shortUrlJdbcRepository.expire(shortKeys)
+          : shortUrlJdbcRepository.activate(shortKeys);
+    } catch (RuntimeException e) {
+      log.warn("Failed to apply {} to {} links, retrying in {}", transition, shortKeys.size(), retryDelay, e);
+      long retryAt = System.currentTimeMillis() + retryDelay.toMillis();
+      shortKeys.forEach(shortKey -> schedule(new Timer(shortKey, transition), retryAt));
+      return;
+    }
+    refresh(changed);
+  }
+
+  /**
+   * Overwrites both Redis entries with the new state, so redirects keep answering from the cache,
+   * and drops the near cache copy on every node. Entries missed after a Redis failure are
+   * corrected by the cache reconciler, which compares the status.
+   */
+  private void refresh(List<ShortUrl> changed) {
+    if (changed.isEmpty()) return;
+
+    try {
+      redisTemplate.executePipelined(new SessionCallback<Object>() {
+        @Override
+        @SuppressWarnings("unchecked")
+        public Object execute(RedisOperations operations) {
+          for (ShortUrl row : changed) {
+            operations.opsForValue().set(RedisKeys.BY_KEY_PREFIX + row.getShortKey(), row, RedisKeys.CACHE_TTL);
+            operations.opsForValue().set(RedisKeys.byOriginal(row.getOriginalUrl()), row, RedisKeys.CACHE_TTL);
+          }
+          return null;
+        }
+      });
+    } catch (RuntimeException e) {
+      log.warn("Failed to refresh the cache for {} links after a lifecycle change", changed.size(), e);
+    }
+    changed.forEach(row -> shortUrlNearCache.invalidate(row.getShortKey()));
+  }
+
+  /**
+   * Adds the timer unless it is already pending; returns whether it was added.
+   */
+  private synchronized boolean schedule(Timer timer, long dueMillis) {
+    if (!scheduled.add(timer)) return false;
+    wheel.schedule(timer, dueMillis);
+    return true;
+  }
+
+  /**
+   * Rounds sub-millisecond deadlines up so a timer never fires before the row's own timestamp,
+   * which the UPDATE checks again.
+   */
+  private static long dueMillis(Instant at) {
+    return at.plusNanos(999_999).toEpochMilli();
+  }
+
+  private record Timer(String shortKey, LifecycleTransition transition) {
+  }
+}
@@ -0,0 +1,120 @@
+package am.itspace.shortest.url.lifecycle;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hierarchical timing wheel. Level 0 has one slot per tick; every higher level has one slot per
+ * full turn of the level below and is cascaded down one slot at a time as the wheel turns, so
+ * scheduling is O(1) and each timer is moved at most once per level before it fires. Deadlines past
+ * the top level wait in its slots and are re-placed until they come into range.
+ * <p>
+ * Not thread-safe on its own; callers serialize access.
+ */
+public class TimingWheel<T> {
+
+  private final long tickMillis;
+  private final int slotBits;
+  private final int slotMask;
+  private final ArrayDeque<Timer<T>>[][] levels;
+
+  private long nextTick;
+  private int size;
+
+  @SuppressWarnings("unchecked")
+  public TimingWheel(long tickMillis, int slotBits, int levelCount, long startMillis) {
+    if (tickMillis <= 0) {
+      throw new IllegalArgumentException("tickMillis must be positive");
+    }
+    if (slotBits < 1 || levelCount < 1 || (long) slotBits * levelCount > 62) {
+      throw new IllegalArgumentException("slotBits * levelCount must be between 1 and 62");
+    }
+    this.tickMillis = tickMillis;
+    this.slotBits = slotBits;
+    this.slotMask = (1 << slotBits) - 1;
+    this.levels = new ArrayDeque[levelCount][1 << slotBits];
+    this.nextTick = startMillis / tickMillis;
+  }
+
+  /**
+   * Schedules {@code payload} to fire on the first {@link #advance} to a time at or after
+   * {@code deadlineMillis}, never earlier. A deadline in the past fires on the next tick.
+   */
+  public void schedule(T payload, long deadlineMillis) {
+    place(new Timer<>(payload, Math.max(Math.ceilDiv(deadlineMillis, tickMillis), nextTick)));
+    size++;
+  }
+
+  /**
+   * Turns the wheel up to and including the tick containing {@code nowMillis} and returns the
+   * payloads that came due, tick by tick.
+   */
+  public List<T> advance(long nowMillis) {
+    long targetTick = nowMillis / tickMillis;
+    List<T> due = new ArrayList<>();
+    for (; nextTick <= targetTick; nextTick++) {
+      cascade(nextTick);
+      ArrayDeque<Timer<T>> slot = levels[0][(int) (nextTick & slotMask)];
+      if (slot == null || slot.isEmpty()) continue;
+
+      int pending = slot.size();
+      for (int i = 0; i < pending; i++) {
+        Timer<T> timer = slot.poll();
+        if (timer.deadlineTick <= nextTick) {
+          due.add(timer.payload);
+          size--;
+        } else {
+          place(timer);
+        }
+      }
+    }
+    return due;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  /**
+   * At the start of each turn of level {@code n - 1}, empties the level {@code n} slot the new
+   * turn belongs to and re-places its timers one or more levels lower. Higher levels go first so
+   * their timers can land in a slot that is cascaded in the same tick.
+   */
+  private void cascade(long tick) {
+    for (int level = levels.length - 1; level >= 1; level--) {
+      long span = 1L << (slotBits * level);
+      if ((tick & (span - 1)) != 0) continue;
+
+      ArrayDeque<Timer<T>> slot = levels[level][(int) ((tick >>> (slotBits * level)) & slotMask)];
+      if (slot == null || slot.isEmpty()) continue;
+
+      int pending = slot.size();
+      for (int i = 0; i < pending; i++) {
+        place(slot.poll());
+      }
+    }
+  }
+
+  /**
+   * Puts the timer on the lowest level whose current turn contains its deadline, or on the top
+   * level when the deadline is further out than the whole wheel.
+   */
+  private void place(Timer<T> timer) {
+    int level = 0;
+    while (level < levels.length - 1
+        && (timer.deadlineTick >>> (slotBits * (level + 1))) != (nextTick >>> (slotBits * (level + 1)))) {
+      level++;
+    }
+    int index = (int) ((timer.deadlineTick >>> (slotBits * level)) & slotMask);
+    ArrayDeque<Timer<T>> slot = levels[level][index];
+    if (slot == null) {
+      slot = new ArrayDeque<>();
+      levels[level][index] = slot;
+    }
+    slot.add(timer);
+  }
+
+  private record Timer<T>(T payload, long deadlineTick) {
+  }
+}
@@ -4,6 +4,8 @@ import am.itspace.shortest.url.dto.response.ShortUrlResponse;
 import am.itspace.shortest.url.dto.response.ShortUrlStatusAndCountResponse;
 import am.itspace.shortest.url.model.ShortUrl;
 
+import java.time.Instant;
+
 public final class ShortUrlMapper {
 
   private ShortUrlMapper() {
@@ -16,6 +18,10 @@ public final class ShortUrlMapper {
         .originalUrl(shortUrl.getOriginalUrl())
         .clickCount(shortUrl.getClickCount())
         .isActive(shortUrl.getIsActive())
+        .status(shortUrl.statusAt(Instant.now()))
+        .activatesAt(shortUrl.getActivatesAt())
+        .expiresAt(shortUrl.getExpiresAt())
+        .maxClicks(shortUrl.getMaxClicks())
         .build();
   }
 
@@ -23,6 +29,10 @@ public final class ShortUrlMapper {
     return ShortUrlStatusAndCountResponse.builder()
         .shortKey(shortUrl.getShortKey())
         .isActive(shortUrl.getIsActive())
+        .status(shortUrl.statusAt(Instant.now()))
+        .activatesAt(shortUrl.getActivatesAt())
+        .expiresAt(shortUrl.getExpiresAt())
+        .maxClicks(shortUrl.getMaxClicks())
         .clickCount(shortUrl.getClickCount())
         .build();
   }
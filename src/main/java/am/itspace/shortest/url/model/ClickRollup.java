@@ -0,0 +1,27 @@
+package am.itspace.shortest.url.model;
+
+import am.itspace.shortest.url.model.enums.RollupGranularity;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+@Setter
+@Getter
+@Entity
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@IdClass(ClickRollupId.class)
+@Table(name = "click_rollup_tbl")
+public class ClickRollup {
+
+  @Id
+  private String shortKey;
+  @Id
+  @Enumerated(EnumType.STRING)
+  private RollupGranularity granularity;
+  @Id
+  private Instant bucketStart;
+  private Long clickCount;
+}
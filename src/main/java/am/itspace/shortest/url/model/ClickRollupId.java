@@ -0,0 +1,19 @@
+package am.itspace.shortest.url.model;
+
+import am.itspace.shortest.url.model.enums.RollupGranularity;
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+public class ClickRollupId implements Serializable {
+
+  private String shortKey;
+  private RollupGranularity granularity;
+  private Instant bucketStart;
+}
@@ -1,15 +1,26 @@
 package am.itspace.shortest.url.model;
 
+import am.itspace.shortest.url.model.enums.UrlStatus;
+import am.itspace.shortest.url.util.UrlHashUtil;
 import jakarta.persistence.*;
 import lombok.*;
 
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
 @Setter
 @Getter
 @Entity
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "short_url_tbl")
+@Table(name = "short_url_tbl", indexes = {
+    @Index(name = "ux_short_url_short_key", columnList = "short_key", unique = true),
+    @Index(name = "ux_short_url_original_url_hash", columnList = "original_url_hash", unique = true),
+    @Index(name = "ix_short_url_updated_at", columnList = "updated_at, id"),
+    @Index(name = "ix_short_url_expires_at", columnList = "expires_at, id"),
+    @Index(name = "ix_short_url_activates_at", columnList = "activates_at, id")
+})
 public class ShortUrl {
 
   @Id
@@ -17,7 +28,49 @@ public class ShortUrl {
   private Long id;
   private String shortKey;
   private String originalUrl;
+  @Column(name = "original_url_hash", length = UrlHashUtil.HASH_LENGTH)
+  private byte[] originalUrlHash;
+  // legacy row whose URL was stored under this id before the hash index existed; keeps a null hash
+  @Column(name = "duplicate_of")
+  private Long duplicateOf;
   private Boolean isActive;
-  private Integer clickCount;
+  private Long clickCount;
   private Long userId;
-}
\ No newline at end of file
+  @Column(name = "updated_at")
+  private Instant updatedAt;
+  @Enumerated(EnumType.STRING)
+  @Column(length = 16)
+  private UrlStatus status;
+  @Column(name = "activates_at")
+  private Instant activatesAt;
+  @Column(name = "expires_at")
+  private Instant expiresAt;
+  private Long maxClicks;
+
+  /**
+   * State at {@code now}, derived from the stored status and the timestamps and limits carried by
+   * the row itself, so a cached entry answers without waiting for the lifecycle engine to persist
+   * the transition. Rows from before the lifecycle columns have no status and count as active.
+   */
+  public UrlStatus statusAt(Instant now) {
+    UrlStatus stored = status == null ? UrlStatus.ACTIVE : status;
+    if (stored.isTerminal()) return stored;
+    if (expiresAt != null && !now.isBefore(expiresAt)) return UrlStatus.EXPIRED;
+    if (maxClicks != null && clickCount != null && clickCount >= maxClicks) return UrlStatus.EXHAUSTED;
+    if (activatesAt != null && now.isBefore(activatesAt)) return UrlStatus.SCHEDULED;
+    return UrlStatus.ACTIVE;
+  }
+
+  public boolean isRedirectable(Instant now) {
+    return statusAt(now) == UrlStatus.ACTIVE;
+  }
+
+  @PrePersist
+  @PreUpdate
+  void beforeWrite() {
+    if (originalUrl != null) {
+      originalUrlHash = UrlHashUtil.hash(originalUrl);
+    }
+    updatedAt = Instant.now().truncatedTo(ChronoUnit.MICROS);
+  }
+}
@@ -4,13 +4,18 @@ import am.itspace.shortest.url.model.enums.TokenType;
 import jakarta.persistence.*;
 import lombok.*;
 
+import java.time.Instant;
+
 @Setter
 @Getter
 @Entity
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "token_tbl")
+@Table(name = "token_tbl", indexes = {
+    @Index(name = "ix_token_jti", columnList = "jti"),
+    @Index(name = "ix_token_refresh_jti", columnList = "refresh_jti")
+})
 public class Token {
   @Id
   @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -19,6 +24,12 @@ public class Token {
 
   private String refreshToken;
 
+  private String jti;
+  private Instant expiresAt;
+
+  private String refreshJti;
+  private Instant refreshExpiresAt;
+
   @Enumerated(EnumType.STRING)
   private TokenType type;
 
@@ -0,0 +1,5 @@
+package am.itspace.shortest.url.model.enums;
+
+public enum ImportFormat {
+  NDJSON, CSV
+}
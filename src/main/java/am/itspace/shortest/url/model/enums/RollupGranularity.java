@@ -0,0 +1,35 @@
+package am.itspace.shortest.url.model.enums;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Bucket sizes of the click rollups. Buckets are aligned to UTC and identified by their start.
+ */
+public enum RollupGranularity {
+
+  MINUTE(ChronoUnit.MINUTES, Duration.ofHours(1)),
+  HOUR(ChronoUnit.HOURS, Duration.ofDays(1)),
+  DAY(ChronoUnit.DAYS, Duration.ofDays(30));
+
+  private final ChronoUnit unit;
+  private final Duration defaultWindow;
+
+  RollupGranularity(ChronoUnit unit, Duration defaultWindow) {
+    this.unit = unit;
+    this.defaultWindow = defaultWindow;
+  }
+
+  public Instant bucketStart(Instant instant) {
+    return instant.truncatedTo(unit);
+  }
+
+  public Duration step() {
+    return unit.getDuration();
+  }
+
+  public Duration defaultWindow() {
+    return defaultWindow;
+  }
+}
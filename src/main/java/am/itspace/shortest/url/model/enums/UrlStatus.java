@@ -1,5 +1,39 @@
 package am.itspace.shortest.url.model.enums;
 
+/**
+ * Lifecycle state of a short link. Only {@link #ACTIVE} links redirect. EXPIRED and EXHAUSTED are
+ * terminal; SCHEDULED links become ACTIVE at their activation time.
+ */
 public enum UrlStatus {
 
+  SCHEDULED(1),
+  ACTIVE(2),
+  EXPIRED(3),
+  EXHAUSTED(4);
+
+  private final int code;
+
+  UrlStatus(int code) {
+    this.code = code;
+  }
+
+  /**
+   * Stable number used by the binary cache codec, independent of declaration order.
+   */
+  public int code() {
+    return code;
+  }
+
+  public boolean isTerminal() {
+    return this == EXPIRED || this == EXHAUSTED;
+  }
+
+  public static UrlStatus fromCode(int code) {
+    for (UrlStatus status : values()) {
+      if (status.code == code) {
+        return status;
+      }
+    }
+    throw new IllegalArgumentException("Unknown UrlStatus code " + code);
+  }
 }
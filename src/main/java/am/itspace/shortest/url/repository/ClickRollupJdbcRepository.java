@@ -0,0 +1,54 @@
+package am.itspace.shortest.url.repository;
+
+import am.itspace.shortest.url.model.ClickRollupId;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.Map;
+
+/**
+ * Set-based upsert into click_rollup_tbl, one statement per batch of consumed click events.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ClickRollupJdbcRepository {
+
+  private static final String ADD_CLICKS = """
+      INSERT INTO click_rollup_tbl (short_key, granularity, bucket_start, click_count)
+      SELECT d.short_key, d.granularity, to_timestamp(d.epoch_second), d.clicks
+      FROM unnest(?::text[], ?::text[], ?::bigint[], ?::bigint[]) AS d(short_key, granularity, epoch_second, clicks)
+      ON CONFLICT (short_key, granularity, bucket_start)
+      DO UPDATE SET click_count = click_rollup_tbl.click_count + EXCLUDED.click_count
+      """;
+
+  private final JdbcTemplate jdbcTemplate;
+
+  /**
+   * Adds each count to its bucket, creating the bucket when it does not exist yet.
+   */
+  public int addClicks(Map<ClickRollupId, Long> counts) {
+    if (counts.isEmpty()) return 0;
+
+    String[] shortKeys = new String[counts.size()];
+    String[] granularities = new String[counts.size()];
+    Long[] epochSeconds = new Long[counts.size()];
+    Long[] clicks = new Long[counts.size()];
+    int i = 0;
+    for (Map.Entry<ClickRollupId, Long> entry : counts.entrySet()) {
+      ClickRollupId id = entry.getKey();
+      shortKeys[i] = id.getShortKey();
+      granularities[i] = id.getGranularity().name();
+      epochSeconds[i] = id.getBucketStart().getEpochSecond();
+      clicks[i] = entry.getValue();
+      i++;
+    }
+
+    return jdbcTemplate.update(ADD_CLICKS, ps -> {
+      ps.setArray(1, ps.getConnection().createArrayOf("text", shortKeys));
+      ps.setArray(2, ps.getConnection().createArrayOf("text", granularities));
+      ps.setArray(3, ps.getConnection().createArrayOf("bigint", epochSeconds));
+      ps.setArray(4, ps.getConnection().createArrayOf("bigint", clicks));
+    });
+  }
+}
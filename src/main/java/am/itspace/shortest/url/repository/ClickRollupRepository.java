@@ -0,0 +1,26 @@
+package am.itspace.shortest.url.repository;
+
+import am.itspace.shortest.url.model.ClickRollup;
+import am.itspace.shortest.url.model.ClickRollupId;
+import am.itspace.shortest.url.model.enums.RollupGranularity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface ClickRollupRepository extends JpaRepository<ClickRollup, ClickRollupId> {
+
+  List<ClickRollup> findAllByShortKeyAndGranularityAndBucketStartBetweenOrderByBucketStart(String shortKey,
+                                                                                          RollupGranularity granularity,
+                                                                                          Instant from,
+                                                                                          Instant to);
+
+  @Modifying
+  @Transactional
+  @Query("delete from ClickRollup r where r.granularity = :granularity and r.bucketStart < :cutoff")
+  int deleteOlderThan(@Param("granularity") RollupGranularity granularity, @Param("cutoff") Instant cutoff);
+}
@@ -0,0 +1,417 @@
+package am.itspace.shortest.url.repository;
+
+import am.itspace.shortest.url.model.ShortUrl;
+import am.itspace.shortest.url.model.enums.UrlStatus;
+import am.itspace.shortest.url.util.UrlHashUtil;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Set-based statements on short_url_tbl that would otherwise load and dirty-check one entity per row.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ShortUrlJdbcRepository {
+
+  private static final String COLUMNS = """
+      id, short_key, original_url, is_active, click_count, user_id, updated_at, status, activates_at, expires_at, max_clicks
+      """;
+
+  private static final String OPEN = "status IS NULL OR status IN ('SCHEDULED', 'ACTIVE')";
+
+  private static final String REACHES_MAX_CLICKS = """
+      s.max_clicks IS NOT NULL AND COALESCE(s.click_count, 0) + d.delta >= s.max_clicks
+                AND (s.status IS NULL OR s.status IN ('SCHEDULED', 'ACTIVE'))""";
+
+  private static final String ADD_CLICK_COUNTS = """
+      WITH counted AS (
+        UPDATE short_url_tbl s
+        SET click_count = COALESCE(s.click_count, 0) + d.delta,
+            status = CASE WHEN %1$s THEN 'EXHAUSTED' ELSE s.status END,
+            is_active = CASE WHEN %1$s THEN false ELSE s.is_active END,
+            updated_at = CASE WHEN %1$s THEN ? ELSE s.updated_at END
+        FROM unnest(?::text[], ?::bigint[]) AS d(short_key, delta)
+        WHERE s.short_key = d.short_key
+        RETURNING s.*, d.delta
+      )
+      SELECT %2$s FROM counted
+      WHERE status = 'EXHAUSTED' AND click_count - delta < max_clicks
+      """.formatted(REACHES_MAX_CLICKS, COLUMNS);
+
+  private static final String EXPIRE = """
+      UPDATE short_url_tbl SET status = 'EXPIRED', is_active = false, updated_at = ?
+      WHERE short_key = ANY(?) AND expires_at <= ? AND (%s)
+      RETURNING %s
+      """.formatted(OPEN, COLUMNS);
+
+  private static final String ACTIVATE = """
+      UPDATE short_url_tbl SET status = 'ACTIVE', is_active = true, updated_at = ?
+      WHERE short_key = ANY(?) AND activates_at <= ? AND status = 'SCHEDULED'
+      RETURNING %s
+      """.formatted(COLUMNS);
+
+  private static final String FIND_EXPIRING = """
+      SELECT id, short_key, expires_at AS deadline FROM short_url_tbl
+      WHERE (expires_at, id) > (?, ?) AND expires_at < ? AND (%s)
+      ORDER BY expires_at, id
+      LIMIT ?
+      """.formatted(OPEN);
+
+  private static final String FIND_ACTIVATING = """
+      SELECT id, short_key, activates_at AS deadline FROM short_url_tbl
+      WHERE (activates_at, id) > (?, ?) AND activates_at < ? AND status = 'SCHEDULED'
+      ORDER BY activates_at, id
+      LIMIT ?
+      """;
+
+  private static final String INSERT_SHORT_URLS = """
+      INSERT INTO short_url_tbl (short_key, original_url, original_url_hash, is_active, click_count, user_id, updated_at,
+                                 status, activates_at, expires_at, max_clicks)
+      SELECT r.short_key, r.original_url, r.original_url_hash, r.is_active, r.click_count, r.user_id, ?,
+             r.status, r.activates_at, r.expires_at, r.max_clicks
+      FROM unnest(?::text[], ?::text[], ?::bytea[], ?::boolean[], ?::bigint[], ?::bigint[],
+                  ?::text[], ?::timestamptz[], ?::timestamptz[], ?::bigint[])
+           AS r(short_key, original_url, original_url_hash, is_active, click_count, user_id,
+                status, activates_at, expires_at, max_clicks)
+      ON CONFLICT (original_url_hash) DO NOTHING
+      RETURNING id, short_key
+      """;
+
+  private static final String INSERT_ORIGINAL_URL = """
+      INSERT INTO short_url_tbl (original_url, original_url_hash, updated_at)
+      VALUES (?, ?, ?)
+      ON CONFLICT (original_url_hash) DO NOTHING
+      """;
+
+  private static final String FIND_UNHASHED = """
+      SELECT id, original_url FROM short_url_tbl
+      WHERE original_url_hash IS NULL AND duplicate_of IS NULL AND original_url IS NOT NULL AND id > ?
+      ORDER BY id
+      LIMIT ?
+      """;
+
+  private static final String SET_ORIGINAL_URL_HASH = """
+      UPDATE short_url_tbl s
+      SET original_url_hash = CASE WHEN canonical.id IS NULL THEN ?::bytea END,
+          duplicate_of = canonical.id
+      FROM (SELECT (SELECT id FROM short_url_tbl WHERE original_url_hash = ?) AS id) canonical
+      WHERE s.id = ?
+      """;
+
+  private static final String FIND_RECENT_SHORT_KEYS = """
+      SELECT short_key FROM short_url_tbl
+      WHERE length(short_key) >= ?
+      ORDER BY id DESC
+      LIMIT ?
+      """;
+
+  private static final String HAS_UNIQUE_SHORT_KEY_INDEX = """
+      SELECT EXISTS (
+        SELECT 1 FROM pg_index i
+        JOIN pg_class c ON c.oid = i.indexrelid
+        WHERE c.relname = 'ux_short_url_short_key' AND i.indisunique AND i.indisvalid
+      )
+      """;
+
+  private static final String FIND_ALL_SHORT_KEYS = "SELECT short_key FROM short_url_tbl WHERE length(short_key) >= ?";
+
+  private static final String CACHED_COLUMNS = "SELECT " + COLUMNS + "FROM short_url_tbl\n";
+
+  private static final String FIND_PAGE_AFTER_ID = CACHED_COLUMNS + """
+      WHERE id > ?
+      ORDER BY id
+      LIMIT ?
+      """;
+
+  private static final String FIND_CHANGED_AFTER = CACHED_COLUMNS + """
+      WHERE (updated_at, id) > (?, ?) AND updated_at < ?
+      ORDER BY updated_at, id
+      LIMIT ?
+      """;
+
+  private static final RowMapper<ShortUrl> CACHED_ROW_MAPPER = (rs, rowNum) -> {
+    String status = rs.getString("status");
+    return ShortUrl.builder()
+        .id(rs.getLong("id"))
+        .shortKey(rs.getString("short_key"))
+        .originalUrl(rs.getString("original_url"))
+        .isActive(rs.getObject("is_active", Boolean.class))
+        .clickCount(rs.getObject("click_count", Long.class))
+        .userId(rs.getObject("user_id", Long.class))
+        .updatedAt(instant(rs, "updated_at"))
+        .status(status == null ? null : UrlStatus.valueOf(status))
+        .activatesAt(instant(rs, "activates_at"))
+        .expiresAt(instant(rs, "expires_at"))
+        .maxClicks(rs.getObject("max_clicks", Long.class))
+        .build();
+  };
+
+  private static final RowMapper<Deadline> DEADLINE_ROW_MAPPER = (rs, rowNum) ->
+      new Deadline(rs.getLong("id"), rs.getString("short_key"), instant(rs, "deadline"));
+
+  private final JdbcTemplate jdbcTemplate;
+
+  /**
+   * Inserts the rows in one statement and sets the generated ids back on the given entities. URLs
+   * stored concurrently by another request are skipped rather than failing the whole batch; those
+   * entities are returned without an id so the caller can read the stored rows instead.
+   */
+  @Transactional
+  public List<ShortUrl> insertAll(List<ShortUrl> shortUrls) {
+    if (shortUrls.isEmpty()) return List.of();
+
+    int size = shortUrls.size();
+    String[] shortKeys = new String[size];
+    String[] originalUrls = new String[size];
+    byte[][] hashes = new byte[size][];
+    Boolean[] active = new Boolean[size];
+    Long[] clickCounts = new Long[size];
+    Long[] userIds = new Long[size];
+    String[] statuses = new String[size];
+    Timestamp[] activatesAt = new Timestamp[size];
+    Timestamp[] expiresAt = new Timestamp[size];
+    Long[] maxClicks = new Long[size];
+    for (int i = 0; i < size; i++) {
+      ShortUrl shortUrl = shortUrls.get(i);
+      shortKeys[i] = shortUrl.getShortKey();
+      originalUrls[i] = shortUrl.getOriginalUrl();
+      hashes[i] = UrlHashUtil.hash(shortUrl.getOriginalUrl());
+      active[i] = shortUrl.getIsActive();
+      clickCounts[i] = shortUrl.getClickCount();
+      userIds[i] = shortUrl.getUserId();
+      statuses[i] = shortUrl.getStatus() == null ? null : shortUrl.getStatus().name();
+      activatesAt[i] = timestamp(shortUrl.getActivatesAt());
+      expiresAt[i] = timestamp(shortUrl.getExpiresAt());
+      maxClicks[i] = shortUrl.getMaxClicks();
+    }
+
+    OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC).truncatedTo(ChronoUnit.MICROS);
+    Map<String, Long> ids = new HashMap<>(size * 2);
+    jdbcTemplate.query(INSERT_SHORT_URLS, ps -> {
+      Connection connection = ps.getConnection();
+      ps.setObject(1, now);
+      ps.setArray(2, connection.createArrayOf("text", shortKeys));
+      ps.setArray(3, connection.createArrayOf("text", originalUrls));
+      ps.setArray(4, connection.createArrayOf("bytea", hashes));
+      ps.setArray(5, connection.createArrayOf("boolean", active));
+      ps.setArray(6, connection.createArrayOf("bigint", clickCounts));
+      ps.setArray(7, connection.createArrayOf("bigint", userIds));
+      ps.setArray(8, connection.createArrayOf("text", statuses));
+      ps.setArray(9, connection.createArrayOf("timestamptz", activatesAt));
+      ps.setArray(10, connection.createArrayOf("timestamptz", expiresAt));
+      ps.setArray(11, connection.createArrayOf("bigint", maxClicks));
+    }, (RowCallbackHandler) rs -> ids.put(rs.getString("short_key"), rs.getLong("id")));
+
+    List<ShortUrl> skipped = new ArrayList<>(size - ids.size());
+    for (ShortUrl shortUrl : shortUrls) {
+      Long id = ids.get(shortUrl.getShortKey());
+      if (id == null) {
+        skipped.add(shortUrl);
+      } else {
+        shortUrl.setId(id);
+        shortUrl.setUpdatedAt(now.toInstant());
+      }
+    }
+    return skipped;
+  }
+
+  /**
+   * Stores a bare row for the URL unless a row with its hash exists. A concurrent insert of the same
+   * URL makes this a no-op instead of a unique violation, which would abort the caller's transaction;
+   * the caller reads the stored row afterwards either way.
+   */
+  public void insertOriginalUrlIfAbsent(String originalUrl) {
+    jdbcTemplate.update(INSERT_ORIGINAL_URL, originalUrl, UrlHashUtil.hash(originalUrl),
+        OffsetDateTime.now(ZoneOffset.UTC).truncatedTo(ChronoUnit.MICROS));
+  }
+
+  /**
+   * Fills in original_url_hash for up to {@code limit} rows with an id above {@code afterId} and
+   * returns the last id visited, or -1 when no such rows are left. Rows whose URL is already
+   * hashed on another row are duplicates from before the unique index: they keep a null hash and
+   * point at that row through duplicate_of, so later runs do not pick them up again. The IS NULL
+   * lookup is served by the hash index, which leaves nothing to walk once the table is hashed.
+   */
+  @Transactional
+  public long backfillOriginalUrlHashes(long afterId, int limit) {
+    List<Map<String, Object>> rows = jdbcTemplate.queryForList(FIND_UNHASHED, afterId, limit);
+    if (rows.isEmpty()) return -1;
+
+    jdbcTemplate.batchUpdate(SET_ORIGINAL_URL_HASH, rows, rows.size(), (ps, row) -> {
+      byte[] hash = UrlHashUtil.hash((String) row.get("original_url"));
+      ps.setBytes(1, hash);
+      ps.setBytes(2, hash);
+      ps.setLong(3, ((Number) row.get("id")).longValue());
+    });
+    return ((Number) rows.getLast().get("id")).longValue();
+  }
+
+  /**
+   * Whether the unique index on short_key exists and is usable. ddl-auto only logs a failed
+   * CREATE INDEX, so the index can be missing even though the entity declares it.
+   */
+  public boolean hasUniqueShortKeyIndex() {
+    return Boolean.TRUE.equals(jdbcTemplate.queryForObject(HAS_UNIQUE_SHORT_KEY_INDEX, Boolean.class));
+  }
+
+  /**
+   * Short keys of at least {@code minLength} characters from the {@code limit} newest rows.
+   */
+  public List<String> findRecentShortKeys(int minLength, int limit) {
+    return jdbcTemplate.queryForList(FIND_RECENT_SHORT_KEYS, String.class, minLength, limit);
+  }
+
+  /**
+   * Streams every short key of at least {@code minLength} characters; the transaction keeps the
+   * driver fetching in batches instead of loading the whole column.
+   */
+  @Transactional(readOnly = true)
+  public void forEachShortKey(int minLength, Consumer<String> consumer) {
+    jdbcTemplate.query(connection -> {
+      PreparedStatement ps = connection.prepareStatement(FIND_ALL_SHORT_KEYS);
+      ps.setFetchSize(5_000);
+      ps.setInt(1, minLength);
+      return ps;
+    }, (RowCallbackHandler) rs -> consumer.accept(rs.getString(1)));
+  }
+
+  /**
+   * Keyset page of rows in id order, for a full pass over the table.
+   */
+  public List<ShortUrl> findPageAfterId(long afterId, int limit) {
+    return jdbcTemplate.query(connection -> {
+      PreparedStatement ps = connection.prepareStatement(FIND_PAGE_AFTER_ID);
+      ps.setFetchSize(limit);
+      ps.setLong(1, afterId);
+      ps.setInt(2, limit);
+      return ps;
+    }, CACHED_ROW_MAPPER);
+  }
+
+  /**
+   * Keyset page of rows changed after the ({@code afterUpdatedAt}, {@code afterId}) position and
+   * strictly before {@code before}, in (updated_at, id) order. Served by ix_short_url_updated_at.
+   */
+  public List<ShortUrl> findChangedAfter(Instant afterUpdatedAt, long afterId, Instant before, int limit) {
+    return jdbcTemplate.query(connection -> {
+      PreparedStatement ps = connection.prepareStatement(FIND_CHANGED_AFTER);
+      ps.setFetchSize(limit);
+      ps.setObject(1, afterUpdatedAt.atOffset(ZoneOffset.UTC));
+      ps.setLong(2, afterId);
+      ps.setObject(3, before.atOffset(ZoneOffset.UTC));
+      ps.setInt(4, limit);
+      return ps;
+    }, CACHED_ROW_MAPPER);
+  }
+
+  /**
+   * Adds each delta to the stored click count in a single statement. Rows the deltas push to their
+   * max-clicks limit are marked EXHAUSTED by the same statement and returned.
+   */
+  public List<ShortUrl> addClickCounts(Map<String, Long> deltas) {
+    if (deltas.isEmpty()) return List.of();
+
+    String[] shortKeys = new String[deltas.size()];
+    Long[] values = new Long[deltas.size()];
+    int i = 0;
+    for (Map.Entry<String, Long> entry : deltas.entrySet()) {
+      shortKeys[i] = entry.getKey();
+      values[i] = entry.getValue();
+      i++;
+    }
+
+    return jdbcTemplate.query(ADD_CLICK_COUNTS, ps -> {
+      ps.setObject(1, OffsetDateTime.now(ZoneOffset.UTC).truncatedTo(ChronoUnit.MICROS));
+      ps.setArray(2, ps.getConnection().createArrayOf("text", shortKeys));
+      ps.setArray(3, ps.getConnection().createArrayOf("bigint", values));
+    }, CACHED_ROW_MAPPER);
+  }
+
+  /**
+   * Keyset page of open links whose expiry is after the ({@code after}, {@code afterId}) position
+   * and before {@code before}, in (expires_at, id) order. Served by ix_short_url_expires_at.
+   */
+  public List<Deadline> findExpiring(Instant after, long afterId, Instant before, int limit) {
+    return findDeadlines(FIND_EXPIRING, after, afterId, before, limit);
+  }
+
+  /**
+   * Keyset page of scheduled links activating in the same window. Served by ix_short_url_activates_at.
+   */
+  public List<Deadline> findActivating(Instant after, long afterId, Instant before, int limit) {
+    return findDeadlines(FIND_ACTIVATING, after, afterId, before, limit);
+  }
+
+  /**
+   * Marks the given links EXPIRED where their expiry has passed and returns the rows that changed.
+   */
+  public List<ShortUrl> expire(Collection<String> shortKeys) {
+    return transition(EXPIRE, shortKeys);
+  }
+
+  /**
+   * Marks the given scheduled links ACTIVE where their activation time has passed and returns the
+   * rows that changed.
+   */
+  public List<ShortUrl> activate(Collection<String> shortKeys) {
+    return transition(ACTIVATE, shortKeys);
+  }
+
+  private List<ShortUrl> transition(String sql, Collection<String> shortKeys) {
+    if (shortKeys.isEmpty()) return List.of();
+
+    OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC).truncatedTo(ChronoUnit.MICROS);
+    return jdbcTemplate.query(sql, ps -> {
+      ps.setObject(1, now);
+      ps.setArray(2, ps.getConnection().createArrayOf("text", shortKeys.toArray()));
+      ps.setObject(3, now);
+    }, CACHED_ROW_MAPPER);
+  }
+
+  private List<Deadline> findDeadlines(String sql, Instant after, long afterId, Instant before, int limit) {
+    return jdbcTemplate.query(connection -> {
+      PreparedStatement ps = connection.prepareStatement(sql);
+      ps.setFetchSize(limit);
+      ps.setObject(1, after.atOffset(ZoneOffset.UTC));
+      ps.setLong(2, afterId);
+      ps.setObject(3, before.atOffset(ZoneOffset.UTC));
+      ps.setInt(4, limit);
+      return ps;
+    }, DEADLINE_ROW_MAPPER);
+  }
+
+  private static Instant instant(ResultSet rs, String column) throws SQLException {
+    OffsetDateTime value = rs.getObject(column, OffsetDateTime.class);
+    return value == null ? null : value.toInstant();
+  }
+
+  private static Timestamp timestamp(Instant instant) {
+    return instant == null ? null : Timestamp.from(instant);
+  }
+
+  /**
+   * A pending lifecycle transition: the link and the moment it is due.
+   */
+  public record Deadline(long id, String shortKey, Instant at) {
+  }
+}
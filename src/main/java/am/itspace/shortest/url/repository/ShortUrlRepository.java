@@ -1,17 +1,55 @@
 package am.itspace.shortest.url.repository;
 
 import am.itspace.shortest.url.model.ShortUrl;
+import am.itspace.shortest.url.util.UrlHashUtil;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 public interface ShortUrlRepository extends JpaRepository<ShortUrl, Long> {
 
   Optional<ShortUrl> findByShortKey(String shortKey);
 
-  Optional<ShortUrl> findByOriginalUrl(String originalUrl);
+  boolean existsByShortKey(String shortKey);
+
+  Optional<ShortUrl> findByOriginalUrlHash(byte[] originalUrlHash);
+
+  /**
+   * Looks the URL up through its indexed hash and only then compares the full string, so a hash
+   * collision reads as "not found" rather than returning another URL's row. Falls back to the rows
+   * not hashed yet, which nodes on the previous version keep writing during a rolling deploy.
+   */
+  default Optional<ShortUrl> findByOriginalUrl(String originalUrl) {
+    return findByOriginalUrlHash(UrlHashUtil.hash(originalUrl))
+        .filter(shortUrl -> originalUrl.equals(shortUrl.getOriginalUrl()))
+        .or(() -> findAllUnhashedByOriginalUrlIn(List.of(originalUrl)).stream().findFirst());
+  }
+
+  List<ShortUrl> findAllByOriginalUrlHashIn(Collection<byte[]> originalUrlHashes);
+
+  /**
+   * Rows still waiting for the hash backfill. They share the IS NULL range of the hash index with
+   * resolved duplicates only, which stays small once the V2 migration has hashed the table.
+   */
+  @Query("SELECT s FROM ShortUrl s WHERE s.originalUrlHash IS NULL AND s.duplicateOf IS NULL AND s.originalUrl IN :originalUrls ORDER BY s.id")
+  List<ShortUrl> findAllUnhashedByOriginalUrlIn(Collection<String> originalUrls);
 
   List<ShortUrl> findAllByShortKeyIn(List<String> shortKeys);
 
+  @Query("SELECT s.shortKey FROM ShortUrl s WHERE s.shortKey IN :shortKeys")
+  Set<String> findExistingShortKeys(Collection<String> shortKeys);
+
+  @Query("SELECT s.shortKey FROM ShortUrl s WHERE s.shortKey IS NOT NULL")
+  @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "5000"))
+  Stream<String> streamAllShortKeys();
+
 }
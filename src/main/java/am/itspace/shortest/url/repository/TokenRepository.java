@@ -19,4 +19,12 @@ public interface TokenRepository extends JpaRepository<Token, Long> {
 
   Optional<Token> findByAccessToken(String token);
 
+  Optional<Token> findByRefreshToken(String token);
+
+  Optional<Token> findByJti(String jti);
+
+  boolean existsByJtiAndRevokedTrue(String jti);
+
+  boolean existsByRefreshJtiAndRevokedTrue(String refreshJti);
+
 }
@@ -0,0 +1,238 @@
+package am.itspace.shortest.url.scheduler;
+
+import am.itspace.shortest.url.util.RedisKeys;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * Splits scheduled work between the replicas through Redis leases. Short keys hash into
+ * {@code shardCount} shards; every node heartbeats, aims for an even share of the shards and holds
+ * each one under a lease that expires unless renewed. One extra lease elects a leader for jobs that
+ * cannot be split.
+ * <p>
+ * Every acquisition increments a per-lease fencing counter and the token is stored in the lease
+ * value, so a node that stalled past its lease can be refused by {@link #takeIfOwner} even though
+ * it still believes it owns the shard. Locally a lease counts as held for one TTL after the start
+ * of the renewal that confirmed it.
+ * <p>
+ * The lease scripts touch several unrelated keys (lease, fencing counter, click counters) in one
+ * call, so this needs a standalone or Sentinel-managed Redis; Redis Cluster would reject them with
+ * CROSSSLOT.
+ */
+@Slf4j
+@Component
+public class SchedulerCoordinator {
+
+  static final String LEASE_PREFIX = "scheduler:lease:";
+  static final String LEADER = "leader";
+  static final String NODES = "scheduler:nodes";
+
+  private static final RedisScript<Long> ACQUIRE = new DefaultRedisScript<>("""
+      local current = redis.call('GET', KEYS[1])
+      if current then
+        local owner, token = string.match(current, '^(.*):(%d+)$')
+        if owner ~= ARGV[1] then return false end
+        redis.call('PEXPIRE', KEYS[1], ARGV[2])
+        return tonumber(token)
+      end
+      local token = redis.call('INCR', KEYS[2])
+      redis.call('SET', KEYS[1], ARGV[1] .. ':' .. token, 'PX', ARGV[2])
+      return token
+      """, Long.class);
+
+  private static final RedisScript<Long> RELEASE = new DefaultRedisScript<>("""
+      if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('DEL', KEYS[1]) end
+      return 0
+      """, Long.class);
+
+  @SuppressWarnings("rawtypes")
+  private static final RedisScript<List> TAKE_PENDING_IF_OWNER = new DefaultRedisScript<>("""
+      if redis.call('GET', KEYS[1]) ~= ARGV[1] then return false end
+      local members = redis.call('SPOP', KEYS[2], ARGV[2])
+      local taken = {}
+      for i, member in ipairs(members) do
+        taken[2 * i - 1] = member
+        taken[2 * i] = redis.call('GETDEL', ARGV[3] .. member)
+      end
+      return taken
+      """, List.class);
+
+  private final StringRedisTemplate stringRedisTemplate;
+  private final String nodeId;
+  private final int shardCount;
+  private final Duration ttl;
+
+  private volatile State state = State.EMPTY;
+
+  public SchedulerCoordinator(StringRedisTemplate stringRedisTemplate,
+                              @Value("${scheduler.leases.node-id}") String nodeId,
+                              @Value("${scheduler.leases.shard-count}") int shardCount,
+                              @Value("${scheduler.leases.ttl}") Duration ttl) {
+    this.stringRedisTemplate = stringRedisTemplate;
+    this.nodeId = nodeId == null || nodeId.isBlank() ? UUID.randomUUID().toString() : nodeId;
+    this.shardCount = shardCount;
+    this.ttl = ttl;
+  }
+
+  public int shardCount() {
+    return shardCount;
+  }
+
+  public int shardOf(String shortKey) {
+    return RedisKeys.shardOf(shortKey, shardCount);
+  }
+
+  /**
+   * Shards this node holds a valid lease on, with their fencing tokens.
+   */
+  public Map<Integer, Long> ownedShards() {
+    State current = state;
+    return current.isValid() ? current.shards() : Map.of();
+  }
+
+  public boolean isLeader() {
+    State current = state;
+    return current.isValid() && current.leaderToken() != null;
+  }
+
+  /**
+   * Pops up to {@code count} members of {@code setKey} and reads and deletes the key
+   * {@code valuePrefix + member} of each, in one script, but only while the shard lease is still
+   * held with {@code token}. Returns null when the lease was lost and nothing was taken, otherwise
+   * the value of each popped member, null where its key was already gone. The value keys are built
+   * inside the script and need not share a hash slot with the lease, which is why Cluster is not
+   * supported.
+   */
+  public Map<String, String> takePendingIfOwner(int shard, long token, String setKey, String valuePrefix, int count) {
+    @SuppressWarnings("unchecked")
+    List<String> taken = stringRedisTemplate.execute(TAKE_PENDING_IF_OWNER, List.of(LEASE_PREFIX + shard, setKey),
+        nodeId + ":" + token, String.valueOf(count), valuePrefix);
+    // the script's false arrives as a single null element; a taken batch is always member, value pairs
+    if (taken == null || taken.size() % 2 != 0) return null;
+
+    Map<String, String> values = new LinkedHashMap<>(taken.size());
+    for (int i = 0; i < taken.size(); i += 2) {
+      values.put(taken.get(i), taken.get(i + 1));
+    }
+    return values;
+  }
+
+  /**
+   * Heartbeats, renews what this node holds, gives back shards above its fair share and takes free
+   * ones below it. Shards released by other nodes are picked up on a later round.
+   */
+  @Scheduled(fixedDelayString = "${scheduler.leases.renew-interval}")
+  public void renew() {
+    long startNanos = System.nanoTime();
+    try {
+      int target = targetShards(shardCount, heartbeat());
+
+      TreeMap<Integer, Long> shards = new TreeMap<>();
+      for (Integer shard : state.shards().keySet()) {
+        Long token = acquire(String.valueOf(shard));
+        if (token != null) {
+          shards.put(shard, token);
+        }
+      }
+
+      while (shards.size() > target) {
+        Integer shard = shards.lastKey();
+        release(String.valueOf(shard), shards.remove(shard));
+      }
+      if (shards.size() < target) {
+        acquireFree(shards, target);
+      }
+
+      Long leaderToken = acquire(LEADER);
+      State previous = state;
+      state = new State(Collections.unmodifiableMap(shards), leaderToken, startNanos + ttl.toNanos());
+      if (!previous.shards().keySet().equals(shards.keySet()) || (previous.leaderToken() == null) != (leaderToken == null)) {
+        log.info("Node {} now owns {} of {} scheduler shards{}", nodeId, shards.size(), shardCount,
+            leaderToken != null ? " and the leader lease" : "");
+      }
+    } catch (RuntimeException e) {
+      log.warn("Failed to renew scheduler leases, keeping them until they lapse", e);
+    }
+  }
+
+  @PreDestroy
+  public void releaseAll() {
+    State current = state;
+    state = State.EMPTY;
+    try {
+      current.shards().forEach((shard, token) -> release(String.valueOf(shard), token));
+      if (current.leaderToken() != null) {
+        release(LEADER, current.leaderToken());
+      }
+      stringRedisTemplate.opsForZSet().remove(NODES, nodeId);
+    } catch (RuntimeException e) {
+      log.warn("Failed to release scheduler leases on shutdown, they lapse after {}", ttl, e);
+    }
+  }
+
+  /**
+   * Registers this node and drops the ones that stopped heartbeating; returns the live node count.
+   */
+  private long heartbeat() {
+    long now = System.currentTimeMillis();
+    stringRedisTemplate.opsForZSet().add(NODES, nodeId, now);
+    stringRedisTemplate.opsForZSet().removeRangeByScore(NODES, Double.NEGATIVE_INFINITY, now - ttl.toMillis());
+    Long nodes = stringRedisTemplate.opsForZSet().zCard(NODES);
+    return nodes == null || nodes < 1 ? 1 : nodes;
+  }
+
+  /**
+   * Finds unleased shards with one MGET and claims them, starting at an offset derived from the
+   * node id so concurrent nodes mostly try different shards.
+   */
+  private void acquireFree(Map<Integer, Long> shards, int target) {
+    List<String> keys = new ArrayList<>(shardCount);
+    for (int shard = 0; shard < shardCount; shard++) {
+      keys.add(LEASE_PREFIX + shard);
+    }
+    List<String> owners = stringRedisTemplate.opsForValue().multiGet(keys);
+    if (owners == null) return;
+
+    int offset = Math.floorMod(nodeId.hashCode(), shardCount);
+    for (int i = 0; i < shardCount && shards.size() < target; i++) {
+      int shard = (offset + i) % shardCount;
+      if (owners.get(shard) != null) continue;
+
+      Long token = acquire(String.valueOf(shard));
+      if (token != null) {
+        shards.put(shard, token);
+      }
+    }
+  }
+
+  private Long acquire(String lease) {
+    return stringRedisTemplate.execute(ACQUIRE, List.of(LEASE_PREFIX + lease, LEASE_PREFIX + lease + ":fence"),
+        nodeId, String.valueOf(ttl.toMillis()));
+  }
+
+  private void release(String lease, long token) {
+    stringRedisTemplate.execute(RELEASE, List.of(LEASE_PREFIX + lease), nodeId + ":" + token);
+  }
+
+  static int targetShards(int shardCount, long nodes) {
+    return (int) ((shardCount + nodes - 1) / nodes);
+  }
+
+  private record State(Map<Integer, Long> shards, Long leaderToken, long validUntilNanos) {
+
+    static final State EMPTY = new State(Map.of(), null, 0);
+
+    boolean isValid() {
+      return System.nanoTime() - validUntilNanos < 0;
+    }
+  }
+}
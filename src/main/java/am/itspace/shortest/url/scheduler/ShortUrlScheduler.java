@@ -1,133 +1,226 @@
 package am.itspace.shortest.url.scheduler;
 
+import am.itspace.shortest.url.cache.ShortUrlCacheReconciler;
+import am.itspace.shortest.url.lifecycle.LinkLifecycleEngine;
 import am.itspace.shortest.url.model.ShortUrl;
-import am.itspace.shortest.url.repository.ShortUrlRepository;
-import lombok.RequiredArgsConstructor;
+import am.itspace.shortest.url.repository.ShortUrlJdbcRepository;
+import am.itspace.shortest.url.util.RedisKeys;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.function.Consumer;
 
+/**
+ * Cluster-wide maintenance jobs. Click count sync is split by short key shard between the nodes
+ * holding the shard leases; the jobs that walk shared state as a whole run on the leader only.
+ */
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class ShortUrlScheduler {
 
-  private final ShortUrlRepository shortUrlRepository;
   private final RedisTemplate<String, Object> redisTemplate;
+  private final ShortUrlCacheReconciler shortUrlCacheReconciler;
+  private final ShortUrlJdbcRepository shortUrlJdbcRepository;
+  private final LinkLifecycleEngine linkLifecycleEngine;
+  private final SchedulerCoordinator schedulerCoordinator;
+  private final int scanCount;
+  private final int batchSize;
+
+  private static final String KEY_PREFIX = RedisKeys.BY_KEY_PREFIX;
+  private static final String SHORT_URL_CLICKS = RedisKeys.CLICKS_PREFIX + "*";
+  private static final String ACTIVE_URLS = RedisKeys.ACTIVE_URLS;
+  private static final String ACTIVE_URLS_SNAPSHOT = ACTIVE_URLS + ":sweeping";
+
+  public ShortUrlScheduler(RedisTemplate<String, Object> redisTemplate,
+                           ShortUrlCacheReconciler shortUrlCacheReconciler,
+                           ShortUrlJdbcRepository shortUrlJdbcRepository,
+                           LinkLifecycleEngine linkLifecycleEngine,
+                           SchedulerCoordinator schedulerCoordinator,
+                           @Value("${scheduler.scan-count}") int scanCount,
+                           @Value("${scheduler.batch-size}") int batchSize) {
+    this.redisTemplate = redisTemplate;
+    this.shortUrlCacheReconciler = shortUrlCacheReconciler;
+    this.shortUrlJdbcRepository = shortUrlJdbcRepository;
+    this.linkLifecycleEngine = linkLifecycleEngine;
+    this.schedulerCoordinator = schedulerCoordinator;
+    this.scanCount = scanCount;
+    this.batchSize = batchSize;
+  }
 
-  private static final String KEY_PREFIX = "short_url:";
-  private static final String ORIGINAL_URL_KEY_PREFIX = "short_url:original:";
-  private static final String SHORT_URL_CLICKS = "short_url:clicks:*";
-  private static final String ACTIVE_URLS = "active.urls";
+  @Scheduled(fixedDelayString = "${scheduler.reconcile.interval}")
+  public void reconcileCache() {
+    if (!schedulerCoordinator.isLeader()) return;
+    shortUrlCacheReconciler.reconcile();
+  }
 
-  @Transactional
   @Scheduled(cron = "${scheduler.cron}")
-  public void clearCache() {
+  public void clearInactiveUrls() {
+    if (!schedulerCoordinator.isLeader()) return;
 
-    List<ShortUrl> urlsToDelete = shortUrlRepository.findAll();
-    List<List<ShortUrl>> partitions = partition(urlsToDelete);
+    boolean hasActiveUrls = Boolean.TRUE.equals(redisTemplate.hasKey(ACTIVE_URLS));
+    if (hasActiveUrls) {
+      redisTemplate.rename(ACTIVE_URLS, ACTIVE_URLS_SNAPSHOT);
+    }
 
-    for (List<ShortUrl> partition : partitions) {
-      if (partition.isEmpty()) continue;
+    long[] deletedCount = {0};
+    scanInBatches(KEY_PREFIX + "*", keys -> {
+      Object[] shortKeys = keys.stream()
+          .map(key -> key.substring(KEY_PREFIX.length()))
+          .toArray();
 
-      shortUrlRepository.deleteAllInBatch(partition);
+      Map<Object, Boolean> active = hasActiveUrls
+          ? redisTemplate.opsForSet().isMember(ACTIVE_URLS_SNAPSHOT, shortKeys)
+          : Collections.emptyMap();
 
-      List<String> keysToDelete = new ArrayList<>(partition.size() * 2);
-      for (ShortUrl url : partition) {
-        keysToDelete.add(KEY_PREFIX + url.getShortKey());
-        keysToDelete.add(ORIGINAL_URL_KEY_PREFIX + url.getOriginalUrl());
+      List<String> inactiveKeys = new ArrayList<>();
+      for (int i = 0; i < keys.size(); i++) {
+        if (!Boolean.TRUE.equals(active.get(shortKeys[i]))) {
+          inactiveKeys.add(keys.get(i));
+        }
       }
 
-      if (!keysToDelete.isEmpty()) redisTemplate.delete(keysToDelete);
-
-      List<ShortUrl> urlsToCache = shortUrlRepository.findAll();
-      List<List<ShortUrl>> partitionsToCache = partition(urlsToCache);
-
-      for (List<ShortUrl> partitionToCache : partitionsToCache) {
-
-        if (partitionToCache.isEmpty()) continue;
+      if (!inactiveKeys.isEmpty()) {
+        Long unlinked = redisTemplate.unlink(inactiveKeys);
+        deletedCount[0] += unlinked == null ? 0 : unlinked;
+      }
+    });
 
-        Map<String, ShortUrl> cacheMap = new HashMap<>();
+    redisTemplate.unlink(ACTIVE_URLS_SNAPSHOT);
+    log.info("Deleted {} inactive URL keys from the cache.", deletedCount[0]);
+  }
 
-        for (ShortUrl urlToCache : partitionToCache) {
-          redisTemplate.opsForValue().set(KEY_PREFIX + urlToCache.getShortKey(), urlToCache);
-          redisTemplate.opsForValue().set(ORIGINAL_URL_KEY_PREFIX + urlToCache.getOriginalUrl(), urlToCache);
+  /**
+   * Each node drains the pending sets of the shards it holds, so the database writes are spread
+   * over the cluster, each counter is taken by exactly one node and no node walks the others' keys.
+   */
+  @Scheduled(cron = "${scheduler.cron}")
+  public void syncClickCount() {
+    Map<Integer, Long> ownedShards = schedulerCoordinator.ownedShards();
+    if (ownedShards.isEmpty()) return;
+
+    long syncedCount = 0;
+    for (Map.Entry<Integer, Long> shard : ownedShards.entrySet()) {
+      Map<String, String> taken;
+      do {
+        // GETDEL inside the fenced script: clicks flushed meanwhile land in a fresh counter, and a
+        // node that lost the lease takes nothing
+        taken = schedulerCoordinator.takePendingIfOwner(shard.getKey(), shard.getValue(),
+            RedisKeys.pendingClicks(shard.getKey()), RedisKeys.CLICKS_PREFIX, batchSize);
+        if (taken == null) {
+          log.warn("Lost the lease on scheduler shard {}, leaving its click counts to the new owner", shard.getKey());
+          break;
         }
-        redisTemplate.opsForValue().multiSet(cacheMap);
-      }
+        syncedCount += syncClickDeltas(clickDeltas(taken));
+      } while (taken.size() == batchSize);
     }
+    log.info("Synced click counts for {} short keys in {} shards.", syncedCount, ownedShards.size());
   }
 
-  @Scheduled(cron = "${scheduler.cron}")
-  public void clearInactiveUrls() {
-    Set<String> allUrlKeys = redisTemplate.keys(KEY_PREFIX + "*");
-    if (allUrlKeys.isEmpty()) {
-      return;
-    }
+  /**
+   * Adds counters that have no entry in their pending set: those written before pending sets
+   * existed, and those whose writer failed between the increment and the set add. A counter that
+   * is incremented again gets its entry anyway, so this only rescues links that stopped getting clicks.
+   */
+  @Scheduled(fixedDelayString = "${scheduler.pending-clicks-sweep-interval}")
+  public void sweepPendingClicks() {
+    if (!schedulerCoordinator.isLeader()) return;
+
+    scanInBatches(SHORT_URL_CLICKS, clickKeys -> redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+      for (String clickKey : clickKeys) {
+        String shortKey = clickKey.substring(RedisKeys.CLICKS_PREFIX.length());
+        connection.setCommands().sAdd(pendingClicksKey(shortKey), utf8(shortKey));
+      }
+      return null;
+    }));
+  }
 
-    Set<Object> activeUrlKeys = redisTemplate.opsForSet().members(ACTIVE_URLS);
-    if (activeUrlKeys == null) {
-      activeUrlKeys = Collections.emptySet();
-    }
+  private static Map<String, Long> clickDeltas(Map<String, String> taken) {
+    Map<String, Long> deltas = new HashMap<>(taken.size() * 2);
+    taken.forEach((shortKey, value) -> {
+      if (value != null) {
+        deltas.put(shortKey, Long.parseLong(value));
+      }
+    });
+    return deltas;
+  }
 
-    Set<Object> inactiveUrlKeys = new HashSet<>(allUrlKeys);
-    inactiveUrlKeys.removeAll(activeUrlKeys);
+  private int syncClickDeltas(Map<String, Long> deltas) {
+    if (deltas.isEmpty()) return 0;
 
-    if (!inactiveUrlKeys.isEmpty()) {
-      long deletedCount = redisTemplate.delete(Collections.singleton(String.valueOf(inactiveUrlKeys)));
-      log.info("Deleted {} inactive URL keys from the cache.", deletedCount);
+    List<ShortUrl> exhausted;
+    try {
+      exhausted = shortUrlJdbcRepository.addClickCounts(deltas);
+    } catch (RuntimeException e) {
+      log.warn("Failed to sync clicks for {} short keys, returning them to Redis", deltas.size(), e);
+      restoreClickDeltas(deltas);
+      return 0;
     }
-
-    redisTemplate.delete(ACTIVE_URLS);
+    linkLifecycleEngine.onExhausted(exhausted);
+    return deltas.size();
   }
 
-  @Transactional
-  @Scheduled(cron = "${scheduler.cron}")
-  public void syncClickCount() {
-    Set<String> clickKeys = redisTemplate.keys(SHORT_URL_CLICKS);
-
-    if (clickKeys.isEmpty()) return;
+  private void restoreClickDeltas(Map<String, Long> deltas) {
+    redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+      deltas.forEach((shortKey, delta) -> {
+        connection.stringCommands().incrBy(utf8(RedisKeys.CLICKS_PREFIX + shortKey), delta);
+        connection.setCommands().sAdd(pendingClicksKey(shortKey), utf8(shortKey));
+      });
+      return null;
+    });
+  }
 
-    List<String> shortKeys = new ArrayList<>(clickKeys.size());
+  private byte[] pendingClicksKey(String shortKey) {
+    return utf8(RedisKeys.pendingClicks(schedulerCoordinator.shardOf(shortKey)));
+  }
 
-    for (String key : clickKeys) {
-      shortKeys.add(key.replace(SHORT_URL_CLICKS, ""));
-    }
+  private static byte[] utf8(String value) {
+    return value.getBytes(StandardCharsets.UTF_8);
+  }
 
-    List<ShortUrl> shortUrlsToUpdate = shortUrlRepository.findAllByShortKeyIn(shortKeys);
-    List<Object> value = redisTemplate.opsForValue().multiGet(clickKeys);
-    Map<String, Integer> clickCounts = new HashMap<>();
+  @Scheduled(fixedDelayString = "${scheduler.hash-backfill-interval}")
+  public void backfillOriginalUrlHashes() {
+    if (!schedulerCoordinator.isLeader()) return;
 
-    for (int i = 0; i < shortUrlsToUpdate.size(); i++) {
-      clickCounts.put(shortKeys.get(i), Integer.parseInt(Objects.requireNonNull(value).get(i).toString()));
+    long lastId = 0;
+    long batches = 0;
+    while ((lastId = shortUrlJdbcRepository.backfillOriginalUrlHashes(lastId, batchSize)) >= 0) {
+      batches++;
     }
-
-    for (ShortUrl url : shortUrlsToUpdate) {
-      Integer count = clickCounts.get(url.getShortKey());
-      if (count != null) {
-        url.setClickCount(count);
-      }
+    if (batches > 0) {
+      log.info("Backfilled original URL hashes in {} batches.", batches);
     }
-
-    shortUrlRepository.saveAll(shortUrlsToUpdate);
-    redisTemplate.delete(clickKeys);
   }
 
-  private List<List<ShortUrl>> partition(List<ShortUrl> urls) {
-
-    if (urls == null || urls.isEmpty()) return Collections.emptyList();
-
-    List<List<ShortUrl>> partitions = new ArrayList<>();
-    int start = 0;
-    while (start < urls.size()) {
-      int end = Math.min(start + 100, urls.size());
-      partitions.add(urls.subList(start, end));
-      start = end;
+  /**
+   * Walks the keyspace with a SCAN cursor and hands matching keys over in batches of at most
+   * {@code batchSize}, so memory use does not depend on how many keys exist.
+   */
+  private void scanInBatches(String pattern, Consumer<List<String>> batchConsumer) {
+    ScanOptions options = ScanOptions.scanOptions()
+        .match(pattern)
+        .count(scanCount)
+        .build();
+
+    try (Cursor<String> cursor = redisTemplate.scan(options)) {
+      List<String> batch = new ArrayList<>(batchSize);
+      while (cursor.hasNext()) {
+        batch.add(cursor.next());
+        if (batch.size() == batchSize) {
+          batchConsumer.accept(batch);
+          batch = new ArrayList<>(batchSize);
+        }
+      }
+      if (!batch.isEmpty()) {
+        batchConsumer.accept(batch);
+      }
     }
-    return partitions;
   }
 }
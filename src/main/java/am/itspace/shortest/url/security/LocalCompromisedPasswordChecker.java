@@ -0,0 +1,113 @@
+package am.itspace.shortest.url.security;
+
+import org.springframework.security.authentication.password.CompromisedPasswordChecker;
+import org.springframework.security.authentication.password.CompromisedPasswordDecision;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Offline {@link CompromisedPasswordChecker} over a memory-mapped index of breached SHA-1 hashes.
+ * <p>
+ * The index is a flat file of raw {@value #RECORD_SIZE}-byte SHA-1 digests in ascending unsigned
+ * order, as written by {@link PwnedPasswordsIndexBuilder}. A check is one SHA-1 and a binary search
+ * of about 30 probes, all served from the page cache once the file is warm. Files larger than 2 GB
+ * are mapped in several segments.
+ */
+public class LocalCompromisedPasswordChecker implements CompromisedPasswordChecker {
+
+  public static final int RECORD_SIZE = 20;
+
+  private static final int RECORDS_PER_SEGMENT = Integer.MAX_VALUE / RECORD_SIZE;
+
+  private final MappedByteBuffer[] segments;
+  private final long recordCount;
+
+  public LocalCompromisedPasswordChecker(Path indexPath) {
+    try (FileChannel channel = FileChannel.open(indexPath, StandardOpenOption.READ)) {
+      long size = channel.size();
+      if (size % RECORD_SIZE != 0) {
+        throw new IllegalArgumentException("Index " + indexPath + " is not a whole number of " + RECORD_SIZE + "-byte records");
+      }
+      this.recordCount = size / RECORD_SIZE;
+      int segmentCount = (int) ((recordCount + RECORDS_PER_SEGMENT - 1) / RECORDS_PER_SEGMENT);
+      this.segments = new MappedByteBuffer[segmentCount];
+      for (int i = 0; i < segmentCount; i++) {
+        long position = (long) i * RECORDS_PER_SEGMENT * RECORD_SIZE;
+        segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(size - position, (long) RECORDS_PER_SEGMENT * RECORD_SIZE));
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Cannot open compromised password index " + indexPath, e);
+    }
+  }
+
+  @Override
+  public CompromisedPasswordDecision check(String password) {
+    if (password == null) {
+      return new CompromisedPasswordDecision(false);
+    }
+    return new CompromisedPasswordDecision(contains(sha1(password)));
+  }
+
+  public long size() {
+    return recordCount;
+  }
+
+  boolean contains(byte[] digest) {
+    long high0 = readLong(digest, 0);
+    long high1 = readLong(digest, 8);
+    int tail = readInt(digest, 16);
+
+    long low = 0;
+    long high = recordCount - 1;
+    while (low <= high) {
+      long mid = (low + high) >>> 1;
+      MappedByteBuffer segment = segments[(int) (mid / RECORDS_PER_SEGMENT)];
+      int offset = (int) (mid % RECORDS_PER_SEGMENT) * RECORD_SIZE;
+
+      int cmp = Long.compareUnsigned(segment.getLong(offset), high0);
+      if (cmp == 0) cmp = Long.compareUnsigned(segment.getLong(offset + 8), high1);
+      if (cmp == 0) cmp = Integer.compareUnsigned(segment.getInt(offset + 16), tail);
+
+      if (cmp < 0) {
+        low = mid + 1;
+      } else if (cmp > 0) {
+        high = mid - 1;
+      } else {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  static byte[] sha1(String password) {
+    try {
+      return MessageDigest.getInstance("SHA-1").digest(password.getBytes(StandardCharsets.UTF_8));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-1 is not available", e);
+    }
+  }
+
+  private static long readLong(byte[] bytes, int offset) {
+    long value = 0;
+    for (int i = 0; i < 8; i++) {
+      value = (value << 8) | (bytes[offset + i] & 0xFF);
+    }
+    return value;
+  }
+
+  private static int readInt(byte[] bytes, int offset) {
+    int value = 0;
+    for (int i = 0; i < 4; i++) {
+      value = (value << 8) | (bytes[offset + i] & 0xFF);
+    }
+    return value;
+  }
+}
@@ -0,0 +1,73 @@
+package am.itspace.shortest.url.security;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HexFormat;
+
+/**
+ * Converts the public Pwned Passwords SHA-1 dump ({@code HASH:COUNT} lines, ordered by hash) into
+ * the binary index read by {@link LocalCompromisedPasswordChecker}.
+ * <p>
+ * Usage: {@code PwnedPasswordsIndexBuilder <dump.txt> <index.bin> [minCount]}. Hashes seen fewer
+ * than {@code minCount} times are dropped to shrink the index. Input that is not sorted is rejected
+ * rather than silently producing an index the binary search cannot use.
+ */
+public final class PwnedPasswordsIndexBuilder {
+
+  private static final int HEX_LENGTH = LocalCompromisedPasswordChecker.RECORD_SIZE * 2;
+
+  private PwnedPasswordsIndexBuilder() {
+  }
+
+  public static void main(String[] args) throws IOException {
+    if (args.length < 2) {
+      System.err.println("Usage: PwnedPasswordsIndexBuilder <dump.txt> <index.bin> [minCount]");
+      System.exit(1);
+    }
+    long minCount = args.length > 2 ? Long.parseLong(args[2]) : 1;
+    try (BufferedReader reader = Files.newBufferedReader(Path.of(args[0]), StandardCharsets.UTF_8);
+         OutputStream out = new BufferedOutputStream(Files.newOutputStream(Path.of(args[1])), 1 << 20)) {
+      long written = build(reader, out, minCount);
+      System.out.printf("Wrote %d hashes to %s%n", written, args[1]);
+    }
+  }
+
+  public static long build(BufferedReader reader, OutputStream out, long minCount) throws IOException {
+    HexFormat hex = HexFormat.of();
+    byte[] previous = null;
+    long written = 0;
+    long lineNumber = 0;
+    String line;
+    while ((line = reader.readLine()) != null) {
+      lineNumber++;
+      line = line.strip();
+      if (line.isEmpty()) continue;
+
+      int separator = line.indexOf(':');
+      String hash = separator < 0 ? line : line.substring(0, separator);
+      if (hash.length() != HEX_LENGTH) {
+        throw new IllegalArgumentException("Line " + lineNumber + " does not start with a SHA-1 hash");
+      }
+      if (separator >= 0 && Long.parseLong(line.substring(separator + 1).strip()) < minCount) continue;
+
+      byte[] digest = hex.parseHex(hash.toLowerCase());
+      if (previous != null) {
+        int cmp = Arrays.compareUnsigned(previous, digest);
+        if (cmp == 0) continue;
+        if (cmp > 0) {
+          throw new IllegalArgumentException("Line " + lineNumber + " is out of order; the dump must be sorted by hash");
+        }
+      }
+      out.write(digest);
+      previous = digest;
+      written++;
+    }
+    return written;
+  }
+}
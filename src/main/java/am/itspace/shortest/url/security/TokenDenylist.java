@@ -0,0 +1,86 @@
+package am.itspace.shortest.url.security;
+
+import am.itspace.shortest.url.cache.LocalCache;
+import am.itspace.shortest.url.repository.TokenRepository;
+import am.itspace.shortest.url.util.RedisKeys;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Revoked access and refresh tokens, keyed by their {@code jti} claim. Each entry lives in Redis only for the
+ * token's remaining lifetime, since an expired token is rejected by signature verification anyway.
+ * <p>
+ * Lookups go through a short-lived local cache. Revocations are broadcast over pub/sub so every
+ * node marks the jti as revoked right away instead of waiting for its cached answer to expire.
+ * If Redis is unavailable the check falls back to the token table.
+ */
+@Slf4j
+@Component
+public class TokenDenylist implements MessageListener {
+
+  public static final String REVOCATION_CHANNEL = "jwt:revoked";
+
+  private final RedisTemplate<String, Object> redisTemplate;
+  private final TokenRepository tokenRepository;
+  private final LocalCache<String, Boolean> revocationStatus;
+
+  public TokenDenylist(RedisTemplate<String, Object> redisTemplate,
+                       TokenRepository tokenRepository,
+                       @Value("${jwt.denylist.local-maximum-size}") int localMaximumSize,
+                       @Value("${jwt.denylist.local-ttl}") Duration localTtl) {
+    this.redisTemplate = redisTemplate;
+    this.tokenRepository = tokenRepository;
+    this.revocationStatus = new LocalCache<>(localMaximumSize, localTtl);
+  }
+
+  public boolean isRevoked(String jti) {
+    Boolean cached = revocationStatus.get(jti);
+    if (cached != null) {
+      return cached;
+    }
+
+    boolean revoked;
+    try {
+      revoked = Boolean.TRUE.equals(redisTemplate.hasKey(RedisKeys.REVOKED_JTI_PREFIX + jti));
+    } catch (RuntimeException e) {
+      log.warn("Token denylist unavailable, checking the token table", e);
+      return tokenRepository.existsByJtiAndRevokedTrue(jti) || tokenRepository.existsByRefreshJtiAndRevokedTrue(jti);
+    }
+    revocationStatus.put(jti, revoked);
+    return revoked;
+  }
+
+  public void revoke(String jti, Instant expiresAt) {
+    if (jti == null) return;
+
+    revocationStatus.put(jti, true);
+    Duration remaining = expiresAt == null ? null : Duration.between(Instant.now(), expiresAt);
+    if (remaining != null && (remaining.isNegative() || remaining.isZero())) return;
+
+    try {
+      if (remaining == null) {
+        redisTemplate.opsForValue().set(RedisKeys.REVOKED_JTI_PREFIX + jti, Boolean.TRUE);
+      } else {
+        redisTemplate.opsForValue().set(RedisKeys.REVOKED_JTI_PREFIX + jti, Boolean.TRUE, remaining);
+      }
+      redisTemplate.convertAndSend(REVOCATION_CHANNEL, jti);
+    } catch (RuntimeException e) {
+      log.warn("Failed to add token {} to the denylist; the token table still marks it revoked", jti, e);
+    }
+  }
+
+  @Override
+  public void onMessage(Message message, byte[] pattern) {
+    Object jti = redisTemplate.getValueSerializer().deserialize(message.getBody());
+    if (jti != null) {
+      revocationStatus.put(jti.toString(), true);
+    }
+  }
+}
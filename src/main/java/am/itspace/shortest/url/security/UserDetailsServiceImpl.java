@@ -1,29 +1,80 @@
 package am.itspace.shortest.url.security;
 
+import am.itspace.shortest.url.cache.LocalCache;
+import am.itspace.shortest.url.cache.LocalCacheMetrics;
 import am.itspace.shortest.url.model.User;
 import am.itspace.shortest.url.repository.UserRepository;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.util.Optional;
 
+/**
+ * Resolves principals through a TTL cache of users keyed by email, so authenticated requests do not
+ * hit the database in the steady state. The cache holds the {@link User} and a fresh
+ * {@link CurrentUser} is built per call, so credential erasure on one principal never touches the
+ * cached entry. Call {@link #evict(String)} whenever a user changes; it is broadcast to all nodes.
+ */
+@Slf4j
 @Service
-@RequiredArgsConstructor
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, MessageListener {
+
+  public static final String INVALIDATION_CHANNEL = "user:invalidate";
 
   private final UserRepository userRepository;
+  private final RedisTemplate<String, Object> redisTemplate;
+  private final LocalCache<String, User> principalCache;
+
+  public UserDetailsServiceImpl(UserRepository userRepository,
+                                RedisTemplate<String, Object> redisTemplate,
+                                MeterRegistry meterRegistry,
+                                @Value("${security.principal-cache.maximum-size}") int maximumSize,
+                                @Value("${security.principal-cache.ttl}") Duration ttl) {
+    this.userRepository = userRepository;
+    this.redisTemplate = redisTemplate;
+    this.principalCache = LocalCacheMetrics.monitor(meterRegistry, new LocalCache<>(maximumSize, ttl), "principals");
+  }
 
   @Override
   public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+    User cached = principalCache.get(username);
+    if (cached != null) {
+      return new CurrentUser(cached);
+    }
+
     Optional<User> optionalUser = userRepository.findByEmail(username);
     if (optionalUser.isPresent()) {
       User user = optionalUser.get();
+      principalCache.put(username, user);
       return new CurrentUser(user);
     }
     throw new UsernameNotFoundException(username);
   }
 
+  public void evict(String username) {
+    principalCache.invalidate(username);
+    try {
+      redisTemplate.convertAndSend(INVALIDATION_CHANNEL, username);
+    } catch (RuntimeException e) {
+      log.warn("Failed to publish principal invalidation for {}", username, e);
+    }
+  }
+
+  @Override
+  public void onMessage(Message message, byte[] pattern) {
+    Object username = redisTemplate.getValueSerializer().deserialize(message.getBody());
+    if (username != null) {
+      principalCache.invalidate(username.toString());
+    }
+  }
+
 }
@@ -0,0 +1,13 @@
+package am.itspace.shortest.url.service;
+
+import am.itspace.shortest.url.dto.response.ClickTimeseriesResponse;
+import am.itspace.shortest.url.model.enums.RollupGranularity;
+
+import java.time.Instant;
+import java.util.Optional;
+
+public interface ClickStatsService {
+
+  Optional<ClickTimeseriesResponse> getTimeseries(String shortKey, RollupGranularity granularity, Instant from, Instant to);
+
+}
@@ -0,0 +1,14 @@
+package am.itspace.shortest.url.service;
+
+import am.itspace.shortest.url.model.enums.ImportFormat;
+import am.itspace.shortest.url.security.CurrentUser;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+
+public interface ShortUrlImportService {
+
+  void importUrls(Reader input, ImportFormat format, CurrentUser currentUser, Writer output) throws IOException;
+
+}
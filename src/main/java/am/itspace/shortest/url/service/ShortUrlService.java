@@ -1,20 +1,24 @@
 package am.itspace.shortest.url.service;
 
+import am.itspace.shortest.url.dto.request.BulkShortUrlRequest;
 import am.itspace.shortest.url.dto.request.ShortUrlRequest;
 import am.itspace.shortest.url.dto.response.ShortUrlResponse;
 import am.itspace.shortest.url.dto.response.ShortUrlStatusAndCountResponse;
 import am.itspace.shortest.url.security.CurrentUser;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface ShortUrlService {
 
   ShortUrlResponse createShortUrl(ShortUrlRequest request, CurrentUser currentUser);
 
+  List<ShortUrlResponse> createShortUrls(BulkShortUrlRequest request, CurrentUser currentUser);
+
   String getOriginalUrl(String shortKey);
 
-  void updateClickCount(String shortKey);
+  void updateClickCount(String shortKey, String referrer, String userAgent, String remoteAddress);
 
-  Optional<ShortUrlStatusAndCountResponse> getStatusAndClickCount(String shortKey);
+  Optional<ShortUrlStatusAndCountResponse> getStatusAndClickCount(String shortKey, int uniqueVisitorDays);
 
 }
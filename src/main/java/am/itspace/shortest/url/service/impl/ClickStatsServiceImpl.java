@@ -0,0 +1,70 @@
+package am.itspace.shortest.url.service.impl;
+
+import am.itspace.shortest.url.dto.response.ClickTimeseriesPoint;
+import am.itspace.shortest.url.dto.response.ClickTimeseriesResponse;
+import am.itspace.shortest.url.model.ClickRollup;
+import am.itspace.shortest.url.model.enums.RollupGranularity;
+import am.itspace.shortest.url.repository.ClickRollupRepository;
+import am.itspace.shortest.url.repository.ShortUrlRepository;
+import am.itspace.shortest.url.service.ClickStatsService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+@Service
+@RequiredArgsConstructor
+public class ClickStatsServiceImpl implements ClickStatsService {
+
+  static final int MAX_POINTS = 1440;
+
+  private final ShortUrlRepository shortUrlRepository;
+  private final ClickRollupRepository clickRollupRepository;
+
+  /**
+   * Returns one point per bucket between {@code from} and {@code to}, with zero for buckets that
+   * saw no clicks. Missing bounds default to the granularity's window ending now, and ranges wider
+   * than {@value #MAX_POINTS} buckets are cut at the start.
+   */
+  @Override
+  public Optional<ClickTimeseriesResponse> getTimeseries(String shortKey, RollupGranularity granularity, Instant from, Instant to) {
+    if (!shortUrlRepository.existsByShortKey(shortKey)) {
+      return Optional.empty();
+    }
+
+    Instant end = granularity.bucketStart(to != null ? to : Instant.now());
+    Instant start = granularity.bucketStart(from != null ? from : end.minus(granularity.defaultWindow()));
+    Instant earliest = end.minus(granularity.step().multipliedBy(MAX_POINTS - 1));
+    if (start.isBefore(earliest)) {
+      start = earliest;
+    }
+
+    Map<Instant, Long> clicksByBucket = new HashMap<>();
+    if (!start.isAfter(end)) {
+      for (ClickRollup rollup : clickRollupRepository.findAllByShortKeyAndGranularityAndBucketStartBetweenOrderByBucketStart(shortKey, granularity, start, end)) {
+        clicksByBucket.put(rollup.getBucketStart(), rollup.getClickCount());
+      }
+    }
+
+    List<ClickTimeseriesPoint> points = new ArrayList<>();
+    for (Instant bucket = start; !bucket.isAfter(end); bucket = bucket.plus(granularity.step())) {
+      points.add(ClickTimeseriesPoint.builder()
+          .bucketStart(bucket)
+          .clicks(clicksByBucket.getOrDefault(bucket, 0L))
+          .build());
+    }
+
+    return Optional.of(ClickTimeseriesResponse.builder()
+        .shortKey(shortKey)
+        .granularity(granularity)
+        .from(start)
+        .to(end)
+        .points(points)
+        .build());
+  }
+}
@@ -2,6 +2,9 @@ package am.itspace.shortest.url.service.impl;
 
 import am.itspace.shortest.url.model.Token;
 import am.itspace.shortest.url.repository.TokenRepository;
+import am.itspace.shortest.url.security.TokenDenylist;
+import am.itspace.shortest.url.util.jwt.JwtTokenVerifier;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
@@ -14,6 +17,8 @@ import org.springframework.stereotype.Service;
 public class LogoutService implements LogoutHandler {
 
   private final TokenRepository tokenRepository;
+  private final TokenDenylist tokenDenylist;
+  private final JwtTokenVerifier jwtTokenVerifier;
 
   @Override
   public void logout(HttpServletRequest request, HttpServletResponse response, Authentication authentication) {
@@ -25,10 +30,18 @@ public class LogoutService implements LogoutHandler {
     }
     token = requestHeader.substring(7);
 
-    Token optionalToken = tokenRepository.findByAccessToken(token)
+    Claims claims = jwtTokenVerifier.verify(token);
+    String jti = claims == null ? null : claims.getId();
+    if (jti != null) {
+      tokenDenylist.revoke(jti, claims.getExpiration().toInstant());
+    }
+    jwtTokenVerifier.evict(token);
+
+    Token optionalToken = (jti != null ? tokenRepository.findByJti(jti) : tokenRepository.findByAccessToken(token))
         .orElse(null);
 
     if (optionalToken != null) {
+      tokenDenylist.revoke(optionalToken.getRefreshJti(), optionalToken.getRefreshExpiresAt());
       optionalToken.setRevoked(true);
       optionalToken.setExpired(true);
       tokenRepository.save(optionalToken);
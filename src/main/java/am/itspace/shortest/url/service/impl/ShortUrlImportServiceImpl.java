@@ -0,0 +1,130 @@
+package am.itspace.shortest.url.service.impl;
+
+import am.itspace.shortest.url.dto.request.BulkShortUrlRequest;
+import am.itspace.shortest.url.dto.request.ShortUrlRequest;
+import am.itspace.shortest.url.dto.response.ImportResultResponse;
+import am.itspace.shortest.url.dto.response.ShortUrlResponse;
+import am.itspace.shortest.url.exception.UserNotFoundException;
+import am.itspace.shortest.url.model.enums.ImportFormat;
+import am.itspace.shortest.url.repository.UserRepository;
+import am.itspace.shortest.url.security.CurrentUser;
+import am.itspace.shortest.url.service.ShortUrlImportService;
+import am.itspace.shortest.url.service.ShortUrlService;
+import am.itspace.shortest.url.util.UrlImportReader;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Imports URLs by pulling a fixed number of lines from the input, writing them through the bulk
+ * path and flushing their results before reading further. The request body is never read faster
+ * than the database and Redis accept writes, so memory stays at one chunk whatever the file size.
+ */
+@Slf4j
+@Service
+public class ShortUrlImportServiceImpl implements ShortUrlImportService {
+
+  private static final int MAX_LINE_LENGTH = 8192;
+
+  private final ShortUrlService shortUrlService;
+  private final UserRepository userRepository;
+  private final Validator validator;
+  private final ObjectMapper objectMapper;
+  private final int chunkSize;
+
+  public ShortUrlImportServiceImpl(ShortUrlService shortUrlService,
+                                   UserRepository userRepository,
+                                   Validator validator,
+                                   ObjectMapper objectMapper,
+                                   @Value("${url-import.chunk-size}") int chunkSize) {
+    this.shortUrlService = shortUrlService;
+    this.userRepository = userRepository;
+    this.validator = validator;
+    this.objectMapper = objectMapper;
+    this.chunkSize = Math.min(chunkSize, BulkShortUrlRequest.MAX_URLS);
+  }
+
+  @Override
+  public void importUrls(Reader input, ImportFormat format, CurrentUser currentUser, Writer output) throws IOException {
+    // once the first chunk is flushed the status is committed, so this is the last point an
+    // unknown user can still be answered with an error status
+    if (currentUser == null || currentUser.getUser() == null || currentUser.getUser().getId() == null
+        || !userRepository.existsById(currentUser.getUser().getId())) {
+      throw new UserNotFoundException("User not found");
+    }
+
+    UrlImportReader reader = new UrlImportReader(input, format, MAX_LINE_LENGTH, objectMapper);
+    List<UrlImportReader.Line> chunk = new ArrayList<>(chunkSize);
+
+    UrlImportReader.Line line;
+    while ((line = reader.next()) != null) {
+      chunk.add(validate(line));
+      if (chunk.size() == chunkSize) {
+        writeChunk(chunk, currentUser, output);
+        chunk.clear();
+      }
+    }
+    writeChunk(chunk, currentUser, output);
+  }
+
+  private UrlImportReader.Line validate(UrlImportReader.Line line) {
+    if (line.error() != null) return line;
+
+    Set<ConstraintViolation<ShortUrlRequest>> violations = validator.validate(toRequest(line));
+    if (violations.isEmpty()) return line;
+    return new UrlImportReader.Line(line.number(), line.originalUrl(), violations.iterator().next().getMessage());
+  }
+
+  private void writeChunk(List<UrlImportReader.Line> chunk, CurrentUser currentUser, Writer output) throws IOException {
+    if (chunk.isEmpty()) return;
+
+    List<ShortUrlRequest> requests = new ArrayList<>(chunk.size());
+    for (UrlImportReader.Line line : chunk) {
+      if (line.error() == null) {
+        requests.add(toRequest(line));
+      }
+    }
+
+    List<ShortUrlResponse> created = List.of();
+    String chunkError = null;
+    if (!requests.isEmpty()) {
+      try {
+        created = shortUrlService.createShortUrls(BulkShortUrlRequest.builder().urls(requests).build(), currentUser);
+      } catch (RuntimeException e) {
+        log.warn("Failed to import a chunk of {} URLs", requests.size(), e);
+        chunkError = "Failed to store URL";
+      }
+    }
+
+    int next = 0;
+    for (UrlImportReader.Line line : chunk) {
+      ImportResultResponse.ImportResultResponseBuilder result = ImportResultResponse.builder()
+          .line(line.number())
+          .originalUrl(line.originalUrl());
+      if (line.error() != null) {
+        result.error(line.error());
+      } else if (chunkError != null) {
+        result.error(chunkError);
+      } else {
+        result.shortKey(created.get(next++).getShortKey());
+      }
+      output.write(objectMapper.writeValueAsString(result.build()));
+      output.write('\n');
+    }
+    output.flush();
+  }
+
+  private static ShortUrlRequest toRequest(UrlImportReader.Line line) {
+    return ShortUrlRequest.builder().originalUrl(line.originalUrl()).build();
+  }
+}
@@ -1,25 +1,39 @@
 package am.itspace.shortest.url.service.impl;
 
+import am.itspace.shortest.url.cache.ShortUrlNearCache;
+import am.itspace.shortest.url.cache.filter.ShortKeyFilter;
+import am.itspace.shortest.url.click.ClickAggregator;
+import am.itspace.shortest.url.click.UniqueVisitorStore;
+import am.itspace.shortest.url.dto.request.BulkShortUrlRequest;
 import am.itspace.shortest.url.dto.request.ShortUrlRequest;
 import am.itspace.shortest.url.dto.response.ShortUrlResponse;
 import am.itspace.shortest.url.dto.response.ShortUrlStatusAndCountResponse;
 import am.itspace.shortest.url.exception.UserNotFoundException;
+import am.itspace.shortest.url.keygen.ShortKeyGenerator;
+import am.itspace.shortest.url.lifecycle.LinkLifecycleEngine;
 import am.itspace.shortest.url.mapper.ShortUrlMapper;
 import am.itspace.shortest.url.model.ShortUrl;
 import am.itspace.shortest.url.model.User;
+import am.itspace.shortest.url.model.enums.UrlStatus;
+import am.itspace.shortest.url.repository.ShortUrlJdbcRepository;
 import am.itspace.shortest.url.repository.ShortUrlRepository;
 import am.itspace.shortest.url.repository.UserRepository;
 import am.itspace.shortest.url.security.CurrentUser;
 import am.itspace.shortest.url.service.ShortUrlService;
-import am.itspace.shortest.url.util.ShortUrlUtil;
+import am.itspace.shortest.url.util.RedisKeys;
+import am.itspace.shortest.url.util.UrlHashUtil;
 import lombok.RequiredArgsConstructor;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.ValueOperations;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Duration;
-import java.util.Optional;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
 
 @Service
 @RequiredArgsConstructor
@@ -28,21 +42,25 @@ public class ShortUrlServiceImpl implements ShortUrlService {
   private final ShortUrlRepository shortUrlRepository;
   private final RedisTemplate<String, Object> redisTemplate;
   private final UserRepository userRepository;
+  private final ShortUrlNearCache shortUrlNearCache;
+  private final ShortKeyGenerator shortKeyGenerator;
+  private final ShortKeyFilter shortKeyFilter;
+  private final ClickAggregator clickAggregator;
+  private final ShortUrlJdbcRepository shortUrlJdbcRepository;
+  private final UniqueVisitorStore uniqueVisitorStore;
+  private final LinkLifecycleEngine linkLifecycleEngine;
 
-  private static final String KEY_PREFIX = "short_url_";
-  private static final String BY_ORIGINAL_PREFIX = KEY_PREFIX + "by_orig:";
-  private static final String BY_KEY_PREFIX = KEY_PREFIX + "by_key:";
-  private static final Duration CACHE_TTL = Duration.ofHours(24);
-  private static final String BY_KEY_CLICK_COUNT_PREFIX = "shortUrl:clicks:";
-  private static final String ACTIVE_URLS = "active.urls";
+  private static final String BY_KEY_PREFIX = RedisKeys.BY_KEY_PREFIX;
+  private static final Duration CACHE_TTL = RedisKeys.CACHE_TTL;
+  private static final int MAX_KEY_ATTEMPTS = 5;
 
 
   @Override
   public ShortUrlResponse createShortUrl(ShortUrlRequest request, CurrentUser currentUser) {
 
-    ShortUrl findShortUrlInCache = (ShortUrl) redisTemplate.opsForValue().get(BY_ORIGINAL_PREFIX + request.getOriginalUrl());
+    ShortUrl findShortUrlInCache = (ShortUrl) redisTemplate.opsForValue().get(RedisKeys.byOriginal(request.getOriginalUrl()));
 
-    if (findShortUrlInCache != null) {
+    if (findShortUrlInCache != null && request.getOriginalUrl().equals(findShortUrlInCache.getOriginalUrl())) {
       return ShortUrlMapper.toShortUrlResponse(findShortUrlInCache);
     }
 
@@ -53,7 +71,6 @@ public class ShortUrlServiceImpl implements ShortUrlService {
     User user = userRepository.findById(currentUser.getUser().getId())
         .orElseThrow(() -> new UserNotFoundException("User not found"));
 
-    String originalUrlKey = BY_ORIGINAL_PREFIX + request.getOriginalUrl();
     Optional<ShortUrl> existing = shortUrlRepository.findByOriginalUrl(request.getOriginalUrl());
 
     if (existing.isPresent()) {
@@ -62,66 +79,250 @@ public class ShortUrlServiceImpl implements ShortUrlService {
       return ShortUrlMapper.toShortUrlResponse(found);
     }
 
-    String shortKey = ShortUrlUtil.generateKey.get();
+    ShortUrl savedUrl = null;
+    for (int attempt = 1; savedUrl == null; attempt++) {
+      try {
+        savedUrl = shortUrlRepository.save(newShortUrl(request, nextShortKey(), user.getId()));
+      } catch (DataIntegrityViolationException e) {
+        // another request stored the same URL after the lookup above
+        Optional<ShortUrl> stored = shortUrlRepository.findByOriginalUrl(request.getOriginalUrl());
+        if (stored.isPresent()) {
+          cacheBoth(stored.get());
+          return ShortUrlMapper.toShortUrlResponse(stored.get());
+        }
+        // otherwise the key was taken, e.g. from a block leased again after Redis lost the sequence
+        if (attempt == MAX_KEY_ATTEMPTS) {
+          throw e;
+        }
+      }
+    }
+    shortKeyFilter.add(savedUrl.getShortKey());
+    cacheBoth(savedUrl);
+    linkLifecycleEngine.track(savedUrl);
 
-    ShortUrl shortUrl = ShortUrl.builder()
-        .originalUrl(request.getOriginalUrl())
-        .shortKey(shortKey)
-        .isActive(false)
-        .clickCount(0)
-        .userId(user.getId())
-        .build();
+    return ShortUrlMapper.toShortUrlResponse(savedUrl);
+  }
 
-    ShortUrl savedUrl = shortUrlRepository.save(shortUrl);
+  @Override
+  public List<ShortUrlResponse> createShortUrls(BulkShortUrlRequest request, CurrentUser currentUser) {
+    if (currentUser == null || currentUser.getUser() == null || currentUser.getUser().getId() == null) {
+      throw new UserNotFoundException("User not found");
+    }
 
-    ShortUrl cachedShortUrl = (ShortUrl) redisTemplate.opsForValue().get(originalUrlKey);
+    User user = userRepository.findById(currentUser.getUser().getId())
+        .orElseThrow(() -> new UserNotFoundException("User not found"));
 
-    if (cachedShortUrl != null) {
-      return ShortUrlMapper.toShortUrlResponse(cachedShortUrl);
+    Map<String, ShortUrlRequest> originalUrls = new LinkedHashMap<>();
+    for (ShortUrlRequest url : request.getUrls()) {
+      originalUrls.putIfAbsent(url.getOriginalUrl(), url);
     }
-    cacheBoth(savedUrl);
 
-    redisTemplate.opsForValue().set(KEY_PREFIX + shortKey, savedUrl);
-    redisTemplate.opsForValue().set(originalUrlKey, savedUrl);
+    Map<String, ShortUrl> byOriginalUrl = new HashMap<>(originalUrls.size() * 2);
+    List<byte[]> originalUrlHashes = originalUrls.keySet().stream().map(UrlHashUtil::hash).toList();
+    for (ShortUrl existing : shortUrlRepository.findAllByOriginalUrlHashIn(originalUrlHashes)) {
+      byOriginalUrl.putIfAbsent(existing.getOriginalUrl(), existing);
+    }
 
-    return ShortUrlMapper.toShortUrlResponse(savedUrl);
+    List<String> missing = new ArrayList<>();
+    for (String originalUrl : originalUrls.keySet()) {
+      if (!byOriginalUrl.containsKey(originalUrl)) {
+        missing.add(originalUrl);
+      }
+    }
+    if (!missing.isEmpty()) {
+      for (ShortUrl existing : shortUrlRepository.findAllUnhashedByOriginalUrlIn(missing)) {
+        if (byOriginalUrl.putIfAbsent(existing.getOriginalUrl(), existing) == null) {
+          missing.remove(existing.getOriginalUrl());
+        }
+      }
+    }
+
+    List<String> shortKeys = nextShortKeys(missing.size());
+    List<ShortUrl> created = new ArrayList<>(missing.size());
+    for (int i = 0; i < missing.size(); i++) {
+      ShortUrl shortUrl = newShortUrl(originalUrls.get(missing.get(i)), shortKeys.get(i), user.getId());
+      created.add(shortUrl);
+      byOriginalUrl.put(shortUrl.getOriginalUrl(), shortUrl);
+    }
+
+    List<ShortUrl> skipped = shortUrlJdbcRepository.insertAll(created);
+    if (!skipped.isEmpty()) {
+      created.removeAll(skipped);
+      readConcurrentlyStored(skipped, byOriginalUrl);
+    }
+    created.forEach(shortUrl -> shortKeyFilter.add(shortUrl.getShortKey()));
+    cacheAll(byOriginalUrl.values());
+    created.forEach(linkLifecycleEngine::track);
+
+    List<ShortUrlResponse> responses = new ArrayList<>(request.getUrls().size());
+    for (ShortUrlRequest url : request.getUrls()) {
+      responses.add(ShortUrlMapper.toShortUrlResponse(byOriginalUrl.get(url.getOriginalUrl())));
+    }
+    return responses;
+  }
+
+  /**
+   * Replaces URLs another request stored between our lookup and insert with the rows it stored.
+   */
+  private void readConcurrentlyStored(List<ShortUrl> skipped, Map<String, ShortUrl> byOriginalUrl) {
+    List<byte[]> hashes = skipped.stream().map(shortUrl -> UrlHashUtil.hash(shortUrl.getOriginalUrl())).toList();
+    for (ShortUrl stored : shortUrlRepository.findAllByOriginalUrlHashIn(hashes)) {
+      byOriginalUrl.replace(stored.getOriginalUrl(), stored);
+    }
+    for (ShortUrl shortUrl : skipped) {
+      if (byOriginalUrl.get(shortUrl.getOriginalUrl()) == shortUrl) {
+        throw new IllegalStateException("Could not store or find " + shortUrl.getOriginalUrl());
+      }
+    }
   }
 
   @Override
-  @Cacheable(cacheNames = "shortUrl", key = "#shortKey")
   public String getOriginalUrl(String shortKey) {
-    String clickCountKey = BY_KEY_CLICK_COUNT_PREFIX + shortKey;
+    ShortUrl local = shortUrlNearCache.get(shortKey);
+    if (local != null) {
+      return redirectTarget(local);
+    }
 
     ShortUrl cached = (ShortUrl) redisTemplate.opsForValue().get(BY_KEY_PREFIX + shortKey);
     if (cached != null) {
-      redisTemplate.opsForValue().increment(clickCountKey);
-      return cached.getOriginalUrl();
+      shortUrlNearCache.put(cached);
+      return redirectTarget(cached);
+    }
+
+    // only guards the database: a new key is in Redis before any other node can miss on it, so a
+    // filter that has not heard of the key yet cannot turn a valid link into a 404
+    if (!shortKeyFilter.mightContain(shortKey)) {
+      return null;
     }
 
     return shortUrlRepository.findByShortKey(shortKey)
-        .map(ShortUrl::getOriginalUrl)
+        .map(shortUrl -> {
+          cacheBoth(shortUrl);
+          return redirectTarget(shortUrl);
+        })
         .orElse(null);
   }
 
+  /**
+   * Answers from the state carried by the entry itself, so links that are not yet active, expired
+   * or out of clicks stop redirecting without another lookup.
+   */
+  private static String redirectTarget(ShortUrl shortUrl) {
+    return shortUrl.isRedirectable(Instant.now()) ? shortUrl.getOriginalUrl() : null;
+  }
+
   @Override
-  @Transactional
-  public void updateClickCount(String shortKey) {
-    redisTemplate.opsForValue().increment(KEY_PREFIX + shortKey);
-    redisTemplate.opsForSet().add(ACTIVE_URLS, shortKey);
+  public void updateClickCount(String shortKey, String referrer, String userAgent, String remoteAddress) {
+    clickAggregator.record(shortKey, referrer, userAgent, remoteAddress);
   }
 
   @Override
-  public Optional<ShortUrlStatusAndCountResponse> getStatusAndClickCount(String shortKey) {
+  public Optional<ShortUrlStatusAndCountResponse> getStatusAndClickCount(String shortKey, int uniqueVisitorDays) {
     return shortUrlRepository.findByShortKey(shortKey)
-        .map(shortUrl -> ShortUrlMapper.toStatusResponse(shortUrl));
+        .map(shortUrl -> {
+          int days = uniqueVisitorStore.effectiveDays(uniqueVisitorDays);
+          ShortUrlStatusAndCountResponse response = ShortUrlMapper.toStatusResponse(shortUrl);
+          response.setUniqueVisitors(uniqueVisitorStore.estimate(shortKey, days));
+          response.setUniqueVisitorDays(days);
+          return response;
+        });
+  }
+
+  /**
+   * Lifecycle options only apply when the link is created; a URL that is already shortened keeps
+   * its existing link and state.
+   */
+  private static ShortUrl newShortUrl(ShortUrlRequest request, String shortKey, Long userId) {
+    Instant activatesAt = micros(request.getActivatesAt());
+    UrlStatus status = activatesAt == null ? UrlStatus.ACTIVE : UrlStatus.SCHEDULED;
+    return ShortUrl.builder()
+        .originalUrl(request.getOriginalUrl())
+        .shortKey(shortKey)
+        .isActive(status == UrlStatus.ACTIVE)
+        .status(status)
+        .activatesAt(activatesAt)
+        .expiresAt(micros(request.getExpiresAt()))
+        .maxClicks(request.getMaxClicks())
+        .clickCount(0L)
+        .userId(userId)
+        .build();
+  }
+
+  private static Instant micros(Instant instant) {
+    return instant == null ? null : instant.truncatedTo(ChronoUnit.MICROS);
+  }
+
+  private String nextShortKey() {
+    String shortKey = shortKeyGenerator.nextKey();
+    if (shortKeyGenerator.isCollisionFree()) {
+      return shortKey;
+    }
+
+    int attempts = 1;
+    while (shortUrlRepository.existsByShortKey(shortKey)) {
+      if (++attempts > MAX_KEY_ATTEMPTS) {
+        throw new IllegalStateException("Could not generate a unique short key after " + MAX_KEY_ATTEMPTS + " attempts");
+      }
+      shortKey = shortKeyGenerator.nextKey();
+    }
+    return shortKey;
+  }
+
+  /**
+   * Generates {@code count} keys, checking candidates against the table in one query per round
+   * instead of one probe per key when the generator can collide.
+   */
+  private List<String> nextShortKeys(int count) {
+    Set<String> shortKeys = new LinkedHashSet<>(count * 2);
+    for (int attempt = 0; shortKeys.size() < count; attempt++) {
+      if (attempt == MAX_KEY_ATTEMPTS) {
+        throw new IllegalStateException("Could not generate " + count + " unique short keys after " + MAX_KEY_ATTEMPTS + " attempts");
+      }
+
+      Set<String> candidates = new LinkedHashSet<>();
+      while (shortKeys.size() + candidates.size() < count) {
+        String candidate = shortKeyGenerator.nextKey();
+        if (!shortKeys.contains(candidate)) {
+          candidates.add(candidate);
+        }
+      }
+
+      if (!shortKeyGenerator.isCollisionFree()) {
+        candidates.removeAll(shortUrlRepository.findExistingShortKeys(candidates));
+      }
+      shortKeys.addAll(candidates);
+    }
+    return new ArrayList<>(shortKeys);
+  }
+
+  /**
+   * Writes both cache entries for every URL in one pipeline. The near cache is left to fill on
+   * redirect so a large import does not push out the hot keys.
+   */
+  private void cacheAll(Collection<ShortUrl> shortUrls) {
+    if (shortUrls.isEmpty()) return;
+
+    redisTemplate.executePipelined(new SessionCallback<Object>() {
+      @Override
+      @SuppressWarnings("unchecked")
+      public Object execute(RedisOperations operations) {
+        ValueOperations<String, Object> valueOperations = operations.opsForValue();
+        for (ShortUrl shortUrl : shortUrls) {
+          valueOperations.set(BY_KEY_PREFIX + shortUrl.getShortKey(), shortUrl, CACHE_TTL);
+          valueOperations.set(RedisKeys.byOriginal(shortUrl.getOriginalUrl()), shortUrl, CACHE_TTL);
+        }
+        return null;
+      }
+    });
   }
 
   private void cacheBoth(ShortUrl shortUrl) {
     String byKey = BY_KEY_PREFIX + shortUrl.getShortKey();
-    String byOrig = BY_ORIGINAL_PREFIX + shortUrl.getOriginalUrl();
+    String byOrig = RedisKeys.byOriginal(shortUrl.getOriginalUrl());
 
     redisTemplate.opsForValue().set(byKey, shortUrl, CACHE_TTL);
     redisTemplate.opsForValue().set(byOrig, shortUrl, CACHE_TTL);
+    shortUrlNearCache.put(shortUrl);
   }
 
 }
@@ -12,11 +12,15 @@ import am.itspace.shortest.url.model.Token;
 import am.itspace.shortest.url.model.User;
 import am.itspace.shortest.url.model.enums.Role;
 import am.itspace.shortest.url.model.enums.TokenType;
+import am.itspace.shortest.url.repository.ShortUrlJdbcRepository;
 import am.itspace.shortest.url.repository.ShortUrlRepository;
 import am.itspace.shortest.url.repository.TokenRepository;
 import am.itspace.shortest.url.repository.UserRepository;
+import am.itspace.shortest.url.security.TokenDenylist;
+import am.itspace.shortest.url.security.UserDetailsServiceImpl;
 import am.itspace.shortest.url.service.UserService;
 import am.itspace.shortest.url.util.jwt.JwtTokenUtil;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
@@ -40,7 +44,10 @@ public class UserServiceImpl implements UserService {
   private final PasswordEncoder passwordEncoder;
   private final TokenRepository tokenRepository;
   private final ShortUrlRepository shortUrlRepository;
+  private final ShortUrlJdbcRepository shortUrlJdbcRepository;
   private final CompromisedPasswordChecker compromisedPasswordChecker;
+  private final TokenDenylist tokenDenylist;
+  private final UserDetailsServiceImpl userDetailsService;
 
   @Override
   @Transactional
@@ -51,8 +58,7 @@ public class UserServiceImpl implements UserService {
 
     final String encodedPassword = passwordEncoder.encode(request.getPassword());
 
-    ShortUrl shortUrl = shortUrlRepository.findByOriginalUrl(request.getOriginalUrl())
-        .orElseGet(() -> shortUrlRepository.save(ShortUrl.builder().originalUrl(request.getOriginalUrl()).build()));
+    ShortUrl shortUrl = findOrStoreShortUrl(request.getOriginalUrl());
 
     User user = User.builder()
         .firstName(request.getFirstName())
@@ -93,6 +99,12 @@ public class UserServiceImpl implements UserService {
     if (decision.isCompromised())
       throw new CompromisedPasswordException("The provided password is compromised and cannot be used.");
 
+    if (passwordEncoder.upgradeEncoding(user.getPassword())) {
+      user.setPassword(passwordEncoder.encode(request.getPassword()));
+      userRepository.save(user);
+      userDetailsService.evict(user.getEmail());
+    }
+
     final String accessToken = jwtTokenUtil.generateToken(user.getEmail());
     final String refreshToken = jwtTokenUtil.refreshToken(accessToken);
 
@@ -110,17 +122,18 @@ public class UserServiceImpl implements UserService {
   @Override
   public RefreshTokenResponse refreshToken(HttpServletRequest request, HttpServletResponse response) {
     String header = request.getHeader(HttpHeaders.AUTHORIZATION);
-    if (header == null && !header.startsWith("Bearer ")) {
+    if (header == null || !header.startsWith("Bearer ")) {
       return null;
     }
 
     String token = header.substring(7);
-    String username = jwtTokenUtil.getUsernameFromToken(token);
+    Claims claims = jwtTokenUtil.parseClaims(token);
+    String username = claims.getSubject();
 
     User user = userRepository.findByEmail(username)
         .orElseThrow(() -> new RuntimeException("User with email " + username + " not found"));
 
-    if (jwtTokenUtil.validateToken(token, username)) {
+    if (isRefreshTokenValid(token, claims)) {
 
       final String accessToken = jwtTokenUtil.generateToken(user.getEmail());
       final String refreshToken = jwtTokenUtil.refreshToken(accessToken);
@@ -138,6 +151,29 @@ public class UserServiceImpl implements UserService {
     return null;
   }
 
+  /**
+   * Another registration can store the same URL between our lookup and insert; the insert then
+   * does nothing and the re-read returns that row, without aborting this transaction.
+   */
+  private ShortUrl findOrStoreShortUrl(String originalUrl) {
+    return shortUrlRepository.findByOriginalUrl(originalUrl).orElseGet(() -> {
+      shortUrlJdbcRepository.insertOriginalUrlIfAbsent(originalUrl);
+      return shortUrlRepository.findByOriginalUrl(originalUrl)
+          .orElseThrow(() -> new IllegalStateException("Could not store or find " + originalUrl));
+    });
+  }
+
+  private boolean isRefreshTokenValid(String token, Claims claims) {
+    String tokenUse = JwtTokenUtil.getTokenUse(claims);
+    if (tokenUse == null) {
+      // issued before token_use was added, when the refresh jti was not stored
+      return tokenRepository.findByRefreshToken(token)
+          .map(stored -> !stored.isRevoked())
+          .orElse(false);
+    }
+    return JwtTokenUtil.REFRESH_TOKEN.equals(tokenUse) && !tokenDenylist.isRevoked(claims.getId());
+  }
+
   public void revokeAllUserTokens(User user) {
     List<Token> validUserTokens = this.tokenRepository.findAllValidTokensByUserId(user.getId());
 
@@ -146,16 +182,25 @@ public class UserServiceImpl implements UserService {
     validUserTokens.forEach(token -> {
       token.setRevoked(true);
       token.setExpired(true);
+      tokenDenylist.revoke(token.getJti(), token.getExpiresAt());
+      tokenDenylist.revoke(token.getRefreshJti(), token.getRefreshExpiresAt());
     });
 
     this.tokenRepository.saveAll(validUserTokens);
   }
 
   public void saveUserToken(User user, String accessToken, String refreshToken) {
+    Claims claims = accessToken == null ? null : jwtTokenUtil.parseClaims(accessToken);
+    Claims refreshClaims = refreshToken == null ? null : jwtTokenUtil.parseClaims(refreshToken);
+
     Token token = Token.builder()
         .user(user)
         .accessToken(accessToken)
         .refreshToken(refreshToken)
+        .jti(claims == null ? null : claims.getId())
+        .expiresAt(claims == null || claims.getExpiration() == null ? null : claims.getExpiration().toInstant())
+        .refreshJti(refreshClaims == null ? null : refreshClaims.getId())
+        .refreshExpiresAt(refreshClaims == null || refreshClaims.getExpiration() == null ? null : refreshClaims.getExpiration().toInstant())
         .type(TokenType.BEARER)
         .isExpired(false)
         .revoked(false)
@@ -0,0 +1,56 @@
+package am.itspace.shortest.url.util;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Redis keys shared between the request path and the scheduled jobs.
+ */
+public final class RedisKeys {
+
+  public static final String KEY_PREFIX = "short_url_";
+  public static final String BY_ORIGINAL_PREFIX = KEY_PREFIX + "by_orig:";
+  public static final String BY_KEY_PREFIX = KEY_PREFIX + "by_key:";
+  public static final String CLICKS_PREFIX = "short_url:clicks:";
+  public static final String PENDING_CLICKS_PREFIX = "short_url:pending_clicks:";
+  public static final String ACTIVE_URLS = "active.urls";
+  public static final String REVOKED_JTI_PREFIX = "jwt:revoked:";
+  public static final String CLICK_EVENTS = "click:events";
+  public static final String UNIQUE_VISITORS_PREFIX = "short_url:uv:";
+  public static final Duration CACHE_TTL = Duration.ofHours(24);
+
+  private RedisKeys() {
+  }
+
+  public static String byOriginal(String originalUrl) {
+    return BY_ORIGINAL_PREFIX + UrlHashUtil.hashKey(originalUrl);
+  }
+
+  /**
+   * Set of the short keys in {@code shard} whose click counter has not been synced yet. Writers add
+   * the key after incrementing its counter, so the owner of the shard finds every pending counter
+   * without scanning the keyspace.
+   */
+  public static String pendingClicks(int shard) {
+    return PENDING_CLICKS_PREFIX + shard;
+  }
+
+  /**
+   * Scheduler shard of a short key. Every app that writes click counters must use the same
+   * {@code shardCount} as the schedulers that sync them.
+   */
+  public static int shardOf(String shortKey, int shardCount) {
+    int h = shortKey.hashCode();
+    h ^= h >>> 16;
+    h *= 0x85EBCA6B;
+    h ^= h >>> 13;
+    h *= 0xC2B2AE35;
+    h ^= h >>> 16;
+    return Math.floorMod(h, shardCount);
+  }
+
+  public static String uniqueVisitors(String shortKey, LocalDate day) {
+    return UNIQUE_VISITORS_PREFIX + shortKey + ":" + day.format(DateTimeFormatter.BASIC_ISO_DATE);
+  }
+}
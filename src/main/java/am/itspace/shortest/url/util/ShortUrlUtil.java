@@ -1,26 +1,27 @@
 package am.itspace.shortest.url.util;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.function.Supplier;
 
 public final class ShortUrlUtil {
 
+  private static final String CHARACTERS = System.getenv("SHORT_SECRET");
+  private static final int KEY_LENGTH = 6;
+
   private ShortUrlUtil() {
   }
 
   public static final Supplier<String> generateKey = () -> {
-    final String character = System.getenv("SHORT_SECRET");
-    final StringBuilder stringBuilder = new StringBuilder(1);
-
-    List<String> name = new ArrayList<>();
+    if (CHARACTERS == null || CHARACTERS.isEmpty()) {
+      throw new IllegalStateException("SHORT_SECRET must be set to generate random short keys");
+    }
+    final StringBuilder stringBuilder = new StringBuilder(KEY_LENGTH);
 
     ThreadLocalRandom random = ThreadLocalRandom.current();
 
-    for (int i = 0; i < 6; i++) {
-      int randomIndex = random.nextInt(character.length());
-      stringBuilder.append(character.charAt(randomIndex));
+    for (int i = 0; i < KEY_LENGTH; i++) {
+      int randomIndex = random.nextInt(CHARACTERS.length());
+      stringBuilder.append(CHARACTERS.charAt(randomIndex));
     }
     return stringBuilder.toString();
   };
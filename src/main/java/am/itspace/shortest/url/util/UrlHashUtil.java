@@ -0,0 +1,38 @@
+package am.itspace.shortest.url.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * Fixed-width digest of an original URL: the first 128 bits of its SHA-256. Used as the indexed
+ * dedup column and inside Redis keys instead of the URL itself; callers still compare the full URL
+ * before trusting a match.
+ */
+public final class UrlHashUtil {
+
+  public static final int HASH_LENGTH = 16;
+
+  private static final Base64.Encoder KEY_ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+  private UrlHashUtil() {
+  }
+
+  public static byte[] hash(String originalUrl) {
+    try {
+      byte[] digest = MessageDigest.getInstance("SHA-256").digest(originalUrl.getBytes(StandardCharsets.UTF_8));
+      return Arrays.copyOf(digest, HASH_LENGTH);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
+  }
+
+  /**
+   * The digest as a 22-character URL-safe string, for use in cache keys.
+   */
+  public static String hashKey(String originalUrl) {
+    return KEY_ENCODER.encodeToString(hash(originalUrl));
+  }
+}
@@ -0,0 +1,127 @@
+package am.itspace.shortest.url.util;
+
+import am.itspace.shortest.url.model.enums.ImportFormat;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Pulls URLs out of an NDJSON or CSV body one line at a time. Lines are read with a length cap so
+ * a single oversized line cannot grow the buffer; it is skipped and reported as an error instead.
+ * <p>
+ * NDJSON lines are objects with an {@code originalUrl} field. CSV lines take the URL from the first
+ * column, which may be quoted, and a leading {@code originalUrl} or {@code url} header is skipped.
+ * Blank lines are ignored in both formats but still counted, so line numbers match the file.
+ */
+public class UrlImportReader {
+
+  private static final String URL_FIELD = "originalUrl";
+
+  private final Reader reader;
+  private final ImportFormat format;
+  private final int maxLineLength;
+  private final ObjectMapper objectMapper;
+  private final StringBuilder buffer = new StringBuilder();
+
+  private long lineNumber;
+  private boolean headerChecked;
+  private boolean endOfInput;
+
+  public UrlImportReader(Reader reader, ImportFormat format, int maxLineLength, ObjectMapper objectMapper) {
+    this.reader = reader instanceof BufferedReader ? reader : new BufferedReader(reader);
+    this.format = format;
+    this.maxLineLength = maxLineLength;
+    this.objectMapper = objectMapper;
+  }
+
+  public record Line(long number, String originalUrl, String error) {
+  }
+
+  /**
+   * Returns the next non-blank line, or {@code null} once the input is exhausted.
+   */
+  public Line next() throws IOException {
+    while (!endOfInput) {
+      boolean truncated = readLine();
+      if (truncated) {
+        return new Line(lineNumber, null, "Line exceeds " + maxLineLength + " characters");
+      }
+
+      String text = buffer.toString().strip();
+      if (text.isEmpty()) continue;
+
+      Line line = format == ImportFormat.CSV ? parseCsv(text) : parseNdjson(text);
+      if (line != null) return line;
+    }
+    return null;
+  }
+
+  private boolean readLine() throws IOException {
+    buffer.setLength(0);
+    lineNumber++;
+    boolean truncated = false;
+    int c;
+    while ((c = reader.read()) != -1) {
+      if (c == '\n') return truncated;
+      if (buffer.length() < maxLineLength) {
+        buffer.append((char) c);
+      } else {
+        truncated = true;
+      }
+    }
+    endOfInput = true;
+    return truncated;
+  }
+
+  private Line parseNdjson(String text) {
+    try {
+      JsonNode node = objectMapper.readTree(text);
+      JsonNode url = node.get(URL_FIELD);
+      if (url == null || !url.isTextual()) {
+        return new Line(lineNumber, null, "Missing '" + URL_FIELD + "' field");
+      }
+      return new Line(lineNumber, url.asText(), null);
+    } catch (JsonProcessingException e) {
+      return new Line(lineNumber, null, "Malformed JSON");
+    }
+  }
+
+  private Line parseCsv(String text) {
+    String field = firstCsvField(text);
+    if (field == null) {
+      return new Line(lineNumber, null, "Unterminated quoted field");
+    }
+
+    boolean firstLine = !headerChecked;
+    headerChecked = true;
+    if (firstLine && (field.equalsIgnoreCase(URL_FIELD) || field.equalsIgnoreCase("url"))) {
+      return null;
+    }
+    return new Line(lineNumber, field, null);
+  }
+
+  private static String firstCsvField(String text) {
+    if (text.charAt(0) != '"') {
+      int comma = text.indexOf(',');
+      return (comma < 0 ? text : text.substring(0, comma)).strip();
+    }
+
+    StringBuilder field = new StringBuilder();
+    for (int i = 1; i < text.length(); i++) {
+      char c = text.charAt(i);
+      if (c != '"') {
+        field.append(c);
+      } else if (i + 1 < text.length() && text.charAt(i + 1) == '"') {
+        field.append('"');
+        i++;
+      } else {
+        return field.toString();
+      }
+    }
+    return null;
+  }
+}
@@ -1,6 +1,7 @@
 package am.itspace.shortest.url.util.jwt;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
@@ -12,16 +13,28 @@ import java.security.Key;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 import java.util.function.Function;
 
 @Service
 public class JwtTokenUtil {
 
-  @Value("${jwt.secret}")
-  private String secret;
-
-  @Value("${jwt.expiration}")
-  private Long expiration;
+  public static final String TOKEN_USE_CLAIM = "token_use";
+  public static final String ACCESS_TOKEN = "access";
+  public static final String REFRESH_TOKEN = "refresh";
+
+  private final Long expiration;
+  private final Key signingKey;
+  private final JwtParser jwtParser;
+
+  public JwtTokenUtil(@Value("${jwt.secret}") String secret,
+                      @Value("${jwt.expiration}") Long expiration) {
+    this.expiration = expiration;
+    this.signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret));
+    this.jwtParser = Jwts.parserBuilder()
+        .setSigningKey(signingKey)
+        .build();
+  }
 
   public String getUsernameFromToken(String token) {
     return getClaimFromToken(token, Claims::getSubject);
@@ -40,21 +53,21 @@ public class JwtTokenUtil {
     return claimsResolver.apply(claims);
   }
 
-  private Claims getAllClaimsFromToken(String token) {
-    return Jwts.parserBuilder()
-        .setSigningKey(getSignInKey())
-        .build()
-        .parseClaimsJws(token)
-        .getBody();
+  /**
+   * Verifies the signature and expiry and returns the claims, throwing a {@link io.jsonwebtoken.JwtException}
+   * if either check fails.
+   */
+  public Claims parseClaims(String token) {
+    return jwtParser.parseClaimsJws(token).getBody();
   }
 
-  private boolean isTokenExpired(String token) {
-    final Date expirationDateFromToken = getExpirationDateFromToken(token);
-    return expirationDateFromToken.before(new Date());
+  private Claims getAllClaimsFromToken(String token) {
+    return parseClaims(token);
   }
 
   public String generateToken(String email) {
     Map<String, Object> claims = new HashMap<>();
+    claims.put(TOKEN_USE_CLAIM, ACCESS_TOKEN);
     return doGenerateToken(claims, email);
   }
 
@@ -65,9 +78,10 @@ public class JwtTokenUtil {
     return Jwts.builder()
         .setClaims(claims)
         .setSubject(subject)
+        .setId(UUID.randomUUID().toString())
         .setIssuedAt(createdDate)
         .setExpiration(expirationDate)
-        .signWith(getSignInKey(), SignatureAlgorithm.HS512)
+        .signWith(signingKey, SignatureAlgorithm.HS512)
         .compact();
   }
 
@@ -76,27 +90,31 @@ public class JwtTokenUtil {
     final Date expirationDate = calculateExpirationDate(createdDate);
 
     final Claims claims = getAllClaimsFromToken(token);
+    claims.put(TOKEN_USE_CLAIM, REFRESH_TOKEN);
+    claims.setId(UUID.randomUUID().toString());
     claims.setIssuedAt(createdDate);
     claims.setExpiration(expirationDate);
 
     return Jwts.builder()
         .setClaims(claims)
-        .signWith(getSignInKey(), SignatureAlgorithm.HS512)
+        .signWith(signingKey, SignatureAlgorithm.HS512)
         .compact();
   }
 
   public boolean validateToken(String token, String email) {
-    final String username = getUsernameFromToken(token);
-    return (username.equals(email) && !isTokenExpired(token));
+    final Claims claims = getAllClaimsFromToken(token);
+    return (claims.getSubject().equals(email) && !claims.getExpiration().before(new Date()));
   }
 
-  private Date calculateExpirationDate(Date createdDate) {
-    return new Date(createdDate.getTime() + expiration * 1000);
+  /**
+   * Returns the {@code token_use} claim, or {@code null} for tokens issued before it was added.
+   */
+  public static String getTokenUse(Claims claims) {
+    return claims.get(TOKEN_USE_CLAIM, String.class);
   }
 
-  private Key getSignInKey() {
-    byte[] keyBytes = Decoders.BASE64.decode(secret);
-    return Keys.hmacShaKeyFor(keyBytes);
+  private Date calculateExpirationDate(Date createdDate) {
+    return new Date(createdDate.getTime() + expiration * 1000);
   }
 
 }
@@ -0,0 +1,71 @@
+package am.itspace.shortest.url.util.jwt;
+
+import am.itspace.shortest.url.cache.LocalCache;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Date;
+
+/**
+ * Verifies each bearer token once and remembers the resulting claims until the token expires (or
+ * the cache TTL passes, whichever is first), so repeat requests with the same token skip the HMAC
+ * check and JSON parsing.
+ */
+@Slf4j
+@Component
+public class JwtTokenVerifier {
+
+  private final JwtTokenUtil jwtTokenUtil;
+  private final LocalCache<String, Claims> verifiedTokens;
+  private final long ttlMillis;
+
+  public JwtTokenVerifier(JwtTokenUtil jwtTokenUtil,
+                          @Value("${jwt.verified-cache.maximum-size}") int maximumSize,
+                          @Value("${jwt.verified-cache.ttl}") Duration ttl) {
+    this.jwtTokenUtil = jwtTokenUtil;
+    this.verifiedTokens = new LocalCache<>(maximumSize, ttl);
+    this.ttlMillis = ttl.toMillis();
+  }
+
+  /**
+   * Returns the claims of a valid, unexpired token, or {@code null} if the token is invalid.
+   */
+  public Claims verify(String token) {
+    long now = System.currentTimeMillis();
+
+    Claims cached = verifiedTokens.get(token);
+    if (cached != null) {
+      if (isExpired(cached, now)) {
+        verifiedTokens.invalidate(token);
+        return null;
+      }
+      return cached;
+    }
+
+    Claims claims;
+    try {
+      claims = jwtTokenUtil.parseClaims(token);
+    } catch (JwtException | IllegalArgumentException e) {
+      log.debug("Rejected bearer token: {}", e.getMessage());
+      return null;
+    }
+
+    if (claims.getExpiration() != null) {
+      verifiedTokens.put(token, claims, Duration.ofMillis(Math.min(claims.getExpiration().getTime() - now, ttlMillis)));
+    }
+    return claims;
+  }
+
+  public void evict(String token) {
+    verifiedTokens.invalidate(token);
+  }
+
+  private static boolean isExpired(Claims claims, long now) {
+    Date expiration = claims.getExpiration();
+    return expiration != null && expiration.getTime() <= now;
+  }
+}
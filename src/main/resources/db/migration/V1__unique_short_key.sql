@@ -0,0 +1,19 @@
+-- Legacy random keys were probed for uniqueness without a constraint, so racing creates could store the
+-- same short_key twice, and ddl-auto cannot add ux_short_url_short_key over such rows. The oldest row keeps
+-- the key; every later duplicate becomes <key>-<id>, which no generator produces since '-' is not base62.
+-- Lookups by a duplicated key already failed with more than one result, so no working link changes.
+DO $$
+BEGIN
+  IF to_regclass('short_url_tbl') IS NULL THEN
+    RETURN;
+  END IF;
+
+  UPDATE short_url_tbl s
+  SET short_key = s.short_key || '-' || s.id
+  FROM (SELECT id, row_number() OVER (PARTITION BY short_key ORDER BY id) AS rn
+        FROM short_url_tbl
+        WHERE short_key IS NOT NULL) d
+  WHERE s.id = d.id AND d.rn > 1;
+
+  CREATE UNIQUE INDEX IF NOT EXISTS ux_short_url_short_key ON short_url_tbl (short_key);
+END $$;
@@ -0,0 +1,32 @@
+-- Creates find existing URLs by original_url_hash, so legacy rows are hashed here before the new version
+-- serves traffic instead of waiting for the hourly backfill job. The digest matches UrlHashUtil: the first
+-- 16 bytes of SHA-256 over the UTF-8 URL. Like the job, the row that already holds the hash (or else the
+-- oldest one) keeps it, and later duplicates point at it through duplicate_of with a null hash.
+DO $$
+BEGIN
+  IF to_regclass('short_url_tbl') IS NULL THEN
+    RETURN;
+  END IF;
+
+  ALTER TABLE short_url_tbl
+    ADD COLUMN IF NOT EXISTS original_url_hash bytea,
+    ADD COLUMN IF NOT EXISTS duplicate_of bigint;
+
+  WITH unhashed AS (
+    SELECT id, substring(sha256(convert_to(original_url, 'UTF8')) FROM 1 FOR 16) AS hash
+    FROM short_url_tbl
+    WHERE original_url_hash IS NULL AND duplicate_of IS NULL AND original_url IS NOT NULL
+  ), resolved AS (
+    SELECT u.id, u.hash,
+           COALESCE(hashed.id, first_value(u.id) OVER (PARTITION BY u.hash ORDER BY u.id)) AS canonical_id
+    FROM unhashed u
+    LEFT JOIN short_url_tbl hashed ON hashed.original_url_hash = u.hash
+  )
+  UPDATE short_url_tbl s
+  SET original_url_hash = CASE WHEN r.canonical_id = r.id THEN r.hash END,
+      duplicate_of = CASE WHEN r.canonical_id = r.id THEN NULL ELSE r.canonical_id END
+  FROM resolved r
+  WHERE s.id = r.id;
+
+  CREATE UNIQUE INDEX IF NOT EXISTS ux_short_url_original_url_hash ON short_url_tbl (original_url_hash);
+END $$;
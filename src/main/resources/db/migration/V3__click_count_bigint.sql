@@ -0,0 +1,15 @@
+-- click_count became a Long when click deltas started being added in SQL, but ddl-auto never changes
+-- the type of an existing column, so tables created earlier still hold it as integer and the sync
+-- would overflow past 2^31 - 1 clicks. The type change rewrites the table under an exclusive lock, so
+-- large tables need a maintenance window.
+DO $$
+BEGIN
+  IF to_regclass('short_url_tbl') IS NULL THEN
+    RETURN;
+  END IF;
+
+  IF EXISTS (SELECT 1 FROM information_schema.columns
+             WHERE table_name = 'short_url_tbl' AND column_name = 'click_count' AND data_type = 'integer') THEN
+    ALTER TABLE short_url_tbl ALTER COLUMN click_count TYPE bigint;
+  END IF;
+END $$;
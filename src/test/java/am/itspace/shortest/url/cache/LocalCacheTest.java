@@ -0,0 +1,71 @@
+package am.itspace.shortest.url.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocalCacheTest {
+
+  @Test
+  void get_whenEntryPresent_returnsValueAndCountsHit() {
+    LocalCache<String, String> cache = new LocalCache<>(100, Duration.ofMinutes(1));
+
+    cache.put("abc123", "https://example.com");
+
+    assertEquals("https://example.com", cache.get("abc123"));
+    assertNull(cache.get("missing"));
+    assertEquals(1, cache.hitCount());
+    assertEquals(1, cache.missCount());
+  }
+
+  @Test
+  void get_whenEntryExpired_returnsNull() throws InterruptedException {
+    LocalCache<String, String> cache = new LocalCache<>(100, Duration.ofMinutes(1));
+
+    cache.put("abc123", "https://example.com", Duration.ofMillis(1));
+    Thread.sleep(5);
+
+    assertNull(cache.get("abc123"));
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  void put_withTtlLongerThanDefault_outlivesDefaultTtl() throws InterruptedException {
+    LocalCache<String, String> cache = new LocalCache<>(100, Duration.ofMillis(1));
+
+    cache.put("pinned", "https://example.com", Duration.ofMinutes(10));
+    cache.put("regular", "https://example.org");
+    Thread.sleep(5);
+
+    assertEquals("https://example.com", cache.get("pinned"));
+    assertNull(cache.get("regular"));
+  }
+
+  @Test
+  void put_whenMaximumSizeExceeded_evictsLeastRecentlyUsed() {
+    LocalCache<Integer, String> cache = new LocalCache<>(1, Duration.ofMinutes(1));
+
+    cache.put(1, "one");
+    cache.put(2, "two");
+
+    assertNull(cache.get(1));
+    assertEquals("two", cache.get(2));
+    assertEquals(1, cache.evictionCount());
+  }
+
+  @Test
+  void invalidate_removesEntry() {
+    LocalCache<String, String> cache = new LocalCache<>(100, Duration.ofMinutes(1));
+    cache.put("a", "1");
+    cache.put("b", "2");
+
+    cache.invalidate("a");
+    assertNull(cache.get("a"));
+    assertEquals("2", cache.get("b"));
+
+    cache.invalidateAll();
+    assertEquals(0, cache.size());
+  }
+}
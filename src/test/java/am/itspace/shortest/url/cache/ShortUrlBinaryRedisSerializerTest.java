@@ -0,0 +1,127 @@
+package am.itspace.shortest.url.cache;
+
+import am.itspace.shortest.url.model.ShortUrl;
+import am.itspace.shortest.url.model.enums.UrlStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShortUrlBinaryRedisSerializerTest {
+
+  private final GenericJackson2JsonRedisSerializer jsonSerializer = new GenericJackson2JsonRedisSerializer();
+  private final ShortUrlBinaryRedisSerializer serializer = new ShortUrlBinaryRedisSerializer(jsonSerializer);
+
+  @Test
+  void serialize_thenDeserialize_roundTripsAllFields() {
+    ShortUrl shortUrl = ShortUrl.builder()
+        .id(123456789L)
+        .shortKey("aZ09xY")
+        .originalUrl("https://example.com/path?q=ünïcode")
+        .isActive(true)
+        .clickCount(42L)
+        .userId(7L)
+        .build();
+
+    ShortUrl decoded = (ShortUrl) serializer.deserialize(serializer.serialize(shortUrl));
+
+    assertEquals(shortUrl.getId(), decoded.getId());
+    assertEquals(shortUrl.getShortKey(), decoded.getShortKey());
+    assertEquals(shortUrl.getOriginalUrl(), decoded.getOriginalUrl());
+    assertEquals(shortUrl.getIsActive(), decoded.getIsActive());
+    assertEquals(shortUrl.getClickCount(), decoded.getClickCount());
+    assertEquals(shortUrl.getUserId(), decoded.getUserId());
+  }
+
+  @Test
+  void serialize_whenFieldsAreNull_keepsThemNull() {
+    ShortUrl shortUrl = ShortUrl.builder()
+        .originalUrl("https://example.com")
+        .build();
+
+    ShortUrl decoded = (ShortUrl) serializer.deserialize(serializer.serialize(shortUrl));
+
+    assertNull(decoded.getId());
+    assertNull(decoded.getShortKey());
+    assertNull(decoded.getIsActive());
+    assertNull(decoded.getClickCount());
+    assertEquals("https://example.com", decoded.getOriginalUrl());
+  }
+
+  @Test
+  void deserialize_whenPayloadWasWrittenByJsonCodec_readsLegacyEntry() {
+    ShortUrl shortUrl = ShortUrl.builder()
+        .id(1L)
+        .shortKey("abc123")
+        .originalUrl("https://legacy.com")
+        .isActive(false)
+        .clickCount(0L)
+        .build();
+
+    ShortUrl decoded = (ShortUrl) serializer.deserialize(jsonSerializer.serialize(shortUrl));
+
+    assertEquals("abc123", decoded.getShortKey());
+    assertEquals("https://legacy.com", decoded.getOriginalUrl());
+  }
+
+  @Test
+  void serialize_whenValueIsNotShortUrl_delegatesToFallback() {
+    assertEquals("abc123", serializer.deserialize(serializer.serialize("abc123")));
+  }
+
+  @Test
+  void serialize_producesSmallerPayloadThanJson() {
+    ShortUrl shortUrl = ShortUrl.builder()
+        .id(1000L)
+        .shortKey("abc123")
+        .originalUrl("https://example.com/some/path")
+        .isActive(false)
+        .clickCount(0L)
+        .userId(1L)
+        .build();
+
+    assertTrue(serializer.serialize(shortUrl).length * 3 < jsonSerializer.serialize(shortUrl).length);
+  }
+
+  @Test
+  void serialize_thenDeserialize_roundTripsLifecycleFields() {
+    ShortUrl shortUrl = ShortUrl.builder()
+        .shortKey("aZ09xY")
+        .originalUrl("https://example.com")
+        .status(UrlStatus.SCHEDULED)
+        .activatesAt(Instant.parse("2030-01-01T00:00:00.123456Z"))
+        .expiresAt(Instant.parse("2030-02-01T00:00:00Z"))
+        .maxClicks(1_000L)
+        .build();
+
+    ShortUrl decoded = (ShortUrl) serializer.deserialize(serializer.serialize(shortUrl));
+
+    assertEquals(UrlStatus.SCHEDULED, decoded.getStatus());
+    assertEquals(shortUrl.getActivatesAt(), decoded.getActivatesAt());
+    assertEquals(shortUrl.getExpiresAt(), decoded.getExpiresAt());
+    assertEquals(1_000L, decoded.getMaxClicks());
+  }
+
+  @Test
+  void deserialize_whenPayloadIsVersion1_leavesLifecycleFieldsNull() {
+    byte[] bytes = serializer.serialize(ShortUrl.builder().shortKey("abc123").build());
+
+    assertEquals(ShortUrlBinaryRedisSerializer.VERSION_1, bytes[1]);
+    ShortUrl decoded = (ShortUrl) serializer.deserialize(bytes);
+    assertEquals("abc123", decoded.getShortKey());
+    assertNull(decoded.getStatus());
+    assertNull(decoded.getExpiresAt());
+  }
+
+  @Test
+  void deserialize_whenPayloadIsTruncated_throwsSerializationException() {
+    byte[] bytes = serializer.serialize(ShortUrl.builder().shortKey("abc123").build());
+    byte[] truncated = new byte[bytes.length - 2];
+    System.arraycopy(bytes, 0, truncated, 0, truncated.length);
+
+    assertThrows(SerializationException.class, () -> serializer.deserialize(truncated));
+  }
+}
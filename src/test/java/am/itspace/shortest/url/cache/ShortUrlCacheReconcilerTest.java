@@ -0,0 +1,63 @@
+package am.itspace.shortest.url.cache;
+
+import am.itspace.shortest.url.model.ShortUrl;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShortUrlCacheReconcilerTest {
+
+  private final ShortUrl row = ShortUrl.builder()
+      .id(7L)
+      .shortKey("abc123")
+      .originalUrl("https://example.com")
+      .isActive(true)
+      .clickCount(10L)
+      .userId(3L)
+      .build();
+
+  @Test
+  void diverges_whenEntryIsAbsent_isFalse() {
+    assertFalse(ShortUrlCacheReconciler.diverges(row, null));
+  }
+
+  @Test
+  void diverges_whenOnlyClickCountDiffers_isFalse() {
+    ShortUrl cached = ShortUrl.builder()
+        .id(7L).shortKey("abc123").originalUrl("https://example.com").isActive(true).clickCount(2L).userId(3L)
+        .build();
+
+    assertFalse(ShortUrlCacheReconciler.diverges(row, cached));
+  }
+
+  @Test
+  void diverges_whenRedirectFieldsDiffer_isTrue() {
+    ShortUrl deactivated = ShortUrl.builder()
+        .id(7L).shortKey("abc123").originalUrl("https://example.com").isActive(false).userId(3L)
+        .build();
+    ShortUrl moved = ShortUrl.builder()
+        .id(7L).shortKey("abc123").originalUrl("https://example.org").isActive(true).userId(3L)
+        .build();
+
+    assertTrue(ShortUrlCacheReconciler.diverges(row, deactivated));
+    assertTrue(ShortUrlCacheReconciler.diverges(row, moved));
+    assertTrue(ShortUrlCacheReconciler.diverges(row, "abc123"));
+  }
+
+  @Test
+  void checkpoint_formatThenParse_roundTrips() {
+    ShortUrlCacheReconciler.Checkpoint full = new ShortUrlCacheReconciler.Checkpoint(true, Instant.parse("2024-05-01T10:15:30.123456Z"), 42);
+    ShortUrlCacheReconciler.Checkpoint incremental = new ShortUrlCacheReconciler.Checkpoint(false, Instant.parse("2024-05-02T00:00:00Z"), 0);
+
+    assertEquals(full, ShortUrlCacheReconciler.Checkpoint.parse(full.format()));
+    assertEquals(incremental, ShortUrlCacheReconciler.Checkpoint.parse(incremental.format()));
+  }
+
+  @Test
+  void checkpoint_parse_whenMalformed_returnsNull() {
+    assertNull(ShortUrlCacheReconciler.Checkpoint.parse("garbage"));
+    assertNull(ShortUrlCacheReconciler.Checkpoint.parse("full:x:1"));
+  }
+}
@@ -0,0 +1,83 @@
+package am.itspace.shortest.url.cache.filter;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LocalShortKeyFilterTest {
+
+  @Mock
+  private RedisTemplate<String, Object> redisTemplate;
+
+  private LocalShortKeyFilter filter;
+
+  @BeforeEach
+  void setUp() {
+    filter = new LocalShortKeyFilter(redisTemplate, 1_000, 0.01);
+  }
+
+  @Test
+  void mightContain_beforeTheFirstLoad_answersTrue() {
+    assertTrue(filter.mightContain("unknown"));
+  }
+
+  @Test
+  void load_thenMightContain_rejectsUnknownKeys() {
+    filter.load(() -> Stream.of("aaaaaaa", "bbbbbbb"));
+
+    assertTrue(filter.mightContain("aaaaaaa"));
+    assertTrue(filter.mightContain("bbbbbbb"));
+    assertFalse(filter.mightContain("unknown"));
+  }
+
+  @Test
+  void load_keepsKeysAddedBeforeTheStreamIsOpened() {
+    filter.load(() -> Stream.of("aaaaaaa"));
+
+    filter.load(() -> {
+      // committed after the loader started but before its query took a snapshot
+      filter.add("created-before-query");
+      return Stream.of("aaaaaaa");
+    });
+
+    assertTrue(filter.mightContain("created-before-query"));
+  }
+
+  @Test
+  void load_keepsKeysAddedWhileStreaming() {
+    filter.load(() -> Stream.of("aaaaaaa", "bbbbbbb").peek(key -> filter.add("during-" + key)));
+
+    assertTrue(filter.mightContain("during-aaaaaaa"));
+    assertTrue(filter.mightContain("during-bbbbbbb"));
+  }
+
+  @Test
+  void add_publishesTheKeyToOtherNodes() {
+    filter.add("aaaaaaa");
+
+    verify(redisTemplate).convertAndSend(LocalShortKeyFilter.ADDED_CHANNEL, "aaaaaaa");
+  }
+
+  @Test
+  void onMessage_addsKeysCreatedOnOtherNodes() {
+    when(redisTemplate.getValueSerializer()).thenReturn((RedisSerializer) RedisSerializer.string());
+    filter.load(Stream::empty);
+
+    filter.onMessage(new DefaultMessage(LocalShortKeyFilter.ADDED_CHANNEL.getBytes(StandardCharsets.UTF_8),
+        "remote1".getBytes(StandardCharsets.UTF_8)), null);
+
+    assertTrue(filter.mightContain("remote1"));
+  }
+}
@@ -0,0 +1,105 @@
+package am.itspace.shortest.url.cache.filter;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Testcontainers(disabledWithoutDocker = true)
+class RedisShortKeyFilterTest {
+
+  @Container
+  private static final GenericContainer<?> REDIS = new GenericContainer<>("redis:7-alpine").withExposedPorts(6379);
+
+  private LettuceConnectionFactory connectionFactory;
+  private RedisTemplate<String, Object> redisTemplate;
+
+  @BeforeEach
+  void setUp() {
+    connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration(REDIS.getHost(), REDIS.getMappedPort(6379)));
+    connectionFactory.afterPropertiesSet();
+    connectionFactory.start();
+    redisTemplate = new RedisTemplate<>();
+    redisTemplate.setConnectionFactory(connectionFactory);
+    redisTemplate.setKeySerializer(RedisSerializer.string());
+    redisTemplate.setValueSerializer(new GenericJackson2JsonRedisSerializer());
+    redisTemplate.afterPropertiesSet();
+    redisTemplate.execute(connection -> {
+      connection.serverCommands().flushAll();
+      return null;
+    }, true);
+  }
+
+  @AfterEach
+  void tearDown() {
+    connectionFactory.destroy();
+  }
+
+  @Test
+  void mightContain_beforeAnyNodeLoaded_answersTrue() {
+    RedisShortKeyFilter filter = new RedisShortKeyFilter(redisTemplate, 10_000, 0.01);
+
+    assertTrue(filter.needsLoad());
+    assertTrue(filter.mightContain("unknown"));
+  }
+
+  @Test
+  void load_thenMightContain_findsEveryLoadedKeyAndRejectsMostOthers() {
+    RedisShortKeyFilter filter = new RedisShortKeyFilter(redisTemplate, 10_000, 0.01);
+    filter.load(() -> IntStream.range(0, 5_000).mapToObj(i -> "key-" + i));
+
+    for (int i = 0; i < 5_000; i++) {
+      assertTrue(filter.mightContain("key-" + i));
+    }
+    long falsePositives = IntStream.range(0, 5_000).filter(i -> filter.mightContain("absent-" + i)).count();
+    assertTrue(falsePositives < 100, "false positives: " + falsePositives);
+  }
+
+  @Test
+  void add_isVisibleToEveryNodeSharingTheBitmap() {
+    RedisShortKeyFilter loader = new RedisShortKeyFilter(redisTemplate, 10_000, 0.01);
+    loader.load(() -> Stream.of("aaaaaaa"));
+    RedisShortKeyFilter other = new RedisShortKeyFilter(redisTemplate, 10_000, 0.01);
+
+    loader.add("bbbbbbb");
+
+    assertFalse(other.needsLoad());
+    assertTrue(other.mightContain("aaaaaaa"));
+    assertTrue(other.mightContain("bbbbbbb"));
+  }
+
+  @Test
+  void mightContain_afterTheBitmapIsEvicted_fallsThroughAndAsksForAReload() {
+    RedisShortKeyFilter filter = new RedisShortKeyFilter(redisTemplate, 10_000, 0.01);
+    filter.load(() -> Stream.of("aaaaaaa"));
+
+    redisTemplate.delete("short_url:bloom");
+
+    assertTrue(filter.mightContain("bbbbbbb"));
+    assertTrue(filter.needsLoad());
+  }
+
+  @Test
+  void mightContain_whenAddRecreatedAnEvictedBitmap_stillFallsThrough() {
+    RedisShortKeyFilter filter = new RedisShortKeyFilter(redisTemplate, 10_000, 0.01);
+    filter.load(() -> Stream.of("aaaaaaa"));
+    redisTemplate.delete("short_url:bloom");
+
+    filter.add("ccccccc");
+
+    assertTrue(filter.mightContain("aaaaaaa"));
+    assertTrue(new RedisShortKeyFilter(redisTemplate, 10_000, 0.01).needsLoad());
+  }
+}
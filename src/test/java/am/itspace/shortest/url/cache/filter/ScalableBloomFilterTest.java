@@ -0,0 +1,47 @@
+package am.itspace.shortest.url.cache.filter;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScalableBloomFilterTest {
+
+  @Test
+  void mightContain_neverMissesAnAddedKeyAcrossStages() {
+    ScalableBloomFilter filter = new ScalableBloomFilter(1_000, 0.01);
+    for (int i = 0; i < 20_000; i++) {
+      filter.add("key-" + i);
+    }
+
+    for (int i = 0; i < 20_000; i++) {
+      assertTrue(filter.mightContain("key-" + i), "key-" + i);
+    }
+    assertTrue(filter.bitSize() > new ScalableBloomFilter(1_000, 0.01).bitSize());
+  }
+
+  @Test
+  void mightContain_staysUnderTheConfiguredFalsePositiveRateAfterGrowing() {
+    ScalableBloomFilter filter = new ScalableBloomFilter(1_000, 0.01);
+    for (int i = 0; i < 20_000; i++) {
+      filter.add("key-" + i);
+    }
+
+    int falsePositives = 0;
+    int probes = 100_000;
+    for (int i = 0; i < probes; i++) {
+      if (filter.mightContain("absent-" + i)) {
+        falsePositives++;
+      }
+    }
+    assertTrue(falsePositives < probes * 0.01, "false positives: " + falsePositives);
+  }
+
+  @Test
+  void add_whenKeyIsAlreadyPresent_doesNotCountItAgain() {
+    ScalableBloomFilter filter = new ScalableBloomFilter(100, 0.01);
+    filter.add("aZ09xYq");
+    filter.add("aZ09xYq");
+
+    assertEquals(1, filter.approximateCount());
+  }
+}
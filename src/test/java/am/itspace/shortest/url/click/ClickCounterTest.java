@@ -0,0 +1,74 @@
+package am.itspace.shortest.url.click;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClickCounterTest {
+
+  @Test
+  void drain_returnsDeltasSinceLastDrain() {
+    ClickCounter counter = new ClickCounter();
+    counter.record("abc");
+    counter.record("abc");
+    counter.record("xyz");
+
+    Map<String, Long> first = counter.drain();
+    counter.record("abc");
+    Map<String, Long> second = counter.drain();
+
+    assertEquals(2L, first.get("abc"));
+    assertEquals(1L, first.get("xyz"));
+    assertEquals(1L, second.get("abc"));
+    assertNull(second.get("xyz"));
+  }
+
+  @Test
+  void drain_whenKeyStaysIdle_dropsItsCounter() {
+    ClickCounter counter = new ClickCounter();
+    counter.record("abc");
+
+    counter.drain();
+    counter.drain();
+    counter.drain();
+
+    assertEquals(0, counter.size());
+  }
+
+  @Test
+  void drain_underConcurrentClicks_losesNothing() throws InterruptedException {
+    ClickCounter counter = new ClickCounter();
+    AtomicLong drained = new AtomicLong();
+    AtomicBoolean done = new AtomicBoolean();
+
+    Thread drainer = new Thread(() -> {
+      while (!done.get()) {
+        counter.drain().values().forEach(drained::addAndGet);
+      }
+    });
+    drainer.start();
+
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    for (int t = 0; t < 4; t++) {
+      executor.submit(() -> {
+        for (int i = 0; i < 250_000; i++) {
+          counter.record("k" + (i % 1000));
+        }
+      });
+    }
+    executor.shutdown();
+    assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+    done.set(true);
+    drainer.join();
+    counter.drain().values().forEach(drained::addAndGet);
+
+    assertEquals(1_000_000L, drained.get());
+  }
+}
@@ -0,0 +1,69 @@
+package am.itspace.shortest.url.click;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClickEventTest {
+
+  @Test
+  void of_keepsOnlyReferrerHostAndHashesUserAgent() {
+    ClickEvent event = ClickEvent.of("abc123", 1_700_000_000_000L, "https://news.example.com/item?id=42", "Mozilla/5.0", "203.0.113.7");
+
+    assertEquals("news.example.com", event.referrerHost());
+    assertNotNull(event.userAgentHash());
+    assertNotEquals("Mozilla/5.0", event.userAgentHash());
+    assertNotNull(event.visitorHash());
+    assertFalse(event.visitorHash().contains("203.0.113.7"));
+  }
+
+  @Test
+  void of_sameAddressAndUserAgent_giveSameVisitor() {
+    ClickEvent first = ClickEvent.of("abc123", 1L, null, "Mozilla/5.0", "203.0.113.7");
+    ClickEvent second = ClickEvent.of("xyz789", 2L, "https://example.com", "Mozilla/5.0", "203.0.113.7");
+    ClickEvent other = ClickEvent.of("abc123", 3L, null, "Mozilla/5.0", "203.0.113.8");
+
+    assertEquals(first.visitorHash(), second.visitorHash());
+    assertNotEquals(first.visitorHash(), other.visitorHash());
+  }
+
+  @Test
+  void of_whenHeadersAreMissingOrInvalid_leavesThemNull() {
+    ClickEvent event = ClickEvent.of("abc123", 1L, "not a uri", null, null);
+
+    assertNull(event.referrerHost());
+    assertNull(event.userAgentHash());
+    assertNull(event.visitorHash());
+  }
+
+  @Test
+  void toFields_thenFromFields_roundTrips() {
+    ClickEvent event = ClickEvent.of("abc123", 1_700_000_000_000L, "https://example.com/", "curl/8.0", "203.0.113.7");
+
+    Map<String, String> fields = event.toFields();
+
+    assertEquals(event, ClickEvent.fromFields(fields));
+  }
+
+  @Test
+  void fromFields_whenShortKeyIsMissing_throws() {
+    assertThrows(IllegalArgumentException.class, () -> ClickEvent.fromFields(Map.of("t", "1")));
+  }
+
+  @Test
+  void buffer_whenFull_dropsAndCounts() {
+    ClickEventBuffer buffer = new ClickEventBuffer(2);
+    buffer.offer(new ClickEvent("a", 1L, null, null, null));
+    buffer.offer(new ClickEvent("b", 2L, null, null, null));
+    buffer.offer(new ClickEvent("c", 3L, null, null, null));
+
+    List<ClickEvent> drained = buffer.drain(10);
+
+    assertEquals(List.of("a", "b"), drained.stream().map(ClickEvent::shortKey).toList());
+    assertEquals(1, buffer.droppedCount());
+    assertEquals(0, buffer.size());
+  }
+}
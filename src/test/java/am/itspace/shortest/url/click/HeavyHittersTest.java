@@ -0,0 +1,66 @@
+package am.itspace.shortest.url.click;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HeavyHittersTest {
+
+  @Test
+  void top_findsHeavyKeysAmongLongTail() {
+    HeavyHitters heavyHitters = new HeavyHitters(10, 1024, 4);
+    Random random = new Random(42);
+    for (int i = 0; i < 50_000; i++) {
+      heavyHitters.add("tail-" + random.nextInt(20_000), 1);
+    }
+    heavyHitters.add("hot-1", 5_000);
+    heavyHitters.add("hot-2", 3_000);
+    heavyHitters.add("hot-3", 1_000);
+
+    List<HeavyHitters.HotKey> top = heavyHitters.top(3);
+
+    assertEquals(List.of("hot-1", "hot-2", "hot-3"), top.stream().map(HeavyHitters.HotKey::shortKey).toList());
+    assertTrue(top.get(0).estimatedClicks() >= 5_000);
+  }
+
+  @Test
+  void add_neverTracksMoreThanCapacity() {
+    HeavyHitters heavyHitters = new HeavyHitters(5, 16_384, 4);
+    for (int i = 0; i < 1_000; i++) {
+      heavyHitters.add("key-" + i, i + 1);
+    }
+
+    List<HeavyHitters.HotKey> top = heavyHitters.top(Integer.MAX_VALUE);
+
+    assertEquals(5, top.size());
+    assertEquals("key-999", top.get(0).shortKey());
+  }
+
+  @Test
+  void decay_halvesEstimatesAndDropsKeysThatReachZero() {
+    HeavyHitters heavyHitters = new HeavyHitters(5, 256, 4);
+    heavyHitters.add("busy", 8);
+    heavyHitters.add("quiet", 1);
+
+    heavyHitters.decay();
+
+    List<HeavyHitters.HotKey> top = heavyHitters.top(5);
+    assertEquals(1, top.size());
+    assertEquals(new HeavyHitters.HotKey("busy", 4), top.get(0));
+  }
+
+  @Test
+  void decay_letsRecentTrafficOvertakeOldTotals() {
+    HeavyHitters heavyHitters = new HeavyHitters(1, 256, 4);
+    heavyHitters.add("old", 1_000);
+    for (int i = 0; i < 4; i++) {
+      heavyHitters.decay();
+    }
+    heavyHitters.add("new", 100);
+
+    assertEquals("new", heavyHitters.top(1).get(0).shortKey());
+  }
+}
@@ -0,0 +1,117 @@
+package am.itspace.shortest.url.config;
+
+import am.itspace.shortest.url.click.HeavyHitters;
+import am.itspace.shortest.url.click.HotKeyTracker;
+import am.itspace.shortest.url.click.HotKeysEndpoint;
+import am.itspace.shortest.url.filter.JwtAuthenticationTokenFilter;
+import am.itspace.shortest.url.repository.TokenRepository;
+import am.itspace.shortest.url.security.JwtAuthenticationEntryPoint;
+import am.itspace.shortest.url.security.TokenDenylist;
+import am.itspace.shortest.url.util.jwt.JwtTokenVerifier;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.autoconfigure.endpoint.EndpointAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.endpoint.web.WebEndpointAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.health.HealthEndpointAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.web.server.ManagementContextAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.web.servlet.ServletManagementContextAutoConfiguration;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.http.HttpMessageConvertersAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.DispatcherServletAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.WebMvcAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.security.web.authentication.logout.LogoutHandler;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(
+    classes = {SecurityConfig.class, JwtAuthenticationTokenFilter.class, JwtAuthenticationEntryPoint.class, HotKeysEndpoint.class},
+    properties = {
+        "management.endpoints.web.exposure.include=health,hotkeys",
+        "password-encoder.bcrypt-strength=4",
+        "password-encoder.pool-size=1",
+        "password-encoder.queue-capacity=1",
+        "password-encoder.timeout=1s"
+    })
+@ImportAutoConfiguration({
+    DispatcherServletAutoConfiguration.class,
+    WebMvcAutoConfiguration.class,
+    HttpMessageConvertersAutoConfiguration.class,
+    JacksonAutoConfiguration.class,
+    SecurityAutoConfiguration.class,
+    EndpointAutoConfiguration.class,
+    WebEndpointAutoConfiguration.class,
+    HealthEndpointAutoConfiguration.class,
+    ManagementContextAutoConfiguration.class,
+    ServletManagementContextAutoConfiguration.class
+})
+@AutoConfigureMockMvc
+class SecurityConfigTest {
+
+  @MockitoBean
+  private UserDetailsService userDetailsService;
+
+  @MockitoBean
+  private LogoutHandler logoutHandler;
+
+  @MockitoBean
+  private JwtTokenVerifier jwtTokenVerifier;
+
+  @MockitoBean
+  private TokenRepository tokenRepository;
+
+  @MockitoBean
+  private TokenDenylist tokenDenylist;
+
+  @MockitoBean
+  private HotKeyTracker hotKeyTracker;
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @BeforeEach
+  void setUp() {
+    when(hotKeyTracker.top(Integer.MAX_VALUE)).thenReturn(List.of(new HeavyHitters.HotKey("aZ09xYq", 42L)));
+  }
+
+  @Test
+  void health_withoutToken_isReachable() throws Exception {
+    mockMvc.perform(get("/actuator/health"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.status").value("UP"));
+  }
+
+  @Test
+  void hotKeys_withoutToken_isUnauthorized() throws Exception {
+    mockMvc.perform(get("/actuator/hotkeys"))
+        .andExpect(status().isUnauthorized());
+  }
+
+  @Test
+  @WithMockUser(authorities = "USER")
+  void hotKeys_forUser_isForbidden() throws Exception {
+    mockMvc.perform(get("/actuator/hotkeys"))
+        .andExpect(status().isForbidden());
+  }
+
+  @Test
+  @WithMockUser(authorities = "ADMIN")
+  void hotKeys_forAdmin_returnsTheTopKeys() throws Exception {
+    mockMvc.perform(get("/actuator/hotkeys"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$[0].shortKey").value("aZ09xYq"));
+  }
+}
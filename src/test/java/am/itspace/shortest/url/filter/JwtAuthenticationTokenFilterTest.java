@@ -0,0 +1,122 @@
+package am.itspace.shortest.url.filter;
+
+import am.itspace.shortest.url.model.Token;
+import am.itspace.shortest.url.repository.TokenRepository;
+import am.itspace.shortest.url.security.TokenDenylist;
+import am.itspace.shortest.url.util.jwt.JwtTokenUtil;
+import am.itspace.shortest.url.util.jwt.JwtTokenVerifier;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class JwtAuthenticationTokenFilterTest {
+
+  private static final String SECRET = Base64.getEncoder().encodeToString(new byte[64]);
+  private static final String EMAIL = "user@example.com";
+
+  private final JwtTokenUtil jwtTokenUtil = new JwtTokenUtil(SECRET, 3600L);
+
+  @Mock
+  private UserDetailsService userDetailsService;
+
+  @Mock
+  private TokenRepository tokenRepository;
+
+  @Mock
+  private TokenDenylist tokenDenylist;
+
+  private JwtAuthenticationTokenFilter filter;
+
+  @BeforeEach
+  void setUp() {
+    JwtTokenVerifier verifier = new JwtTokenVerifier(jwtTokenUtil, 100, Duration.ofMinutes(5));
+    filter = new JwtAuthenticationTokenFilter(verifier, userDetailsService, tokenRepository, tokenDenylist);
+  }
+
+  @AfterEach
+  void tearDown() {
+    SecurityContextHolder.clearContext();
+  }
+
+  @Test
+  void doFilter_withAccessToken_authenticates() throws Exception {
+    when(tokenDenylist.isRevoked(anyString())).thenReturn(false);
+    when(userDetailsService.loadUserByUsername(EMAIL)).thenReturn(User.withUsername(EMAIL).password("x").build());
+
+    doFilter(jwtTokenUtil.generateToken(EMAIL));
+
+    assertEquals(EMAIL, SecurityContextHolder.getContext().getAuthentication().getName());
+  }
+
+  @Test
+  void doFilter_withRefreshToken_doesNotAuthenticate() throws Exception {
+    String refreshToken = jwtTokenUtil.refreshToken(jwtTokenUtil.generateToken(EMAIL));
+
+    doFilter(refreshToken);
+
+    assertNull(SecurityContextHolder.getContext().getAuthentication());
+    verifyNoInteractions(userDetailsService, tokenDenylist);
+  }
+
+  @Test
+  void doFilter_withRevokedAccessToken_doesNotAuthenticate() throws Exception {
+    when(tokenDenylist.isRevoked(anyString())).thenReturn(true);
+
+    doFilter(jwtTokenUtil.generateToken(EMAIL));
+
+    assertNull(SecurityContextHolder.getContext().getAuthentication());
+    verifyNoInteractions(userDetailsService);
+  }
+
+  @Test
+  void doFilter_withTokenIssuedBeforeTokenUse_acceptsOnlyStoredAccessJti() throws Exception {
+    when(tokenRepository.findByJti("stored-jti")).thenReturn(Optional.of(Token.builder().jti("stored-jti").build()));
+    when(tokenRepository.findByJti("refresh-jti")).thenReturn(Optional.empty());
+    when(userDetailsService.loadUserByUsername(EMAIL)).thenReturn(User.withUsername(EMAIL).password("x").build());
+
+    doFilter(untypedToken("refresh-jti"));
+    assertNull(SecurityContextHolder.getContext().getAuthentication());
+
+    doFilter(untypedToken("stored-jti"));
+    assertEquals(EMAIL, SecurityContextHolder.getContext().getAuthentication().getName());
+  }
+
+  private void doFilter(String token) throws Exception {
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/shorten");
+    request.addHeader("Authorization", "Bearer " + token);
+    filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+  }
+
+  private static String untypedToken(String jti) {
+    return Jwts.builder()
+        .setSubject(EMAIL)
+        .setId(jti)
+        .setIssuedAt(new Date())
+        .setExpiration(new Date(System.currentTimeMillis() + 60_000))
+        .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET)), SignatureAlgorithm.HS512)
+        .compact();
+  }
+}
@@ -0,0 +1,71 @@
+package am.itspace.shortest.url.keygen;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class Base62KeyCodecTest {
+
+  @Test
+  void encode_withoutSecret_isPlainFixedWidthBase62() {
+    Base62KeyCodec codec = new Base62KeyCodec(7, null);
+
+    assertEquals("0000000", codec.encode(0));
+    assertEquals("0000001", codec.encode(1));
+    assertEquals("000000z", codec.encode(61));
+    assertEquals("0000010", codec.encode(62));
+  }
+
+  @Test
+  void encode_withSecret_roundTripsAndStaysUnique() {
+    Base62KeyCodec codec = new Base62KeyCodec(7, "top-secret");
+    Set<String> keys = new HashSet<>();
+
+    for (long id = 1; id <= 100_000; id++) {
+      String key = codec.encode(id);
+      assertEquals(7, key.length());
+      assertTrue(keys.add(key), "duplicate key " + key);
+      assertEquals(id, codec.decode(key));
+    }
+  }
+
+  @Test
+  void encode_withSecret_doesNotProduceConsecutiveKeys() {
+    Base62KeyCodec plain = new Base62KeyCodec(7, null);
+    Base62KeyCodec shuffled = new Base62KeyCodec(7, "top-secret");
+
+    assertNotEquals(plain.encode(1000), shuffled.encode(1000));
+    assertNotEquals(plain.decode(shuffled.encode(1000)) + 1, plain.decode(shuffled.encode(1001)));
+  }
+
+  @Test
+  void encode_whenTierIsExhausted_movesToLongerKeys() {
+    Base62KeyCodec codec = new Base62KeyCodec(2, "top-secret");
+    long lastTwoCharId = 62L * 62 - 1;
+
+    assertEquals(2, codec.encode(lastTwoCharId).length());
+    assertEquals(3, codec.encode(lastTwoCharId + 1).length());
+    assertEquals(lastTwoCharId + 1, codec.decode(codec.encode(lastTwoCharId + 1)));
+  }
+
+  @Test
+  void encode_isBijectiveOverWholeSmallTier() {
+    Base62KeyCodec codec = new Base62KeyCodec(2, "another-secret");
+    Set<String> keys = new HashSet<>();
+
+    for (long id = 0; id < 62L * 62; id++) {
+      assertTrue(keys.add(codec.encode(id)));
+    }
+    assertEquals(62 * 62, keys.size());
+  }
+
+  @Test
+  void encode_whenIdIsNegative_throwsException() {
+    Base62KeyCodec codec = new Base62KeyCodec(7, null);
+
+    assertThrows(IllegalArgumentException.class, () -> codec.encode(-1));
+  }
+}
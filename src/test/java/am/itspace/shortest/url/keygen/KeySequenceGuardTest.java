@@ -0,0 +1,92 @@
+package am.itspace.shortest.url.keygen;
+
+import am.itspace.shortest.url.repository.ShortUrlJdbcRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class KeySequenceGuardTest {
+
+  private final Base62KeyCodec keyCodec = new Base62KeyCodec(7, "secret");
+
+  @Mock
+  private StringRedisTemplate stringRedisTemplate;
+  @Mock
+  private ValueOperations<String, String> valueOperations;
+  @Mock
+  private ShortUrlJdbcRepository shortUrlJdbcRepository;
+
+  private KeySequenceGuard guard;
+
+  @BeforeEach
+  void setUp() {
+    guard = new KeySequenceGuard(stringRedisTemplate, shortUrlJdbcRepository, keyCodec);
+    lenient().when(stringRedisTemplate.opsForValue()).thenReturn(valueOperations);
+    lenient().when(shortUrlJdbcRepository.hasUniqueShortKeyIndex()).thenReturn(true);
+  }
+
+  @Test
+  void ensureAhead_whenUniqueIndexIsMissing_refusesToStart() {
+    when(shortUrlJdbcRepository.hasUniqueShortKeyIndex()).thenReturn(false);
+
+    assertThrows(IllegalStateException.class, guard::ensureAhead);
+
+    verifyNoInteractions(stringRedisTemplate);
+  }
+
+  @Test
+  void ensureAhead_whenSequenceIsAheadOfRecentKeys_skipsTheFullScan() {
+    when(valueOperations.get(RedisIdRangeLeaser.KEY_SEQUENCE)).thenReturn("5000");
+    when(shortUrlJdbcRepository.findRecentShortKeys(7, 1_000)).thenReturn(List.of(keyCodec.encode(4_999), "legacy"));
+
+    guard.ensureAhead();
+
+    verify(shortUrlJdbcRepository, never()).forEachShortKey(anyInt(), any());
+    verify(stringRedisTemplate, never()).execute(any(), anyList(), any());
+  }
+
+  @Test
+  void ensureAhead_whenSequenceIsMissing_raisesItPastTheHighestStoredId() {
+    when(valueOperations.get(RedisIdRangeLeaser.KEY_SEQUENCE)).thenReturn(null);
+    when(shortUrlJdbcRepository.findRecentShortKeys(7, 1_000)).thenReturn(List.of(keyCodec.encode(120)));
+    feedAllKeys(keyCodec.encode(120), keyCodec.encode(9_000), keyCodec.encode(42));
+
+    guard.ensureAhead();
+
+    verify(stringRedisTemplate).execute(any(), eq(List.of(RedisIdRangeLeaser.KEY_SEQUENCE)), eq("9000"));
+  }
+
+  @Test
+  void ensureAhead_whenRecentKeysAreAheadOfTheSequence_raisesIt() {
+    when(valueOperations.get(RedisIdRangeLeaser.KEY_SEQUENCE)).thenReturn("10");
+    when(shortUrlJdbcRepository.findRecentShortKeys(7, 1_000)).thenReturn(List.of(keyCodec.encode(300)));
+    feedAllKeys(keyCodec.encode(300));
+
+    guard.ensureAhead();
+
+    verify(stringRedisTemplate).execute(any(), eq(List.of(RedisIdRangeLeaser.KEY_SEQUENCE)), eq("300"));
+  }
+
+  @SuppressWarnings("unchecked")
+  private void feedAllKeys(String... shortKeys) {
+    doAnswer(invocation -> {
+      Consumer<String> consumer = invocation.getArgument(1);
+      for (String shortKey : shortKeys) {
+        consumer.accept(shortKey);
+      }
+      return null;
+    }).when(shortUrlJdbcRepository).forEachShortKey(eq(7), any(Consumer.class));
+  }
+}
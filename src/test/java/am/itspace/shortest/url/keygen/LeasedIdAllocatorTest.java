@@ -0,0 +1,106 @@
+package am.itspace.shortest.url.keygen;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LeasedIdAllocatorTest {
+
+  @Test
+  void nextId_handsOutUniqueIdsAcrossThreads() throws Exception {
+    FakeLeaser leaser = new FakeLeaser();
+    int threads = 8;
+    int perThread = 20_000;
+    Set<Long> ids = ConcurrentHashMap.newKeySet();
+
+    try (LeasedIdAllocator allocator = new LeasedIdAllocator(leaser, 100, 20)) {
+      ExecutorService executor = Executors.newFixedThreadPool(threads);
+      CountDownLatch start = new CountDownLatch(1);
+      List<Future<?>> futures = new ArrayList<>();
+      for (int t = 0; t < threads; t++) {
+        futures.add(executor.submit(() -> {
+          start.await();
+          for (int i = 0; i < perThread; i++) {
+            ids.add(allocator.nextId());
+          }
+          return null;
+        }));
+      }
+      start.countDown();
+      for (Future<?> future : futures) {
+        future.get(30, TimeUnit.SECONDS);
+      }
+      executor.shutdown();
+    }
+
+    assertEquals(threads * perThread, ids.size());
+  }
+
+  @Test
+  void nextId_swapsInTheStandbyBlockLeasedInTheBackground() throws Exception {
+    FakeLeaser leaser = new FakeLeaser();
+    try (LeasedIdAllocator allocator = new LeasedIdAllocator(leaser, 10, 5)) {
+      for (long expected = 1; expected <= 5; expected++) {
+        assertEquals(expected, allocator.nextId());
+      }
+      leaser.awaitLeases(2);
+      for (long expected = 6; expected <= 12; expected++) {
+        assertEquals(expected, allocator.nextId());
+      }
+
+      assertEquals(List.of(Thread.currentThread().getName(), "id-block-refill"), leaser.threads.subList(0, 2));
+    }
+  }
+
+  @Test
+  void nextId_whenBackgroundRefillFails_leasesSynchronously() throws Exception {
+    FakeLeaser leaser = new FakeLeaser();
+    leaser.failOnRefillThread = true;
+    try (LeasedIdAllocator allocator = new LeasedIdAllocator(leaser, 10, 5)) {
+      for (long expected = 1; expected <= 10; expected++) {
+        assertEquals(expected, allocator.nextId());
+      }
+      leaser.awaitLeases(2);
+
+      long id = allocator.nextId();
+
+      assertTrue(id > 10);
+      assertEquals(Thread.currentThread().getName(), leaser.leasedBy.get(id));
+      assertTrue(leaser.threads.contains("id-block-refill"));
+    }
+  }
+
+  private static final class FakeLeaser implements IdRangeLeaser {
+
+    private final AtomicLong sequence = new AtomicLong();
+    private final List<String> threads = new CopyOnWriteArrayList<>();
+    private final Map<Long, String> leasedBy = new ConcurrentHashMap<>();
+    private volatile boolean failOnRefillThread;
+
+    @Override
+    public long lease(int size) {
+      String thread = Thread.currentThread().getName();
+      threads.add(thread);
+      long end = sequence.addAndGet(size);
+      if (failOnRefillThread && thread.equals("id-block-refill")) {
+        throw new IllegalStateException("Redis is down");
+      }
+      leasedBy.put(end - size + 1, thread);
+      return end - size + 1;
+    }
+
+    void awaitLeases(int count) throws InterruptedException {
+      long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+      while (threads.size() < count) {
+        assertTrue(System.nanoTime() < deadline, "Expected " + count + " leases, saw " + threads);
+        Thread.sleep(1);
+      }
+      // let the refill thread publish the block it leased
+      Thread.sleep(20);
+    }
+  }
+}
@@ -0,0 +1,62 @@
+package am.itspace.shortest.url.lifecycle;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimingWheelTest {
+
+  @Test
+  void advance_firesTimerOnlyOnceItsDeadlineHasPassed() {
+    TimingWheel<String> wheel = new TimingWheel<>(1_000, 4, 3, 0);
+    wheel.schedule("a", 2_500);
+
+    assertEquals(List.of(), wheel.advance(2_999));
+    assertEquals(List.of("a"), wheel.advance(3_000));
+    assertEquals(0, wheel.size());
+  }
+
+  @Test
+  void advance_cascadesTimersFromHigherLevels() {
+    TimingWheel<Long> wheel = new TimingWheel<>(1, 3, 3, 0);
+    Random random = new Random(7);
+    List<Long> deadlines = new ArrayList<>();
+    for (int i = 0; i < 2_000; i++) {
+      long deadline = random.nextInt(600);
+      deadlines.add(deadline);
+      wheel.schedule(deadline, deadline);
+    }
+
+    for (long now = 0; now < 600; now++) {
+      for (long fired : wheel.advance(now)) {
+        assertEquals(now, fired);
+        deadlines.remove(fired);
+      }
+    }
+
+    assertTrue(deadlines.isEmpty());
+    assertEquals(0, wheel.size());
+  }
+
+  @Test
+  void schedule_whenDeadlineIsBeyondTheWheel_waitsForIt() {
+    TimingWheel<String> wheel = new TimingWheel<>(1, 2, 2, 0);
+    wheel.schedule("far", 100);
+
+    assertEquals(List.of(), wheel.advance(99));
+    assertEquals(List.of("far"), wheel.advance(100));
+  }
+
+  @Test
+  void schedule_whenDeadlineIsInThePast_firesOnNextTick() {
+    TimingWheel<String> wheel = new TimingWheel<>(10, 4, 2, 1_000);
+    wheel.advance(1_500);
+    wheel.schedule("late", 200);
+
+    assertEquals(List.of("late"), wheel.advance(1_510));
+  }
+}
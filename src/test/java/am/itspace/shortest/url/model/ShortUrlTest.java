@@ -0,0 +1,72 @@
+package am.itspace.shortest.url.model;
+
+import am.itspace.shortest.url.model.enums.UrlStatus;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShortUrlTest {
+
+  private static final Instant NOW = Instant.parse("2026-01-01T12:00:00Z");
+
+  @Test
+  void statusAt_withoutStoredStatusOrLimits_isActive() {
+    ShortUrl shortUrl = ShortUrl.builder().build();
+
+    assertEquals(UrlStatus.ACTIVE, shortUrl.statusAt(NOW));
+    assertTrue(shortUrl.isRedirectable(NOW));
+  }
+
+  @Test
+  void statusAt_fromExpiresAtOnwards_isExpired() {
+    ShortUrl shortUrl = ShortUrl.builder().status(UrlStatus.ACTIVE).expiresAt(NOW).build();
+
+    assertEquals(UrlStatus.ACTIVE, shortUrl.statusAt(NOW.minusMillis(1)));
+    assertEquals(UrlStatus.EXPIRED, shortUrl.statusAt(NOW));
+  }
+
+  @Test
+  void statusAt_onceClickCountReachesMaxClicks_isExhausted() {
+    ShortUrl below = ShortUrl.builder().status(UrlStatus.ACTIVE).maxClicks(3L).clickCount(2L).build();
+    ShortUrl reached = ShortUrl.builder().status(UrlStatus.ACTIVE).maxClicks(3L).clickCount(3L).build();
+
+    assertEquals(UrlStatus.ACTIVE, below.statusAt(NOW));
+    assertEquals(UrlStatus.EXHAUSTED, reached.statusAt(NOW));
+  }
+
+  @Test
+  void statusAt_beforeActivatesAt_isScheduledThenActive() {
+    ShortUrl shortUrl = ShortUrl.builder().status(UrlStatus.SCHEDULED).activatesAt(NOW).build();
+
+    assertEquals(UrlStatus.SCHEDULED, shortUrl.statusAt(NOW.minusMillis(1)));
+    assertEquals(UrlStatus.ACTIVE, shortUrl.statusAt(NOW));
+    assertFalse(shortUrl.isRedirectable(NOW.minusMillis(1)));
+  }
+
+  @Test
+  void statusAt_whenExpiryPassesBeforeActivation_isExpired() {
+    ShortUrl shortUrl = ShortUrl.builder()
+        .status(UrlStatus.SCHEDULED)
+        .activatesAt(NOW.plus(Duration.ofHours(1)))
+        .expiresAt(NOW.minus(Duration.ofHours(1)))
+        .build();
+
+    assertEquals(UrlStatus.EXPIRED, shortUrl.statusAt(NOW));
+  }
+
+  @Test
+  void statusAt_whenStoredStatusIsTerminal_ignoresTheLimits() {
+    ShortUrl exhausted = ShortUrl.builder()
+        .status(UrlStatus.EXHAUSTED)
+        .expiresAt(NOW.plus(Duration.ofDays(1)))
+        .maxClicks(10L)
+        .clickCount(0L)
+        .build();
+
+    assertEquals(UrlStatus.EXHAUSTED, exhausted.statusAt(NOW));
+    assertFalse(exhausted.isRedirectable(NOW));
+  }
+}
@@ -0,0 +1,136 @@
+package am.itspace.shortest.url.scheduler;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Testcontainers(disabledWithoutDocker = true)
+class SchedulerCoordinatorRedisTest {
+
+  @Container
+  private static final GenericContainer<?> REDIS = new GenericContainer<>("redis:7-alpine").withExposedPorts(6379);
+
+  private static final Duration TTL = Duration.ofSeconds(30);
+
+  private LettuceConnectionFactory connectionFactory;
+  private StringRedisTemplate redisTemplate;
+
+  @BeforeEach
+  void setUp() {
+    connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration(REDIS.getHost(), REDIS.getMappedPort(6379)));
+    connectionFactory.afterPropertiesSet();
+    connectionFactory.start();
+    redisTemplate = new StringRedisTemplate(connectionFactory);
+    redisTemplate.execute(connection -> {
+      connection.serverCommands().flushAll();
+      return null;
+    }, true);
+  }
+
+  @AfterEach
+  void tearDown() {
+    connectionFactory.destroy();
+  }
+
+  @Test
+  void renew_withOneNode_acquiresEveryShardAndTheLeaderLease() {
+    SchedulerCoordinator node = new SchedulerCoordinator(redisTemplate, "node-a", 4, TTL);
+
+    node.renew();
+
+    assertEquals(4, node.ownedShards().size());
+    assertTrue(node.isLeader());
+    assertEquals("node-a:" + node.ownedShards().get(2), redisTemplate.opsForValue().get(SchedulerCoordinator.LEASE_PREFIX + 2));
+  }
+
+  @Test
+  void renew_whenLeaseIsHeldByAnotherNode_doesNotTakeIt() {
+    SchedulerCoordinator first = new SchedulerCoordinator(redisTemplate, "node-a", 4, TTL);
+    SchedulerCoordinator second = new SchedulerCoordinator(redisTemplate, "node-b", 4, TTL);
+    first.renew();
+
+    second.renew();
+
+    assertTrue(second.ownedShards().isEmpty());
+    assertFalse(second.isLeader());
+  }
+
+  @Test
+  void takePendingIfOwner_whileLeaseIsHeld_popsTheMembersAndTakesTheirCounters() {
+    SchedulerCoordinator node = new SchedulerCoordinator(redisTemplate, "node-a", 4, TTL);
+    node.renew();
+    redisTemplate.opsForValue().set("click:a", "3");
+    redisTemplate.opsForValue().set("click:b", "5");
+    redisTemplate.opsForSet().add("pending:1", "a", "b", "gone");
+
+    Map<String, String> taken = node.takePendingIfOwner(1, node.ownedShards().get(1), "pending:1", "click:", 10);
+
+    assertEquals(3, taken.size());
+    assertEquals("3", taken.get("a"));
+    assertEquals("5", taken.get("b"));
+    assertNull(taken.get("gone"));
+    assertFalse(redisTemplate.hasKey("click:a"));
+    assertFalse(redisTemplate.hasKey("pending:1"));
+  }
+
+  @Test
+  void takePendingIfOwner_takesAtMostCountMembers() {
+    SchedulerCoordinator node = new SchedulerCoordinator(redisTemplate, "node-a", 4, TTL);
+    node.renew();
+    redisTemplate.opsForSet().add("pending:1", "a", "b", "c");
+
+    assertEquals(2, node.takePendingIfOwner(1, node.ownedShards().get(1), "pending:1", "click:", 2).size());
+    assertEquals(1, redisTemplate.opsForSet().size("pending:1"));
+  }
+
+  @Test
+  void takePendingIfOwner_afterLeaseLapsedAndAnotherNodeTookIt_leavesTheKeys() {
+    SchedulerCoordinator first = new SchedulerCoordinator(redisTemplate, "node-a", 4, TTL);
+    SchedulerCoordinator second = new SchedulerCoordinator(redisTemplate, "node-b", 4, TTL);
+    first.renew();
+    long firstToken = first.ownedShards().get(1);
+    redisTemplate.opsForValue().set("click:a", "3");
+    redisTemplate.opsForSet().add("pending:1", "a");
+
+    // first stalls past its lease
+    redisTemplate.delete(SchedulerCoordinator.LEASE_PREFIX + 1);
+    second.renew();
+    Map<Integer, Long> secondShards = second.ownedShards();
+
+    assertTrue(secondShards.containsKey(1));
+    assertTrue(secondShards.get(1) > firstToken);
+    assertNull(first.takePendingIfOwner(1, firstToken, "pending:1", "click:", 10));
+    assertEquals("3", redisTemplate.opsForValue().get("click:a"));
+    assertTrue(redisTemplate.opsForSet().isMember("pending:1", "a"));
+    assertEquals(Map.of("a", "3"), second.takePendingIfOwner(1, secondShards.get(1), "pending:1", "click:", 10));
+  }
+
+  @Test
+  void takePendingIfOwner_withTokenFromBeforeReacquiring_isRefused() {
+    SchedulerCoordinator node = new SchedulerCoordinator(redisTemplate, "node-a", 4, TTL);
+    node.renew();
+    long staleToken = node.ownedShards().get(0);
+    redisTemplate.opsForValue().set("click:a", "3");
+    redisTemplate.opsForSet().add("pending:0", "a");
+
+    redisTemplate.delete(SchedulerCoordinator.LEASE_PREFIX + 0);
+    node.renew();
+    long currentToken = node.ownedShards().get(0);
+
+    assertTrue(currentToken > staleToken);
+    assertNull(node.takePendingIfOwner(0, staleToken, "pending:0", "click:", 10));
+    assertEquals("3", redisTemplate.opsForValue().get("click:a"));
+    assertEquals(Map.of("a", "3"), node.takePendingIfOwner(0, currentToken, "pending:0", "click:", 10));
+  }
+}
@@ -0,0 +1,15 @@
+package am.itspace.shortest.url.scheduler;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SchedulerCoordinatorTest {
+
+  @Test
+  void targetShards_coversEveryShardWithEvenShares() {
+    assertEquals(64, SchedulerCoordinator.targetShards(64, 1));
+    assertEquals(22, SchedulerCoordinator.targetShards(64, 3));
+    assertEquals(1, SchedulerCoordinator.targetShards(64, 100));
+  }
+}
@@ -0,0 +1,70 @@
+package am.itspace.shortest.url.security;
+
+import am.itspace.shortest.url.exception.PasswordHashingUnavailableException;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedPasswordEncoderTest {
+
+  @Test
+  void encode_andMatches_runOnPoolAndReturnDelegateResult() {
+    try (BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(new ReversingEncoder(null, null), 1, 1, Duration.ofSeconds(5))) {
+      assertEquals("terces", encoder.encode("secret"));
+      assertTrue(encoder.matches("secret", "terces"));
+      assertFalse(encoder.matches("secret", "secret"));
+    }
+  }
+
+  @Test
+  void encode_whenPoolAndQueueAreFull_rejectsImmediately() throws Exception {
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    try (BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(new ReversingEncoder(started, release), 1, 0, Duration.ofSeconds(5))) {
+      CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> encoder.encode("first"));
+      assertTrue(started.await(5, TimeUnit.SECONDS));
+
+      assertThrows(PasswordHashingUnavailableException.class, () -> encoder.encode("second"));
+
+      release.countDown();
+      assertEquals("tsrif", first.get(5, TimeUnit.SECONDS));
+    }
+  }
+
+  @Test
+  void encode_whenHashingExceedsTimeout_throws() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    try (BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(new ReversingEncoder(new CountDownLatch(1), release), 1, 1, Duration.ofMillis(50))) {
+      assertThrows(PasswordHashingUnavailableException.class, () -> encoder.encode("slow"));
+    } finally {
+      release.countDown();
+    }
+  }
+
+  private record ReversingEncoder(CountDownLatch started, CountDownLatch release) implements PasswordEncoder {
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+      if (started != null) {
+        started.countDown();
+        try {
+          release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+      return new StringBuilder(rawPassword).reverse().toString();
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+      return new StringBuilder(rawPassword).reverse().toString().equals(encodedPassword);
+    }
+  }
+}
@@ -0,0 +1,72 @@
+package am.itspace.shortest.url.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocalCompromisedPasswordCheckerTest {
+
+  @Test
+  void check_whenPasswordIsInIndex_isCompromised() throws IOException {
+    LocalCompromisedPasswordChecker checker = checkerFor(List.of("password", "123456", "qwerty", "letmein"));
+
+    assertTrue(checker.check("password").isCompromised());
+    assertTrue(checker.check("letmein").isCompromised());
+    assertFalse(checker.check("correct horse battery staple").isCompromised());
+    assertEquals(4, checker.size());
+  }
+
+  @Test
+  void check_whenIndexIsEmpty_isNotCompromised() throws IOException {
+    LocalCompromisedPasswordChecker checker = checkerFor(List.of());
+
+    assertFalse(checker.check("password").isCompromised());
+  }
+
+  @Test
+  void build_skipsHashesBelowMinCount() throws IOException {
+    String dump = dumpLine("rare", 1) + "\n" + dumpLine("common", 50);
+    String sorted = dump.lines().sorted().collect(Collectors.joining("\n"));
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    long written = PwnedPasswordsIndexBuilder.build(new BufferedReader(new StringReader(sorted)), out, 10);
+
+    assertEquals(1, written);
+    assertArrayEquals(LocalCompromisedPasswordChecker.sha1("common"), out.toByteArray());
+  }
+
+  @Test
+  void build_whenInputIsUnsorted_throws() {
+    String dump = "FFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFF:3\n0000000000000000000000000000000000000000:5";
+
+    assertThrows(IllegalArgumentException.class,
+        () -> PwnedPasswordsIndexBuilder.build(new BufferedReader(new StringReader(dump)), new ByteArrayOutputStream(), 1));
+  }
+
+  private static LocalCompromisedPasswordChecker checkerFor(List<String> passwords) throws IOException {
+    String dump = passwords.stream()
+        .map(password -> dumpLine(password, 7))
+        .sorted()
+        .collect(Collectors.joining("\n"));
+    Path index = Files.createTempFile("pwned", ".bin");
+    index.toFile().deleteOnExit();
+    try (var out = Files.newOutputStream(index)) {
+      PwnedPasswordsIndexBuilder.build(new BufferedReader(new StringReader(dump)), out, 1);
+    }
+    return new LocalCompromisedPasswordChecker(index);
+  }
+
+  private static String dumpLine(String password, int count) {
+    return HexFormat.of().withUpperCase().formatHex(LocalCompromisedPasswordChecker.sha1(password)) + ":" + count;
+  }
+}
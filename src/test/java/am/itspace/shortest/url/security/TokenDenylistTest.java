@@ -0,0 +1,101 @@
+package am.itspace.shortest.url.security;
+
+import am.itspace.shortest.url.repository.TokenRepository;
+import am.itspace.shortest.url.util.RedisKeys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TokenDenylistTest {
+
+  @Mock
+  private RedisTemplate<String, Object> redisTemplate;
+
+  @Mock
+  private ValueOperations<String, Object> valueOperations;
+
+  @Mock
+  private TokenRepository tokenRepository;
+
+  private TokenDenylist tokenDenylist;
+
+  @BeforeEach
+  void setUp() {
+    tokenDenylist = new TokenDenylist(redisTemplate, tokenRepository, 100, Duration.ofSeconds(30));
+  }
+
+  @Test
+  void revoke_storesJtiForRemainingLifetimeAndPublishesIt() {
+    when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+
+    tokenDenylist.revoke("jti-1", Instant.now().plus(Duration.ofMinutes(10)));
+
+    ArgumentCaptor<Duration> ttl = ArgumentCaptor.forClass(Duration.class);
+    verify(valueOperations).set(eq(RedisKeys.REVOKED_JTI_PREFIX + "jti-1"), eq(Boolean.TRUE), ttl.capture());
+    assertTrue(ttl.getValue().compareTo(Duration.ofMinutes(9)) > 0 && ttl.getValue().compareTo(Duration.ofMinutes(10)) <= 0);
+    verify(redisTemplate).convertAndSend(TokenDenylist.REVOCATION_CHANNEL, "jti-1");
+
+    assertTrue(tokenDenylist.isRevoked("jti-1"));
+    verify(redisTemplate, never()).hasKey(anyString());
+  }
+
+  @Test
+  void revoke_whenTokenAlreadyExpired_skipsRedis() {
+    tokenDenylist.revoke("jti-1", Instant.now().minusSeconds(1));
+
+    verifyNoInteractions(redisTemplate);
+  }
+
+  @Test
+  void isRevoked_cachesTheRedisAnswer() {
+    when(redisTemplate.hasKey(RedisKeys.REVOKED_JTI_PREFIX + "jti-1")).thenReturn(false);
+
+    assertFalse(tokenDenylist.isRevoked("jti-1"));
+    assertFalse(tokenDenylist.isRevoked("jti-1"));
+
+    verify(redisTemplate, times(1)).hasKey(anyString());
+  }
+
+  @Test
+  void onMessage_marksJtiRevokedOverACachedAnswer() {
+    when(redisTemplate.hasKey(RedisKeys.REVOKED_JTI_PREFIX + "jti-1")).thenReturn(false);
+    doReturn(RedisSerializer.string()).when(redisTemplate).getValueSerializer();
+    assertFalse(tokenDenylist.isRevoked("jti-1"));
+
+    tokenDenylist.onMessage(new DefaultMessage(
+        TokenDenylist.REVOCATION_CHANNEL.getBytes(StandardCharsets.UTF_8),
+        "jti-1".getBytes(StandardCharsets.UTF_8)), null);
+
+    assertTrue(tokenDenylist.isRevoked("jti-1"));
+    verify(redisTemplate, times(1)).hasKey(anyString());
+  }
+
+  @Test
+  void isRevoked_whenRedisIsDown_checksAccessAndRefreshJtisInTokenTable() {
+    when(redisTemplate.hasKey(anyString())).thenThrow(new RedisConnectionFailureException("down"));
+    when(tokenRepository.existsByJtiAndRevokedTrue(anyString())).thenReturn(false);
+    when(tokenRepository.existsByRefreshJtiAndRevokedTrue("refresh-jti")).thenReturn(true);
+    when(tokenRepository.existsByRefreshJtiAndRevokedTrue("live-jti")).thenReturn(false);
+
+    assertTrue(tokenDenylist.isRevoked("refresh-jti"));
+    assertFalse(tokenDenylist.isRevoked("live-jti"));
+  }
+}
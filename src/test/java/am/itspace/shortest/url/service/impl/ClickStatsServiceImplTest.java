@@ -0,0 +1,61 @@
+package am.itspace.shortest.url.service.impl;
+
+import am.itspace.shortest.url.dto.response.ClickTimeseriesPoint;
+import am.itspace.shortest.url.dto.response.ClickTimeseriesResponse;
+import am.itspace.shortest.url.model.ClickRollup;
+import am.itspace.shortest.url.model.enums.RollupGranularity;
+import am.itspace.shortest.url.repository.ClickRollupRepository;
+import am.itspace.shortest.url.repository.ShortUrlRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ClickStatsServiceImplTest {
+
+  private static final Instant FROM = Instant.parse("2026-01-01T10:00:00Z");
+  private static final Instant TO = Instant.parse("2026-01-01T12:00:00Z");
+
+  @Mock
+  private ShortUrlRepository shortUrlRepository;
+
+  @Mock
+  private ClickRollupRepository clickRollupRepository;
+
+  private ClickStatsServiceImpl clickStatsService;
+
+  @BeforeEach
+  void setUp() {
+    clickStatsService = new ClickStatsServiceImpl(shortUrlRepository, clickRollupRepository);
+  }
+
+  @Test
+  void getTimeseries_whenKeyIsUnknown_returnsEmpty() {
+    when(shortUrlRepository.existsByShortKey("missing")).thenReturn(false);
+
+    assertTrue(clickStatsService.getTimeseries("missing", RollupGranularity.HOUR, FROM, TO).isEmpty());
+
+    verifyNoInteractions(clickRollupRepository);
+  }
+
+  @Test
+  void getTimeseries_whenLinkNoLongerRedirects_stillReturnsItsHistory() {
+    when(shortUrlRepository.existsByShortKey("expired")).thenReturn(true);
+    when(clickRollupRepository.findAllByShortKeyAndGranularityAndBucketStartBetweenOrderByBucketStart("expired", RollupGranularity.HOUR, FROM, TO))
+        .thenReturn(List.of(ClickRollup.builder().shortKey("expired").granularity(RollupGranularity.HOUR)
+            .bucketStart(FROM.plusSeconds(3600)).clickCount(4L).build()));
+
+    Optional<ClickTimeseriesResponse> response = clickStatsService.getTimeseries("expired", RollupGranularity.HOUR, FROM, TO);
+
+    assertEquals(List.of(0L, 4L, 0L), response.orElseThrow().getPoints().stream().map(ClickTimeseriesPoint::getClicks).toList());
+  }
+}
@@ -0,0 +1,82 @@
+package am.itspace.shortest.url.service.impl;
+
+import am.itspace.shortest.url.dto.response.ShortUrlResponse;
+import am.itspace.shortest.url.exception.UserNotFoundException;
+import am.itspace.shortest.url.model.User;
+import am.itspace.shortest.url.model.enums.ImportFormat;
+import am.itspace.shortest.url.model.enums.Role;
+import am.itspace.shortest.url.repository.UserRepository;
+import am.itspace.shortest.url.security.CurrentUser;
+import am.itspace.shortest.url.service.ShortUrlService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ShortUrlImportServiceImplTest {
+
+  private static final String BODY = "{\"originalUrl\":\"https://a.com\"}\n{\"originalUrl\":\"https://b.com\"}\n";
+
+  @Mock
+  private ShortUrlService shortUrlService;
+  @Mock
+  private UserRepository userRepository;
+  @Mock
+  private Validator validator;
+
+  private ShortUrlImportServiceImpl importService;
+  private CurrentUser currentUser;
+
+  @BeforeEach
+  void setUp() {
+    importService = new ShortUrlImportServiceImpl(shortUrlService, userRepository, validator, new ObjectMapper(), 1);
+    currentUser = new CurrentUser(User.builder()
+        .id(99L)
+        .email("test@example.com")
+        .password("testpassword")
+        .role(Role.USER)
+        .build());
+  }
+
+  @Test
+  void importUrls_whenUserDoesNotExist_failsBeforeWritingAnything() {
+    when(userRepository.existsById(99L)).thenReturn(false);
+    StringWriter output = new StringWriter();
+
+    assertThrows(UserNotFoundException.class,
+        () -> importService.importUrls(new StringReader(BODY), ImportFormat.NDJSON, currentUser, output));
+
+    assertEquals("", output.toString());
+    verifyNoInteractions(shortUrlService);
+  }
+
+  @Test
+  void importUrls_whenAChunkFails_reportsItAndContinues() throws Exception {
+    when(userRepository.existsById(99L)).thenReturn(true);
+    when(validator.validate(any())).thenReturn(Set.of());
+    when(shortUrlService.createShortUrls(any(), eq(currentUser)))
+        .thenThrow(new IllegalStateException("database down"))
+        .thenReturn(List.of(ShortUrlResponse.builder().shortKey("bbbbbbb").build()));
+    StringWriter output = new StringWriter();
+
+    importService.importUrls(new StringReader(BODY), ImportFormat.NDJSON, currentUser, output);
+
+    String[] lines = output.toString().split("\n");
+    assertEquals(2, lines.length);
+    assertTrue(lines[0].contains("\"error\":\"Failed to store URL\""), lines[0]);
+    assertTrue(lines[1].contains("\"shortKey\":\"bbbbbbb\""), lines[1]);
+  }
+}
@@ -1,29 +1,45 @@
 package am.itspace.shortest.url.service.impl;
 
+import am.itspace.shortest.url.cache.ShortUrlNearCache;
+import am.itspace.shortest.url.cache.filter.ShortKeyFilter;
+import am.itspace.shortest.url.click.ClickAggregator;
+import am.itspace.shortest.url.click.UniqueVisitorStore;
+import am.itspace.shortest.url.dto.request.BulkShortUrlRequest;
 import am.itspace.shortest.url.dto.request.ShortUrlRequest;
 import am.itspace.shortest.url.dto.response.ShortUrlResponse;
 import am.itspace.shortest.url.exception.UserNotFoundException;
+import am.itspace.shortest.url.keygen.ShortKeyGenerator;
+import am.itspace.shortest.url.lifecycle.LinkLifecycleEngine;
 import am.itspace.shortest.url.mapper.ShortUrlMapper;
 import am.itspace.shortest.url.model.ShortUrl;
 import am.itspace.shortest.url.model.User;
 import am.itspace.shortest.url.model.enums.Role;
+import am.itspace.shortest.url.model.enums.UrlStatus;
+import am.itspace.shortest.url.repository.ShortUrlJdbcRepository;
 import am.itspace.shortest.url.repository.ShortUrlRepository;
 import am.itspace.shortest.url.repository.UserRepository;
 import am.itspace.shortest.url.security.CurrentUser;
+import am.itspace.shortest.url.util.RedisKeys;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.MockedStatic;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.core.ValueOperations;
 
 import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
@@ -44,6 +60,21 @@ class ShortUrlServiceImplTest {
   private ValueOperations<String, Object> valueOperations;
 
 
+  @Mock
+  private ShortUrlNearCache shortUrlNearCache;
+  @Mock
+  private ShortKeyGenerator shortKeyGenerator;
+  @Mock
+  private ShortKeyFilter shortKeyFilter;
+  @Mock
+  private ClickAggregator clickAggregator;
+  @Mock
+  private ShortUrlJdbcRepository shortUrlJdbcRepository;
+  @Mock
+  private UniqueVisitorStore uniqueVisitorStore;
+  @Mock
+  private LinkLifecycleEngine linkLifecycleEngine;
+
   @Mock
   private UserServiceImpl userService;
 
@@ -51,9 +82,9 @@ class ShortUrlServiceImplTest {
 
   @BeforeEach
   void setUp() {
-    shortUrlService = new ShortUrlServiceImpl(shortUrlRepository, redisTemplate, userRepository);
-    when(redisTemplate.opsForValue()).thenReturn(valueOperations);
-    when(valueOperations.get(anyString())).thenReturn(null);
+    shortUrlService = new ShortUrlServiceImpl(shortUrlRepository, redisTemplate, userRepository, shortUrlNearCache, shortKeyGenerator, shortKeyFilter, clickAggregator, shortUrlJdbcRepository, uniqueVisitorStore, linkLifecycleEngine);
+    lenient().when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+    lenient().when(valueOperations.get(anyString())).thenReturn(null);
   }
 
   private void mockRedisValueOperations() {
@@ -112,7 +143,7 @@ class ShortUrlServiceImplTest {
         .originalUrl(originalUrl)
         .shortKey(shortKey)
         .isActive(true)
-        .clickCount(5)
+        .clickCount(5L)
         .userId(mockUser.getId())
         .build();
 
@@ -168,4 +199,187 @@ class ShortUrlServiceImplTest {
     verify(userRepository).findById(mockUser.getId());
     verifyNoInteractions(shortUrlRepository);
   }
-}
\ No newline at end of file
+
+  @Test
+  void getOriginalUrl_whenKeyIsInRedis_answersWithoutConsultingTheFilter() {
+    ShortUrl shortUrl = ShortUrl.builder()
+        .shortKey("aZ09xYq")
+        .originalUrl("https://example.com")
+        .isActive(true)
+        .build();
+    when(valueOperations.get(RedisKeys.BY_KEY_PREFIX + "aZ09xYq")).thenReturn(shortUrl);
+
+    assertEquals("https://example.com", shortUrlService.getOriginalUrl("aZ09xYq"));
+
+    verifyNoInteractions(shortKeyFilter);
+    verify(shortUrlNearCache).put(shortUrl);
+  }
+
+  @Test
+  void getOriginalUrl_whenRedisMissesAndFilterRejects_skipsTheDatabase() {
+    when(shortKeyFilter.mightContain("missing")).thenReturn(false);
+
+    assertNull(shortUrlService.getOriginalUrl("missing"));
+
+    verifyNoInteractions(shortUrlRepository);
+  }
+
+  @Test
+  void getOriginalUrl_whenNearCachedLinkHasExpired_returnsNullWithoutFurtherLookups() {
+    ShortUrl expired = ShortUrl.builder()
+        .shortKey("expired").originalUrl("https://example.com").status(UrlStatus.ACTIVE)
+        .expiresAt(Instant.now().minusSeconds(1))
+        .build();
+    when(shortUrlNearCache.get("expired")).thenReturn(expired);
+
+    assertNull(shortUrlService.getOriginalUrl("expired"));
+
+    verifyNoInteractions(valueOperations, shortKeyFilter, shortUrlRepository);
+  }
+
+  @Test
+  void getOriginalUrl_whenCachedLinkIsScheduled_returnsNull() {
+    ShortUrl scheduled = ShortUrl.builder()
+        .shortKey("later01").originalUrl("https://example.com").status(UrlStatus.SCHEDULED)
+        .activatesAt(Instant.now().plus(Duration.ofHours(1)))
+        .build();
+    when(valueOperations.get(RedisKeys.BY_KEY_PREFIX + "later01")).thenReturn(scheduled);
+
+    assertNull(shortUrlService.getOriginalUrl("later01"));
+
+    verify(shortUrlNearCache).put(scheduled);
+    verifyNoInteractions(shortUrlRepository);
+  }
+
+  @Test
+  void getOriginalUrl_whenStoredLinkIsOutOfClicks_cachesItAndReturnsNull() {
+    ShortUrl exhausted = ShortUrl.builder()
+        .shortKey("used001").originalUrl("https://example.com").status(UrlStatus.ACTIVE)
+        .maxClicks(5L).clickCount(5L)
+        .build();
+    when(shortKeyFilter.mightContain("used001")).thenReturn(true);
+    when(shortUrlRepository.findByShortKey("used001")).thenReturn(Optional.of(exhausted));
+
+    assertNull(shortUrlService.getOriginalUrl("used001"));
+
+    verify(valueOperations).set(RedisKeys.BY_KEY_PREFIX + "used001", exhausted, RedisKeys.CACHE_TTL);
+  }
+
+  @Test
+  void getOriginalUrl_whenStoredLinkIsActive_returnsOriginalUrl() {
+    ShortUrl active = ShortUrl.builder()
+        .shortKey("live001").originalUrl("https://example.com").status(UrlStatus.ACTIVE)
+        .expiresAt(Instant.now().plus(Duration.ofDays(1)))
+        .maxClicks(5L).clickCount(4L)
+        .build();
+    when(shortKeyFilter.mightContain("live001")).thenReturn(true);
+    when(shortUrlRepository.findByShortKey("live001")).thenReturn(Optional.of(active));
+
+    assertEquals("https://example.com", shortUrlService.getOriginalUrl("live001"));
+  }
+
+  @Test
+  void createShortUrls_answersEveryRequestInOrderReusingExistingAndRepeatedUrls() {
+    User user = User.builder().id(99L).email("test@example.com").password("testpassword").role(Role.USER).build();
+    ShortUrl existing = ShortUrl.builder().id(5L).shortKey("exists1").originalUrl("https://b.com").isActive(true).build();
+    when(userRepository.findById(99L)).thenReturn(Optional.of(user));
+    when(shortUrlRepository.findAllByOriginalUrlHashIn(anyList())).thenReturn(List.of(existing));
+    when(shortKeyGenerator.isCollisionFree()).thenReturn(true);
+    when(shortKeyGenerator.nextKey()).thenReturn("new0001", "new0002");
+    when(shortUrlJdbcRepository.insertAll(anyList())).thenReturn(List.of());
+
+    List<ShortUrlResponse> responses = shortUrlService.createShortUrls(bulk("https://a.com", "https://b.com", "https://a.com", "https://c.com"),
+        new CurrentUser(user));
+
+    assertEquals(List.of("new0001", "exists1", "new0001", "new0002"), responses.stream().map(ShortUrlResponse::getShortKey).toList());
+    ArgumentCaptor<List<ShortUrl>> inserted = ArgumentCaptor.forClass(List.class);
+    verify(shortUrlJdbcRepository).insertAll(inserted.capture());
+    assertEquals(List.of("https://a.com", "https://c.com"), inserted.getValue().stream().map(ShortUrl::getOriginalUrl).toList());
+  }
+
+  @Test
+  void createShortUrls_whenAUrlIsOnlyStoredWithoutAHash_reusesThatRow() {
+    User user = User.builder().id(99L).email("test@example.com").password("testpassword").role(Role.USER).build();
+    ShortUrl legacy = ShortUrl.builder().id(3L).shortKey("legacy1").originalUrl("https://b.com").isActive(true).build();
+    when(userRepository.findById(99L)).thenReturn(Optional.of(user));
+    when(shortUrlRepository.findAllByOriginalUrlHashIn(anyList())).thenReturn(List.of());
+    when(shortUrlRepository.findAllUnhashedByOriginalUrlIn(List.of("https://a.com", "https://b.com"))).thenReturn(List.of(legacy));
+    when(shortKeyGenerator.isCollisionFree()).thenReturn(true);
+    when(shortKeyGenerator.nextKey()).thenReturn("new0001");
+    when(shortUrlJdbcRepository.insertAll(anyList())).thenReturn(List.of());
+
+    List<ShortUrlResponse> responses = shortUrlService.createShortUrls(bulk("https://a.com", "https://b.com"), new CurrentUser(user));
+
+    assertEquals(List.of("new0001", "legacy1"), responses.stream().map(ShortUrlResponse::getShortKey).toList());
+    ArgumentCaptor<List<ShortUrl>> inserted = ArgumentCaptor.forClass(List.class);
+    verify(shortUrlJdbcRepository).insertAll(inserted.capture());
+    assertEquals(List.of("https://a.com"), inserted.getValue().stream().map(ShortUrl::getOriginalUrl).toList());
+  }
+
+  @Test
+  void createShortUrls_whenAUrlIsStoredConcurrently_returnsTheStoredRow() {
+    User user = User.builder().id(99L).email("test@example.com").password("testpassword").role(Role.USER).build();
+    ShortUrl storedElsewhere = ShortUrl.builder().id(7L).shortKey("theirs1").originalUrl("https://b.com").isActive(true).build();
+    when(userRepository.findById(99L)).thenReturn(Optional.of(user));
+    when(shortUrlRepository.findAllByOriginalUrlHashIn(anyList())).thenReturn(List.of(), List.of(storedElsewhere));
+    when(shortKeyGenerator.isCollisionFree()).thenReturn(true);
+    when(shortKeyGenerator.nextKey()).thenReturn("new0001", "new0002");
+    when(shortUrlJdbcRepository.insertAll(anyList())).thenAnswer(invocation -> {
+      List<ShortUrl> rows = invocation.getArgument(0);
+      rows.get(0).setId(1L);
+      return List.of(rows.get(1));
+    });
+
+    List<ShortUrlResponse> responses = shortUrlService.createShortUrls(bulk("https://a.com", "https://b.com"), new CurrentUser(user));
+
+    assertEquals(List.of("new0001", "theirs1"), responses.stream().map(ShortUrlResponse::getShortKey).toList());
+    verify(shortKeyFilter).add("new0001");
+    verify(shortKeyFilter, never()).add("new0002");
+    verify(linkLifecycleEngine, times(1)).track(any());
+  }
+
+  private static BulkShortUrlRequest bulk(String... originalUrls) {
+    List<ShortUrlRequest> urls = new ArrayList<>();
+    for (String originalUrl : originalUrls) {
+      urls.add(ShortUrlRequest.builder().originalUrl(originalUrl).build());
+    }
+    return BulkShortUrlRequest.builder().urls(urls).build();
+  }
+
+  @Test
+  void createShortUrl_whenAnotherRequestStoresTheUrlFirst_returnsTheStoredRow() {
+    User user = User.builder().id(99L).email("test@example.com").password("testpassword").role(Role.USER).build();
+    ShortUrl storedElsewhere = ShortUrl.builder().id(7L).shortKey("theirs1").originalUrl("https://race.com").isActive(true).build();
+    when(userRepository.findById(99L)).thenReturn(Optional.of(user));
+    when(shortUrlRepository.findByOriginalUrl("https://race.com")).thenReturn(Optional.empty(), Optional.of(storedElsewhere));
+    when(shortKeyGenerator.isCollisionFree()).thenReturn(true);
+    when(shortKeyGenerator.nextKey()).thenReturn("new0001");
+    when(shortUrlRepository.save(any(ShortUrl.class))).thenThrow(new DataIntegrityViolationException("ux_short_url_original_url_hash"));
+
+    ShortUrlResponse response = shortUrlService.createShortUrl(ShortUrlRequest.builder().originalUrl("https://race.com").build(),
+        new CurrentUser(user));
+
+    assertEquals("theirs1", response.getShortKey());
+    verify(shortKeyFilter, never()).add(anyString());
+    verifyNoInteractions(linkLifecycleEngine);
+  }
+
+  @Test
+  void createShortUrl_whenShortKeyIsAlreadyTaken_retriesWithTheNextKey() {
+    User user = User.builder().id(99L).email("test@example.com").password("testpassword").role(Role.USER).build();
+    when(userRepository.findById(99L)).thenReturn(Optional.of(user));
+    when(shortUrlRepository.findByOriginalUrl("https://fresh.com")).thenReturn(Optional.empty());
+    when(shortKeyGenerator.isCollisionFree()).thenReturn(true);
+    when(shortKeyGenerator.nextKey()).thenReturn("taken01", "free001");
+    when(shortUrlRepository.save(any(ShortUrl.class)))
+        .thenThrow(new DataIntegrityViolationException("ux_short_url_short_key"))
+        .thenAnswer(invocation -> invocation.getArgument(0));
+
+    ShortUrlResponse response = shortUrlService.createShortUrl(ShortUrlRequest.builder().originalUrl("https://fresh.com").build(),
+        new CurrentUser(user));
+
+    assertEquals("free001", response.getShortKey());
+    verify(shortUrlRepository, times(2)).save(any(ShortUrl.class));
+    verify(shortKeyFilter).add("free001");
+  }
+}
@@ -2,26 +2,38 @@ package am.itspace.shortest.url.service.impl;
 
 import am.itspace.shortest.url.dto.request.CreateUserRequest;
 import am.itspace.shortest.url.dto.request.UserAuthRequest;
+import am.itspace.shortest.url.dto.response.RefreshTokenResponse;
 import am.itspace.shortest.url.dto.response.UserAuthResponse;
 import am.itspace.shortest.url.exception.CredentialException;
 import am.itspace.shortest.url.exception.UserAlreadyExistsException;
 import am.itspace.shortest.url.model.ShortUrl;
+import am.itspace.shortest.url.model.Token;
 import am.itspace.shortest.url.model.User;
 import am.itspace.shortest.url.model.enums.Role;
+import am.itspace.shortest.url.repository.ShortUrlJdbcRepository;
 import am.itspace.shortest.url.repository.ShortUrlRepository;
 import am.itspace.shortest.url.repository.TokenRepository;
 import am.itspace.shortest.url.repository.UserRepository;
+import am.itspace.shortest.url.security.TokenDenylist;
+import am.itspace.shortest.url.security.UserDetailsServiceImpl;
 import am.itspace.shortest.url.util.jwt.JwtTokenUtil;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.security.authentication.password.CompromisedPasswordChecker;
 import org.springframework.security.authentication.password.CompromisedPasswordDecision;
 import org.springframework.security.authentication.password.CompromisedPasswordException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -37,6 +49,9 @@ class UserServiceImplTest {
   @Mock
   private ShortUrlRepository shortUrlRepository;
 
+  @Mock
+  private ShortUrlJdbcRepository shortUrlJdbcRepository;
+
   @Mock
   private PasswordEncoder passwordEncoder;
 
@@ -49,6 +64,12 @@ class UserServiceImplTest {
   @Mock
   private CompromisedPasswordChecker compromisedPasswordChecker;
 
+  @Mock
+  private TokenDenylist tokenDenylist;
+
+  @Mock
+  private UserDetailsServiceImpl userDetailsService;
+
   private UserServiceImpl userServiceImpl;
 
   @BeforeEach
@@ -59,7 +80,10 @@ class UserServiceImplTest {
         passwordEncoder,
         tokenRepository,
         shortUrlRepository,
-        compromisedPasswordChecker
+        shortUrlJdbcRepository,
+        compromisedPasswordChecker,
+        tokenDenylist,
+        userDetailsService
     );
   }
 
@@ -112,6 +136,31 @@ class UserServiceImplTest {
     verify(jwtTokenUtil).refreshToken("accessToken123");
   }
 
+  @Test
+  void register_whenUrlIsNew_insertsItAndLinksTheStoredRow() {
+    CreateUserRequest request = CreateUserRequest.builder()
+        .firstName("John")
+        .email("john@example.com")
+        .password("password123")
+        .originalUrl("https://example.com")
+        .build();
+    // stands for the row this request inserted or the one a concurrent registration got in first with
+    ShortUrl stored = ShortUrl.builder().id(7L).originalUrl(request.getOriginalUrl()).build();
+
+    when(userRepository.findByEmail(request.getEmail())).thenReturn(Optional.empty());
+    when(passwordEncoder.encode(request.getPassword())).thenReturn("encodedPassword");
+    when(shortUrlRepository.findByOriginalUrl(request.getOriginalUrl())).thenReturn(Optional.empty(), Optional.of(stored));
+    when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+    userServiceImpl.register(request);
+
+    verify(shortUrlJdbcRepository).insertOriginalUrlIfAbsent(request.getOriginalUrl());
+    verify(shortUrlRepository, never()).save(any());
+    ArgumentCaptor<User> user = ArgumentCaptor.forClass(User.class);
+    verify(userRepository).save(user.capture());
+    assertSame(stored, user.getValue().getShortUrl());
+  }
+
   @Test
   void register_whenUserAlreadyExists_throwsException() {
     CreateUserRequest request = CreateUserRequest.builder()
@@ -168,6 +217,35 @@ class UserServiceImplTest {
     verify(tokenRepository).save(any());
   }
 
+  @Test
+  void login_whenPasswordEncodingIsOutdated_rehashesPassword() {
+    String email = "test@example.com";
+    String rawPassword = "password123";
+    String encodedPassword = "$2a$04$outdated";
+
+    User mockUser = User.builder()
+        .id(1L)
+        .email(email)
+        .password(encodedPassword)
+        .role(Role.USER)
+        .build();
+
+    UserAuthRequest request = new UserAuthRequest(email, rawPassword);
+
+    when(userRepository.findByEmail(email)).thenReturn(Optional.of(mockUser));
+    when(passwordEncoder.matches(rawPassword, encodedPassword)).thenReturn(true);
+    when(compromisedPasswordChecker.check(rawPassword))
+        .thenReturn(new CompromisedPasswordDecision(false));
+    when(passwordEncoder.upgradeEncoding(encodedPassword)).thenReturn(true);
+    when(passwordEncoder.encode(rawPassword)).thenReturn("{bcrypt}$2a$10$upgraded");
+
+    userServiceImpl.login(request);
+
+    assertEquals("{bcrypt}$2a$10$upgraded", mockUser.getPassword());
+    verify(userRepository).save(mockUser);
+    verify(userDetailsService).evict(email);
+  }
+
   @Test
   void login_whenUserNotFound_throwsCredentialException() {
     UserAuthRequest request = new UserAuthRequest("unknown@example.com", "password");
@@ -231,4 +309,64 @@ class UserServiceImplTest {
     verifyNoInteractions(jwtTokenUtil, tokenRepository);
   }
 
-}
\ No newline at end of file
+  @Test
+  void refreshToken_withAccessToken_returnsNull() {
+    User user = User.builder().id(1L).email("test@example.com").build();
+    when(jwtTokenUtil.parseClaims("access-token")).thenReturn(claims("access-jti", JwtTokenUtil.ACCESS_TOKEN));
+    when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(user));
+
+    RefreshTokenResponse response = userServiceImpl.refreshToken(bearer("access-token"), new MockHttpServletResponse());
+
+    assertNull(response);
+    verify(jwtTokenUtil, never()).generateToken(anyString());
+    verifyNoInteractions(tokenRepository);
+  }
+
+  @Test
+  void refreshToken_withRefreshToken_rotatesTokensAndDenylistsOldRefreshJti() {
+    User user = User.builder().id(1L).email("test@example.com").build();
+    Instant expiresAt = Instant.now().plusSeconds(3600);
+    Token stored = Token.builder()
+        .jti("access-jti").expiresAt(expiresAt)
+        .refreshJti("refresh-jti").refreshExpiresAt(expiresAt)
+        .build();
+    when(jwtTokenUtil.parseClaims("refresh-token")).thenReturn(claims("refresh-jti", JwtTokenUtil.REFRESH_TOKEN));
+    when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(user));
+    when(tokenDenylist.isRevoked("refresh-jti")).thenReturn(false);
+    when(jwtTokenUtil.generateToken("test@example.com")).thenReturn("new-access-token");
+    when(jwtTokenUtil.refreshToken("new-access-token")).thenReturn("new-refresh-token");
+    when(tokenRepository.findAllValidTokensByUserId(1L)).thenReturn(List.of(stored));
+
+    RefreshTokenResponse response = userServiceImpl.refreshToken(bearer("refresh-token"), new MockHttpServletResponse());
+
+    assertEquals("new-access-token", response.getAccessToken());
+    assertEquals("new-refresh-token", response.getRefreshToken());
+    assertTrue(stored.isRevoked());
+    verify(tokenDenylist).revoke("access-jti", expiresAt);
+    verify(tokenDenylist).revoke("refresh-jti", expiresAt);
+  }
+
+  @Test
+  void refreshToken_withRevokedRefreshToken_returnsNull() {
+    User user = User.builder().id(1L).email("test@example.com").build();
+    when(jwtTokenUtil.parseClaims("refresh-token")).thenReturn(claims("refresh-jti", JwtTokenUtil.REFRESH_TOKEN));
+    when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(user));
+    when(tokenDenylist.isRevoked("refresh-jti")).thenReturn(true);
+
+    assertNull(userServiceImpl.refreshToken(bearer("refresh-token"), new MockHttpServletResponse()));
+    verify(jwtTokenUtil, never()).generateToken(anyString());
+  }
+
+  private static Claims claims(String jti, String tokenUse) {
+    Claims claims = Jwts.claims().setSubject("test@example.com").setId(jti);
+    claims.put(JwtTokenUtil.TOKEN_USE_CLAIM, tokenUse);
+    return claims;
+  }
+
+  private static MockHttpServletRequest bearer(String token) {
+    MockHttpServletRequest request = new MockHttpServletRequest();
+    request.addHeader("Authorization", "Bearer " + token);
+    return request;
+  }
+
+}
@@ -0,0 +1,25 @@
+package am.itspace.shortest.url.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RedisKeysTest {
+
+  @Test
+  void shardOf_spreadsKeysEvenlyOverAllShards() {
+    int[] counts = new int[64];
+    for (int i = 0; i < 64_000; i++) {
+      counts[RedisKeys.shardOf("k" + Integer.toString(i, 36), 64)]++;
+    }
+
+    for (int count : counts) {
+      assertTrue(count > 800 && count < 1_200, "shard size " + count);
+    }
+  }
+
+  @Test
+  void shardOf_isStableForTheSameKey() {
+    assertEquals(RedisKeys.shardOf("aZ09xY", 64), RedisKeys.shardOf("aZ09xY", 64));
+  }
+}
@@ -0,0 +1,31 @@
+package am.itspace.shortest.url.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UrlHashUtilTest {
+
+  @Test
+  void hash_isFixedWidthAndStable() {
+    String url = "https://example.com/" + "a".repeat(2000);
+
+    assertEquals(UrlHashUtil.HASH_LENGTH, UrlHashUtil.hash(url).length);
+    assertArrayEquals(UrlHashUtil.hash(url), UrlHashUtil.hash(url));
+  }
+
+  @Test
+  void hash_whenUrlsDiffer_producesDifferentDigests() {
+    assertFalse(Arrays.equals(UrlHashUtil.hash("https://a.com"), UrlHashUtil.hash("https://a.com/")));
+  }
+
+  @Test
+  void hashKey_isUrlSafeAndShort() {
+    String key = UrlHashUtil.hashKey("https://example.com/path?q=1&r=ü");
+
+    assertEquals(22, key.length());
+    assertTrue(key.matches("[A-Za-z0-9_-]+"));
+  }
+}
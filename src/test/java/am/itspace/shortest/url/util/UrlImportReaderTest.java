@@ -0,0 +1,67 @@
+package am.itspace.shortest.url.util;
+
+import am.itspace.shortest.url.model.enums.ImportFormat;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UrlImportReaderTest {
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  private UrlImportReader reader(String body, ImportFormat format) {
+    return new UrlImportReader(new StringReader(body), format, 64, objectMapper);
+  }
+
+  @Test
+  void next_whenNdjson_readsUrlsAndSkipsBlankLines() throws IOException {
+    UrlImportReader reader = reader("{\"originalUrl\":\"https://a.com\"}\n\n{\"originalUrl\":\"https://b.com\"}", ImportFormat.NDJSON);
+
+    UrlImportReader.Line first = reader.next();
+    UrlImportReader.Line second = reader.next();
+
+    assertEquals(1, first.number());
+    assertEquals("https://a.com", first.originalUrl());
+    assertEquals(3, second.number());
+    assertEquals("https://b.com", second.originalUrl());
+    assertNull(reader.next());
+  }
+
+  @Test
+  void next_whenNdjsonLineIsInvalid_reportsErrorAndContinues() throws IOException {
+    UrlImportReader reader = reader("not json\n{\"url\":\"https://a.com\"}\n{\"originalUrl\":\"https://b.com\"}\n", ImportFormat.NDJSON);
+
+    assertNotNull(reader.next().error());
+    assertNotNull(reader.next().error());
+    assertEquals("https://b.com", reader.next().originalUrl());
+    assertNull(reader.next());
+  }
+
+  @Test
+  void next_whenCsv_skipsHeaderAndReadsFirstColumn() throws IOException {
+    UrlImportReader reader = reader("url,label\r\nhttps://a.com,first\r\n\"https://b.com/?q=1,2\",\"second\"\r\n", ImportFormat.CSV);
+
+    UrlImportReader.Line first = reader.next();
+    UrlImportReader.Line second = reader.next();
+
+    assertEquals(2, first.number());
+    assertEquals("https://a.com", first.originalUrl());
+    assertEquals("https://b.com/?q=1,2", second.originalUrl());
+    assertNull(reader.next());
+  }
+
+  @Test
+  void next_whenLineIsTooLong_reportsErrorWithoutBufferingIt() throws IOException {
+    UrlImportReader reader = reader("https://a.com/" + "x".repeat(200) + "\nhttps://b.com\n", ImportFormat.CSV);
+
+    UrlImportReader.Line tooLong = reader.next();
+
+    assertNull(tooLong.originalUrl());
+    assertNotNull(tooLong.error());
+    assertEquals("https://b.com", reader.next().originalUrl());
+  }
+}
@@ -0,0 +1,49 @@
+package am.itspace.shortest.url.util.jwt;
+
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtTokenVerifierTest {
+
+  private static final String SECRET = Base64.getEncoder().encodeToString(new byte[64]);
+
+  private final JwtTokenUtil jwtTokenUtil = new JwtTokenUtil(SECRET, 3600L);
+  private final JwtTokenVerifier verifier = new JwtTokenVerifier(jwtTokenUtil, 100, Duration.ofMinutes(5));
+
+  @Test
+  void verify_whenTokenIsValid_returnsClaimsAndCachesThem() {
+    String token = jwtTokenUtil.generateToken("user@example.com");
+
+    Claims first = verifier.verify(token);
+    Claims second = verifier.verify(token);
+
+    assertEquals("user@example.com", first.getSubject());
+    assertSame(first, second);
+  }
+
+  @Test
+  void verify_whenSignatureIsTampered_returnsNull() {
+    String token = jwtTokenUtil.generateToken("user@example.com");
+    String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+    assertNull(verifier.verify(tampered));
+  }
+
+  @Test
+  void verify_whenTokenIsExpired_returnsNull() {
+    JwtTokenUtil expiredTokenUtil = new JwtTokenUtil(SECRET, -1L);
+    JwtTokenVerifier expiredVerifier = new JwtTokenVerifier(expiredTokenUtil, 100, Duration.ofMinutes(5));
+
+    assertNull(expiredVerifier.verify(expiredTokenUtil.generateToken("user@example.com")));
+  }
+
+  @Test
+  void verify_whenTokenIsMalformed_returnsNull() {
+    assertNull(verifier.verify("not-a-jwt"));
+  }
+}